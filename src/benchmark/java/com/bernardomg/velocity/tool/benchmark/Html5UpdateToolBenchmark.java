@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+
+/**
+ * Benchmarks for {@link Html5UpdateTool}.
+ * <p>
+ * Each method receives a freshly parsed page, so parsing is not included in the measures.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class Html5UpdateToolBenchmark {
+
+    /**
+     * Page size.
+     */
+    @Param({ "small", "medium", "huge" })
+    public String                 size;
+
+    /**
+     * Tool for parsing the page.
+     */
+    private final HtmlTool        htmlTool = new HtmlTool();
+
+    /**
+     * Page HTML.
+     */
+    private String                html;
+
+    /**
+     * Parsed page.
+     */
+    private Element               root;
+
+    /**
+     * Benchmarked tool.
+     */
+    private final Html5UpdateTool tool     = new Html5UpdateTool();
+
+    /**
+     * Default constructor.
+     */
+    public Html5UpdateToolBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public Element removePointsFromAttr() {
+        return tool.removePointsFromAttr(root, "a[href^=#]", "href");
+    }
+
+    /**
+     * Generates the page.
+     */
+    @Setup(Level.Trial)
+    public void setUpPage() {
+        html = ReportPages.generate(size);
+    }
+
+    /**
+     * Parses the page before each invocation, as the methods modify it.
+     */
+    @Setup(Level.Invocation)
+    public void setUpRoot() {
+        root = htmlTool.parse(html);
+    }
+
+    @Benchmark
+    public Element updateTableHeads() {
+        return tool.updateTableHeads(root);
+    }
+
+    @Benchmark
+    public String updateTableHeadsStreaming() throws IOException {
+        final StringWriter output;
+
+        output = new StringWriter(html.length());
+        tool.updateTableHeads(new StringReader(html), output);
+
+        return output.toString();
+    }
+
+}
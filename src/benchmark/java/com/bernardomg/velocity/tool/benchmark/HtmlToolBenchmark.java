@@ -0,0 +1,228 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bernardomg.velocity.tool.HtmlRule;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.Pipeline;
+
+/**
+ * Benchmarks for {@link HtmlTool}.
+ * <p>
+ * Each modifying method receives a freshly parsed page, so parsing is not included in the measures.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HtmlToolBenchmark {
+
+    /**
+     * Rules for the bulk edition benchmarks.
+     */
+    private static final List<HtmlRule> RULES = List.of(HtmlRule.addClass("table", "table"),
+        HtmlRule.addClass("pre", "pre-scrollable"), HtmlRule.addClass("code", "code"),
+        HtmlRule.addClass("blockquote", "blockquote"), HtmlRule.removeAttribute("table", "border"));
+
+    /**
+     * Page size.
+     */
+    @Param({ "small", "medium", "huge" })
+    public String               size;
+
+    /**
+     * Page HTML.
+     */
+    private String              html;
+
+    /**
+     * Steps for the whole page benchmarks.
+     */
+    private Pipeline            pipeline;
+
+    /**
+     * Parsed page.
+     */
+    private Element             root;
+
+    /**
+     * Benchmarked tool.
+     */
+    private final HtmlTool      tool = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public HtmlToolBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public Element addClass() {
+        return tool.addClass(root, "table", "table");
+    }
+
+    /**
+     * Applies the rules through the bulk edition.
+     *
+     * @return the edited element
+     */
+    @Benchmark
+    public Element apply() {
+        return tool.apply(root, RULES);
+    }
+
+    /**
+     * Applies the rules by calling the equivalent methods one after the other.
+     *
+     * @return the edited element
+     */
+    @Benchmark
+    public Element applySequentially() {
+        for (final HtmlRule rule : RULES) {
+            if (rule.getOperation() == HtmlRule.Operation.ADD_CLASS) {
+                tool.addClass(root, rule.getSelector(), rule.getArgument());
+            } else {
+                tool.removeAttribute(root, rule.getSelector(), rule.getArgument());
+            }
+        }
+
+        return root;
+    }
+
+    @Benchmark
+    public Element parse() {
+        return tool.parse(html);
+    }
+
+    /**
+     * Parses the page, applies the pipeline, and gets the resulting HTML through the separate methods.
+     *
+     * @return the resulting HTML
+     */
+    @Benchmark
+    public String parseAndSerialize() {
+        final Element parsed;
+
+        parsed = tool.parse(html);
+        pipeline.apply(parsed);
+
+        return parsed.html();
+    }
+
+    /**
+     * Parses the page, applies the pipeline, and gets the resulting HTML in a single call.
+     *
+     * @return the resulting HTML
+     */
+    @Benchmark
+    public String process() {
+        return tool.process(html, pipeline);
+    }
+
+    /**
+     * Parses the page, applies the pipeline, and gets the resulting HTML by copying the unchanged parts from the page.
+     *
+     * @return the resulting HTML
+     */
+    @Benchmark
+    public String processSpliced() {
+        final Element parsed;
+
+        parsed = tool.parseSpliced(html);
+        pipeline.apply(parsed);
+
+        return tool.serialize(parsed);
+    }
+
+    @Benchmark
+    public Element removeAttribute() {
+        return tool.removeAttribute(root, "table", "border");
+    }
+
+    @Benchmark
+    public Element removeClass() {
+        return tool.removeClass(root, "table", "bodyTable");
+    }
+
+    @Benchmark
+    public Element retag() {
+        return tool.retag(root, "h3", "h4");
+    }
+
+    /**
+     * Generates the page.
+     */
+    @Setup(Level.Trial)
+    public void setUpPage() {
+        html = ReportPages.generate(size);
+        pipeline = new Pipeline().then(page -> tool.addClass(page, "table", "table"));
+    }
+
+    /**
+     * Parses the page before each invocation, as the methods modify it.
+     */
+    @Setup(Level.Invocation)
+    public void setUpRoot() {
+        root = tool.parse(html);
+    }
+
+    @Benchmark
+    public Element swapTagWithParent() {
+        return tool.swapTagWithParent(root, "p > img");
+    }
+
+    @Benchmark
+    public Element unwrap() {
+        return tool.unwrap(root, "a:not([href])");
+    }
+
+    @Benchmark
+    public Element wrap() {
+        return tool.wrap(root, "table", "<div class=\"table-responsive\"></div>");
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.benchmark;
+
+/**
+ * Generates the body for Maven report pages, in the same shape Doxia creates them.
+ * <p>
+ * The pages contain nested sections with headings, anchors, internal and external links, tables with their heading rows
+ * inside the body, Maven Site icons and images.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ReportPages {
+
+    /**
+     * Maven Site icons used on the pages.
+     */
+    private static final String[] ICONS = { "images/add.gif", "images/fix.gif", "images/update.gif",
+            "images/remove.gif", "images/icon_success_sml.gif", "images/icon_error_sml.gif",
+            "images/icon_warning_sml.gif", "images/icon_info_sml.gif" };
+
+    /**
+     * Generates a page with the received number of sections and rows for each table.
+     *
+     * @param sections
+     *            number of sections
+     * @param rows
+     *            number of rows for each table
+     * @return the body for the page
+     */
+    public static final String generate(final int sections, final int rows) {
+        final StringBuilder html; // Generated HTML
+
+        html = new StringBuilder();
+        for (int section = 0; section < sections; section++) {
+            html.append("<section>");
+            html.append("<h2>Section ")
+                .append(section)
+                .append("</h2>");
+            html.append("<a name=\"Section_")
+                .append(section)
+                .append("\"></a>");
+            html.append("<p>Some text with an <a href=\"#Release_1.")
+                .append(section)
+                .append("\">internal link</a>, and <a href=\"https://www.example.com\">an external link</a>.</p>");
+            html.append("<section><h3>Release 1.")
+                .append(section)
+                .append(" – 2024-09-09</h3>");
+            html.append("<table border=\"0\" class=\"bodyTable\"><tbody>");
+            html.append("<tr class=\"a\"><th>Type</th><th>Changes</th><th>By</th></tr>");
+            for (int row = 0; row < rows; row++) {
+                html.append("<tr class=\"b\"><td><img src=\"")
+                    .append(ICONS[row % ICONS.length])
+                    .append("\" alt=\"\"></td><td>Change ")
+                    .append(row)
+                    .append(", see <a href=\"#Section_")
+                    .append(section)
+                    .append("\">Section ")
+                    .append(section)
+                    .append("</a></td><td>bmg</td></tr>");
+            }
+            html.append("</tbody></table>");
+            html.append("<p><img src=\"images/diagram.png\" alt=\"Diagram ")
+                .append(section)
+                .append("\"></p>");
+            html.append("<a href=\"rss.xml\"><img src=\"images/rss.png\" alt=\"rss\"></a>");
+            html.append("</section>");
+            html.append("</section>");
+        }
+
+        return html.toString();
+    }
+
+    /**
+     * Generates a page of the received size.
+     * <p>
+     * The sizes are:
+     * <ul>
+     * <li>small: 5 sections with 10 rows tables</li>
+     * <li>medium: 20 sections with 100 rows tables</li>
+     * <li>huge: 50 sections with 1000 rows tables</li>
+     * </ul>
+     *
+     * @param size
+     *            page size
+     * @return the body for the page
+     */
+    public static final String generate(final String size) {
+        final String html; // Generated HTML
+
+        switch (size) {
+            case "small":
+                html = generate(5, 10);
+                break;
+            case "medium":
+                html = generate(20, 100);
+                break;
+            case "huge":
+                html = generate(50, 1000);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown page size " + size);
+        }
+
+        return html;
+    }
+
+    /**
+     * Utilities class constructor.
+     */
+    private ReportPages() {
+        super();
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.rule.ElementRule;
+
+/**
+ * Fixes links to anchors in the same page, formatting them like heading ids.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class AnchorLinkRule implements ElementRule {
+
+    /**
+     * Link tags.
+     */
+    private static final Collection<String> TAGS = List.of("a");
+
+    /**
+     * Formatted ids cache.
+     */
+    private final IdCache                   ids;
+
+    /**
+     * Constructs a rule for fixing anchor links.
+     *
+     * @param idCache
+     *            formatted ids cache
+     */
+    public AnchorLinkRule(final IdCache idCache) {
+        super();
+
+        ids = idCache;
+    }
+
+    @Override
+    public final void apply(final Element element) {
+        element.attr("href", ids.formatAnchor(element.attr("href")));
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return TAGS;
+    }
+
+    @Override
+    public final boolean matches(final Element element) {
+        // If the attribute doesn't exist then the ref will be an empty string
+        return element.attr("href")
+            .startsWith("#");
+    }
+
+}
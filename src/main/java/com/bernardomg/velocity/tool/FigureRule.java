@@ -0,0 +1,132 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.rule.ElementRule;
+
+/**
+ * Wraps images with {@code <figure>} elements.
+ * <p>
+ * A {@code <figcaption>} is added with the contents of the image's {@code alt} attribute, if said attribute exists.
+ * Afterwards any {@code <p>} parent for the figures created is unwrapped. Figures which were already in the page are
+ * only unwrapped if the rule is told to include them.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class FigureRule implements ElementRule {
+
+    /**
+     * Image and figure tags.
+     */
+    private static final Collection<String> ALL_TAGS   = List.of("img", "figure");
+
+    /**
+     * Image tags.
+     */
+    private static final Collection<String> IMAGE_TAGS = List.of("img");
+
+    /**
+     * Tags for the elements to check.
+     */
+    private final Collection<String>        tags;
+
+    /**
+     * Constructs a rule for transforming images to figures, which only unwraps the figures it creates.
+     */
+    public FigureRule() {
+        this(false);
+    }
+
+    /**
+     * Constructs a rule for transforming images to figures.
+     *
+     * @param includeExisting
+     *            if the figures already in the page should also be unwrapped from their paragraphs
+     */
+    public FigureRule(final boolean includeExisting) {
+        super();
+
+        if (includeExisting) {
+            tags = ALL_TAGS;
+        } else {
+            tags = IMAGE_TAGS;
+        }
+    }
+
+    @Override
+    public final void apply(final Element element) {
+        final Element figure;  // <figure> element
+        final Element caption; // <figcaption> element
+
+        if ("img".equals(element.normalName())) {
+            figure = NodeFactory.element("figure");
+
+            element.replaceWith(figure);
+            figure.appendChild(element);
+
+            if (element.hasAttr("alt")) {
+                caption = NodeFactory.element("figcaption", element.attr("alt"));
+                figure.appendChild(caption);
+            }
+        }
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public final boolean matches(final Element element) {
+        // Only receives the tags handled by the rule
+        return tags.contains(element.normalName());
+    }
+
+    @Override
+    public final void tail(final Element element) {
+        final Element figure; // Figure to unwrap from paragraphs
+
+        if ("img".equals(element.normalName())) {
+            // The figure was created for the image
+            figure = element.parent();
+        } else {
+            // The figure was already in the page
+            figure = element;
+        }
+
+        if ((figure != null) && "figure".equals(figure.normalName()) && (figure.parent() != null)
+                && "p".equals(figure.parent()
+                    .normalName())) {
+            figure.parent()
+                .unwrap();
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.ParseError;
+import org.jsoup.parser.Parser;
+
+/**
+ * Parses HTML body fragments and serializes them back, reusing the parser and output buffer in each thread.
+ * <p>
+ * The fragments are parsed into a standalone {@code <body>} element, without the {@code <html>} and {@code <head>}
+ * elements of a full document.
+ * <p>
+ * By default parse errors and source positions are not tracked, as they are not needed to fix a page and add to the
+ * parsing cost. They can be enabled when creating the parser.
+ * <p>
+ * This is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class FragmentParser {
+
+    /**
+     * Maximum capacity kept for the output buffers. Bigger buffers are discarded after use, so a single huge page
+     * doesn't keep its memory for the whole build.
+     */
+    private static final int                 MAX_RETAINED_CAPACITY = 1 << 20;
+
+    /**
+     * Output buffer for each thread.
+     */
+    private final ThreadLocal<StringBuilder> buffers               = ThreadLocal.withInitial(StringBuilder::new);
+
+    /**
+     * Parser for each thread, as parsers can't be used concurrently.
+     */
+    private final ThreadLocal<Parser>        parsers;
+
+    /**
+     * Constructs a parser which doesn't track errors or positions.
+     */
+    public FragmentParser() {
+        this(0, false);
+    }
+
+    /**
+     * Constructs a parser with the received tracking settings.
+     *
+     * @param maxErrors
+     *            maximum number of parse errors to track, {@code 0} to disable tracking them
+     * @param trackPosition
+     *            flag to track the source position of the parsed nodes
+     */
+    public FragmentParser(final int maxErrors, final boolean trackPosition) {
+        super();
+
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("Maximum errors can't be negative, but received " + maxErrors);
+        }
+
+        parsers = ThreadLocal.withInitial(() -> Parser.htmlParser()
+            .setTrackErrors(maxErrors)
+            .setTrackPosition(trackPosition));
+    }
+
+    /**
+     * Returns the errors found by the last parse made in the current thread.
+     * <p>
+     * This will be empty unless errors are tracked.
+     *
+     * @return the errors found by the last parse
+     */
+    public final List<ParseError> getErrors() {
+        return new ArrayList<>(parsers.get()
+            .getErrors());
+    }
+
+    /**
+     * Parses the HTML as the content of a {@code <body>} element.
+     *
+     * @param html
+     *            HTML to parse
+     * @param prettyPrint
+     *            flag to pretty print the HTML when serializing the element
+     * @return a {@code <body>} element with the parsed HTML
+     */
+    public final Element parse(final String html, final boolean prettyPrint) {
+        final Parser     parser;   // Parser for this thread
+        final Document   document; // Owner for the body, with the output settings
+        final Element    body;     // Body with the parsed HTML
+        final List<Node> nodes;    // Parsed nodes
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+
+        document = new Document("");
+        document.outputSettings()
+            .prettyPrint(prettyPrint);
+        body = document.appendElement("body");
+
+        parser = parsers.get();
+        // The parser keeps the errors from previous parses
+        parser.getErrors()
+            .clear();
+        nodes = parser.parseFragmentInput(html, body, "");
+        body.appendChildren(nodes);
+
+        return body;
+    }
+
+    /**
+     * Returns the HTML for the contents of the received element.
+     *
+     * @param root
+     *            element to serialize
+     * @return the HTML for the element contents
+     */
+    public final String serialize(final Element root) {
+        final StringBuilder buffer; // Output buffer
+        final String        html;   // Serialized HTML
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+
+        buffer = buffers.get();
+        buffer.setLength(0);
+        root.html(buffer);
+        html = buffer.toString();
+
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffers.remove();
+        }
+
+        return html;
+    }
+
+}
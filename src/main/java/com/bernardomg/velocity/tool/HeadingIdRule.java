@@ -0,0 +1,91 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.rule.ElementRule;
+
+/**
+ * Adds or fixes heading ids.
+ * <p>
+ * If the heading has an id it is formatted, otherwise it is created from the heading text.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class HeadingIdRule implements ElementRule {
+
+    /**
+     * Heading tags.
+     */
+    private static final Collection<String> TAGS = List.of("h1", "h2", "h3", "h4", "h5", "h6");
+
+    /**
+     * Formatted ids cache.
+     */
+    private final IdCache                   ids;
+
+    /**
+     * Constructs a rule for fixing heading ids.
+     *
+     * @param idCache
+     *            formatted ids cache
+     */
+    public HeadingIdRule(final IdCache idCache) {
+        super();
+
+        ids = idCache;
+    }
+
+    @Override
+    public final void apply(final Element element) {
+        final String idText; // Text to generate the id
+
+        if (element.hasAttr("id")) {
+            // Contains an id
+            // The id text is taken from the attribute
+            idText = element.attr("id");
+        } else {
+            // Doesn't contain an id
+            // The id text is taken from the heading text
+            idText = element.text();
+        }
+        element.attr("id", ids.formatId(idText));
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return TAGS;
+    }
+
+    @Override
+    public final boolean matches(final Element element) {
+        return true;
+    }
+
+}
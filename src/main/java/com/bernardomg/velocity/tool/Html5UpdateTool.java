@@ -24,11 +24,21 @@
 
 package com.bernardomg.velocity.tool;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.apache.velocity.tools.config.DefaultKey;
 import org.jsoup.nodes.Element;
 import org.jsoup.parser.Tag;
+import org.jsoup.select.Elements;
+
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.metrics.NoOpToolMetrics;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
 
 /**
  * Utilities class for upgrading XHTML code to HTML5.
@@ -43,17 +53,90 @@
  * The <a href="https://github.com/Bernardo-MG/docs-maven-skin">Docs Maven Skin</a> and its requirements have dictated
  * the development of this class. For more generic methods use the {@link com.bernardomg.velocity.tool.HtmlTool
  * HtmlTool}.
+ * <p>
+ * This class is thread safe. A single instance can be shared by all the pages of a site.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
 @DefaultKey("html5UpdateTool")
 public class Html5UpdateTool {
 
+    /**
+     * Metrics for the operations.
+     */
+    private volatile ToolMetrics metrics;
+
+    /**
+     * Cache for the compiled CSS selectors.
+     */
+    private final SelectorCache  selectors;
+
     /**
      * Constructs an instance of the utilities class.
      */
     public Html5UpdateTool() {
+        this(new SelectorCache());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which will use the received selector cache.
+     * <p>
+     * This allows sharing the compiled selectors with other tools.
+     *
+     * @param selectorCache
+     *            cache for the compiled CSS selectors
+     */
+    public Html5UpdateTool(final SelectorCache selectorCache) {
+        this(selectorCache, new NoOpToolMetrics());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which will use the received selector cache and record its
+     * operations into the received metrics.
+     *
+     * @param selectorCache
+     *            cache for the compiled CSS selectors
+     * @param toolMetrics
+     *            metrics for the operations
+     */
+    public Html5UpdateTool(final SelectorCache selectorCache, final ToolMetrics toolMetrics) {
         super();
+
+        selectors = Objects.requireNonNull(selectorCache, "Received a null pointer as selector cache");
+        metrics = Objects.requireNonNull(toolMetrics, "Received a null pointer as metrics");
+    }
+
+    /**
+     * Configures the tool with the properties from the Velocity toolbox.
+     * <p>
+     * If the {@code metrics} property is {@code true} the operations are recorded into the metrics of the
+     * {@link MetricsTool} in the same toolbox.
+     *
+     * @param properties
+     *            toolbox and tool properties
+     */
+    public final void configure(final Map<String, Object> properties) {
+        metrics = MetricsTool.configure(properties, metrics);
+    }
+
+    /**
+     * Returns the metrics for the operations.
+     *
+     * @return the metrics for the operations
+     */
+    public final ToolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the cache for the compiled CSS selectors.
+     * <p>
+     * This can be used to check the hits and misses of the cache.
+     *
+     * @return the cache for the compiled CSS selectors
+     */
+    public final SelectorCache getSelectorCache() {
+        return selectors;
     }
 
     /**
@@ -68,18 +151,30 @@ public Html5UpdateTool() {
      * @return transformed element
      */
     public final Element removePointsFromAttr(final Element root, final String selector, final String attr) {
-        final Iterable<Element> elements; // Elements to fix
+        final long                     start;    // Start time
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Elements to fix
+        int                            mutated;  // Elements changed
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(attr, "Received a null pointer as attribute");
 
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
+        mutated = 0;
         for (final Element selected : elements) {
-            removePointsFromAttr(selected, attr);
+            spliced.ifPresent(splicer -> splicer.changing(selected));
+            if (removePointsFromAttr(selected, attr)) {
+                mutated++;
+            }
         }
 
+        metrics.record("Html5UpdateTool.removePointsFromAttr", elements.size(), mutated, System.nanoTime() - start);
+
         return root;
     }
 
@@ -95,15 +190,24 @@ public final Element removePointsFromAttr(final Element root, final String selec
      * @return transformed element
      */
     public final Element updateTableHeads(final Element root) {
-        final Iterable<Element> tableHeadRows; // Heads to fix
-        Element                 table;         // HTML table
-        Element                 thead;         // Table's head for wrapping
+        final long                     start;         // Start time
+        final Optional<SplicedElement> spliced;       // Splicer for the tree
+        final Elements                 tableHeadRows; // Heads to fix
+        Element                        table;         // HTML table
+        Element                        thead;         // Table's head for wrapping
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
 
+        start = System.nanoTime();
+
+        spliced = SplicedElement.find(root);
+
         // Table rows with <th> tags in a <tbody>
-        tableHeadRows = root.select("table > tbody > tr:has(th)");
+        tableHeadRows = IndexedElement.select(selectors, root, "table > tbody > tr:has(th)");
         for (final Element row : tableHeadRows) {
+            // The row is moved from its body to the table
+            spliced.ifPresent(splicer -> splicer.changingAround(row));
+
             // Gets the row's table
             // The selector ensured the row is inside a tbody
             table = row.parent()
@@ -119,9 +223,54 @@ public final Element updateTableHeads(final Element root) {
             table.prependChild(thead);
         }
 
+        // Rows are moved into new elements
+        if (!tableHeadRows.isEmpty()) {
+            IndexedElement.find(root)
+                .ifPresent(IndexedElement::invalidate);
+        }
+
+        metrics.record("Html5UpdateTool.updateTableHeads", tableHeadRows.size(), tableHeadRows.size(),
+            System.nanoTime() - start);
+
         return root;
     }
 
+    /**
+     * Corrects table headers by adding a {@code <thead>} section where missing, while streaming the HTML from the input
+     * to the output.
+     * <p>
+     * Unlike {@link #updateTableHeads(Element)}, this won't keep the whole document in memory. Elements are written as
+     * soon as they are parsed, which is meant for huge pages, such as reports with tables of thousands of rows.
+     * <p>
+     * This has some differences with the in-memory version:
+     * <ul>
+     * <li>The input is handled as a full HTML document, and the output is not pretty printed.</li>
+     * <li>Only the header rows at the beginning of the {@code <tbody>} are moved.</li>
+     * <li>All these rows are moved into a single {@code <thead>}, keeping their order.</li>
+     * <li>The {@code <thead>} is added just before the {@code <tbody>}, so it is kept after any caption.</li>
+     * <li>Only rows with their own {@code <th>} cells are header rows, cells in nested tables are ignored.</li>
+     * </ul>
+     *
+     * @param input
+     *            input with the HTML to update
+     * @param output
+     *            output for the updated HTML
+     * @throws IOException
+     *             if the input can't be read, or the output can't be written
+     */
+    public final void updateTableHeads(final Reader input, final Writer output) throws IOException {
+        final long start; // Start time
+        final int  moved; // Rows moved
+
+        Objects.requireNonNull(input, "Received a null pointer as input");
+        Objects.requireNonNull(output, "Received a null pointer as output");
+
+        start = System.nanoTime();
+        moved = new TableHeadStreamer(output).process(input);
+
+        metrics.record("Html5UpdateTool.updateTableHeadsStreaming", moved, moved, System.nanoTime() - start);
+    }
+
     /**
      * Removes the points from the contents of the specified attribute.
      *
@@ -129,16 +278,20 @@ public final Element updateTableHeads(final Element root) {
      *            element with the attribute to clean
      * @param attr
      *            attribute to clean
+     * @return {@code true} if the attribute had points, {@code false} otherwise
      */
-    private final void removePointsFromAttr(final Element element, final String attr) {
-        final String value; // Content of the attribute
+    private final boolean removePointsFromAttr(final Element element, final String attr) {
+        final String original; // Original content of the attribute
+        final String value;    // Content of the attribute
 
         // Takes and clean the old attribute value
-        value = element.attr(attr)
-            .replace(".", "");
+        original = element.attr(attr);
+        value = original.replace(".", "");
 
         // Sets the cleaned value
         element.attr(attr, value);
+
+        return value.length() != original.length();
     }
 
 }
@@ -0,0 +1,226 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Operation to apply on the elements matching a CSS selector, for the bulk edition of {@link HtmlTool}.
+ * <p>
+ * Each rule is the equivalent of a call to one of the tool methods. For example, these are the same:
+ *
+ * <pre>
+ * htmlTool.addClass(root, "table", "table-striped");
+ * htmlTool.apply(root, List.of(HtmlRule.addClass("table", "table-striped")));
+ * </pre>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool#apply(org.jsoup.nodes.Element, java.util.List)
+ */
+public final class HtmlRule {
+
+    /**
+     * Operations which can be applied by a rule.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    public enum Operation {
+        /**
+         * Adds a class, as {@link HtmlTool#addClass(org.jsoup.nodes.Element, String, String) addClass}.
+         */
+        ADD_CLASS,
+        /**
+         * Removes an attribute, as {@link HtmlTool#removeAttribute(org.jsoup.nodes.Element, String, String)
+         * removeAttribute}.
+         */
+        REMOVE_ATTRIBUTE,
+        /**
+         * Removes a class, as {@link HtmlTool#removeClass(org.jsoup.nodes.Element, String, String) removeClass}.
+         */
+        REMOVE_CLASS,
+        /**
+         * Changes the tag, as {@link HtmlTool#retag(org.jsoup.nodes.Element, String, String) retag}.
+         */
+        RETAG
+    }
+
+    /**
+     * Argument for the operation, such as the class to add.
+     */
+    private final String    argument;
+
+    /**
+     * Operation to apply.
+     */
+    private final Operation operation;
+
+    /**
+     * CSS selector for the elements to modify.
+     */
+    private final String    selector;
+
+    /**
+     * Constructs a rule.
+     *
+     * @param ruleOperation
+     *            operation to apply
+     * @param ruleSelector
+     *            CSS selector for the elements to modify
+     * @param ruleArgument
+     *            argument for the operation
+     */
+    private HtmlRule(final Operation ruleOperation, final String ruleSelector, final String ruleArgument) {
+        super();
+
+        operation = ruleOperation;
+        selector = Objects.requireNonNull(ruleSelector, "Received a null pointer as selector");
+        argument = Objects.requireNonNull(ruleArgument, "Received a null pointer as argument");
+    }
+
+    /**
+     * Creates a rule adding a class to the selected elements.
+     *
+     * @param selector
+     *            CSS selector for the elements to modify
+     * @param className
+     *            new class for the elements
+     * @return the rule adding the class
+     */
+    public static final HtmlRule addClass(final String selector, final String className) {
+        return new HtmlRule(Operation.ADD_CLASS, selector, className);
+    }
+
+    /**
+     * Creates a rule from the name of the equivalent {@link HtmlTool} method.
+     * <p>
+     * This allows creating rules from Velocity, or from configuration files.
+     *
+     * @param operation
+     *            name of the tool method, such as {@code addClass}
+     * @param selector
+     *            CSS selector for the elements to modify
+     * @param argument
+     *            argument for the operation
+     * @return the rule for the operation
+     */
+    public static final HtmlRule of(final String operation, final String selector, final String argument) {
+        final HtmlRule rule; // Created rule
+
+        Objects.requireNonNull(operation, "Received a null pointer as operation");
+
+        switch (operation) {
+            case "addClass":
+                rule = addClass(selector, argument);
+                break;
+            case "removeAttribute":
+                rule = removeAttribute(selector, argument);
+                break;
+            case "removeClass":
+                rule = removeClass(selector, argument);
+                break;
+            case "retag":
+                rule = retag(selector, argument);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown rule operation " + operation);
+        }
+
+        return rule;
+    }
+
+    /**
+     * Creates a rule removing an attribute from the selected elements.
+     *
+     * @param selector
+     *            CSS selector for the elements to modify
+     * @param attribute
+     *            attribute to remove
+     * @return the rule removing the attribute
+     */
+    public static final HtmlRule removeAttribute(final String selector, final String attribute) {
+        return new HtmlRule(Operation.REMOVE_ATTRIBUTE, selector, attribute);
+    }
+
+    /**
+     * Creates a rule removing a class from the selected elements.
+     *
+     * @param selector
+     *            CSS selector for the elements to modify
+     * @param className
+     *            class to remove
+     * @return the rule removing the class
+     */
+    public static final HtmlRule removeClass(final String selector, final String className) {
+        return new HtmlRule(Operation.REMOVE_CLASS, selector, className);
+    }
+
+    /**
+     * Creates a rule changing the tag of the selected elements.
+     *
+     * @param selector
+     *            CSS selector for the elements to modify
+     * @param tag
+     *            new tag for the elements
+     * @return the rule changing the tag
+     */
+    public static final HtmlRule retag(final String selector, final String tag) {
+        return new HtmlRule(Operation.RETAG, selector, tag);
+    }
+
+    /**
+     * Returns the argument for the operation, such as the class to add.
+     *
+     * @return the argument for the operation
+     */
+    public final String getArgument() {
+        return argument;
+    }
+
+    /**
+     * Returns the operation to apply.
+     *
+     * @return the operation to apply
+     */
+    public final Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the CSS selector for the elements to modify.
+     *
+     * @return the CSS selector for the elements to modify
+     */
+    public final String getSelector() {
+        return selector;
+    }
+
+    @Override
+    public final String toString() {
+        return operation.name()
+            .toLowerCase(Locale.ENGLISH) + "(" + selector + ", " + argument + ")";
+    }
+
+}
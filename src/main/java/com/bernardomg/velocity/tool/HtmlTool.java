@@ -24,11 +24,23 @@
 
 package com.bernardomg.velocity.tool;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 import org.apache.velocity.tools.config.DefaultKey;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.metrics.NoOpToolMetrics;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+import com.bernardomg.velocity.tool.rule.RuleEngine;
 
 /**
  * Utilities class for manipulating HTML, to be used as an extension of the Velocity templating engine.
@@ -38,17 +50,92 @@
  * modification methods.
  * <p>
  * To ease parsing HTML the {@link parse} method can be used. It receives HTML code and returns a jsoup element.
+ * <p>
+ * This class is thread safe. A single instance can be shared by all the pages of a site, so the compiled selectors are
+ * kept for the whole build.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
 @DefaultKey("htmlTool")
 public final class HtmlTool {
 
+    /**
+     * Parser for HTML body fragments.
+     */
+    private final FragmentParser fragments;
+
+    /**
+     * Metrics for the operations.
+     */
+    private volatile ToolMetrics metrics;
+
+    /**
+     * Cache for the compiled CSS selectors.
+     */
+    private final SelectorCache  selectors;
+
+    /**
+     * Parser for HTML body fragments tracking source positions, and the first parse error.
+     */
+    private final FragmentParser tracked;
+
+    /**
+     * Cache for the parsed wrappers.
+     */
+    private final WrapperCache   wrappers;
+
     /**
      * Constructs an instance of the utilities class.
      */
     public HtmlTool() {
+        this(new SelectorCache());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which will use the received selector cache.
+     * <p>
+     * This allows sharing the compiled selectors with other tools.
+     *
+     * @param selectorCache
+     *            cache for the compiled CSS selectors
+     */
+    public HtmlTool(final SelectorCache selectorCache) {
+        this(selectorCache, new NoOpToolMetrics());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which will use the received selector cache and record its
+     * operations into the received metrics.
+     *
+     * @param selectorCache
+     *            cache for the compiled CSS selectors
+     * @param toolMetrics
+     *            metrics for the operations
+     */
+    public HtmlTool(final SelectorCache selectorCache, final ToolMetrics toolMetrics) {
+        this(selectorCache, toolMetrics, new FragmentParser());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which will use the received selector cache and fragment parser,
+     * and record its operations into the received metrics.
+     *
+     * @param selectorCache
+     *            cache for the compiled CSS selectors
+     * @param toolMetrics
+     *            metrics for the operations
+     * @param fragmentParser
+     *            parser for HTML body fragments
+     */
+    public HtmlTool(final SelectorCache selectorCache, final ToolMetrics toolMetrics,
+            final FragmentParser fragmentParser) {
         super();
+
+        selectors = Objects.requireNonNull(selectorCache, "Received a null pointer as selector cache");
+        metrics = Objects.requireNonNull(toolMetrics, "Received a null pointer as metrics");
+        fragments = Objects.requireNonNull(fragmentParser, "Received a null pointer as fragment parser");
+        tracked = new FragmentParser(1, true);
+        wrappers = new WrapperCache();
     }
 
     /**
@@ -63,21 +150,184 @@ public HtmlTool() {
      * @return transformed element
      */
     public final Element addClass(final Element root, final String selector, final String className) {
-        final Iterable<Element> elements; // Elements selected
+        final long                     start;    // Start time
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Elements selected
+        int                            mutated;  // Elements changed
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(className, "Received a null pointer as class");
 
+        start = System.nanoTime();
+
+        // Selects and iterates over the elements
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
+        mutated = 0;
+        for (final Element element : elements) {
+            if (!element.hasClass(className)) {
+                spliced.ifPresent(splicer -> splicer.changing(element));
+                element.addClass(className);
+                mutated++;
+            }
+        }
+
+        metrics.record("HtmlTool.addClass", elements.size(), mutated, System.nanoTime() - start);
+
+        return root;
+    }
+
+    /**
+     * Applies all the rules to the received element, with the same result as calling the equivalent methods one after
+     * the other.
+     * <p>
+     * Instead of selecting the elements for each rule separately, the selectors are checked while walking the tree,
+     * and only against the elements with the tags they select. Rules are applied in batches, sharing a single walk,
+     * and a new batch starts when the elements a rule selects may depend on the changes made by the previous rules.
+     * This happens after changing tags, and for selectors which use anything other than tags, such as classes or
+     * attributes. So the fastest way to use this is with tag selectors, such as {@code table} or {@code div > pre}.
+     *
+     * @param root
+     *            root element for the selection
+     * @param rules
+     *            rules to apply, in order
+     * @return transformed element
+     */
+    public final Element apply(final Element root, final List<HtmlRule> rules) {
+        final long               start;   // Start time
+        final List<SelectorRule> applied; // All the rules
+        final List<SelectorRule> batch;   // Rules sharing a single walk
+        SelectorRule             current; // Rule being added
+        boolean                  closed;  // Flag marking the batch can't receive more rules
+        int                      matched; // Elements matched
+        int                      mutated; // Elements changed
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+        Objects.requireNonNull(rules, "Received a null pointer as rules");
+
+        start = System.nanoTime();
+
+        applied = new ArrayList<>(rules.size());
+        batch = new ArrayList<>();
+        closed = false;
+        matched = 0;
+        for (final HtmlRule rule : rules) {
+            Objects.requireNonNull(rule, "Received a null pointer as rule");
+            current = new SelectorRule(rule, selectors.compile(rule.getSelector()), root);
+            if (!batch.isEmpty() && (closed || !current.isTagOnly())) {
+                matched += applyBatch(root, batch);
+                batch.clear();
+            }
+            batch.add(current);
+            applied.add(current);
+            // Later selectors may match the new tags
+            closed = rule.getOperation() == HtmlRule.Operation.RETAG;
+        }
+        if (!batch.isEmpty()) {
+            matched += applyBatch(root, batch);
+        }
+
+        mutated = 0;
+        for (final SelectorRule rule : applied) {
+            mutated += rule.getMutated();
+        }
+
+        if (rules.stream()
+            .anyMatch(rule -> rule.getOperation() == HtmlRule.Operation.RETAG)) {
+            IndexedElement.find(root)
+                .ifPresent(IndexedElement::invalidate);
+        }
+
+        metrics.record("HtmlTool.apply", matched, mutated, System.nanoTime() - start);
+
+        return root;
+    }
+
+    /**
+     * Configures the tool with the properties from the Velocity toolbox.
+     * <p>
+     * If the {@code metrics} property is {@code true} the operations are recorded into the metrics of the
+     * {@link MetricsTool} in the same toolbox.
+     *
+     * @param properties
+     *            toolbox and tool properties
+     */
+    public final void configure(final Map<String, Object> properties) {
+        metrics = MetricsTool.configure(properties, metrics);
+    }
+
+    /**
+     * Finds a set of elements through a CSS selector and flattens them into the root.
+     * <p>
+     * The child elements of each selected element are moved to the end of the root, and then the selected element is
+     * removed, along with any text directly inside it. The children are moved in bulk, so this takes linear time even
+     * for elements with thousands of children. The root itself is never flattened.
+     *
+     * @param root
+     *            root element for the selection
+     * @param selector
+     *            CSS selector for the elements to flatten
+     * @return transformed element
+     */
+    public final Element flatten(final Element root, final String selector) {
+        final long                     start;     // Start time
+        final Optional<SplicedElement> spliced;   // Splicer for the tree
+        final Elements                 elements;  // Elements to flatten
+        int                            flattened; // Number of flattened elements
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+        Objects.requireNonNull(selector, "Received a null pointer as selector");
+
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
+        flattened = 0;
         for (final Element element : elements) {
-            element.addClass(className);
+            if (element != root) {
+                spliced.ifPresent(splicer -> {
+                    splicer.changingAround(element);
+                    splicer.changing(root);
+                });
+                NodeMover.moveChildren(element, root);
+                element.remove();
+                flattened++;
+            }
         }
 
+        // Elements are moved and removed
+        if (flattened > 0) {
+            IndexedElement.find(root)
+                .ifPresent(IndexedElement::invalidate);
+        }
+
+        metrics.record("HtmlTool.flatten", elements.size(), flattened, System.nanoTime() - start);
+
         return root;
     }
 
+    /**
+     * Returns the metrics for the operations.
+     *
+     * @return the metrics for the operations
+     */
+    public final ToolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the cache for the compiled CSS selectors.
+     * <p>
+     * This can be used to check the hits and misses of the cache.
+     *
+     * @return the cache for the compiled CSS selectors
+     */
+    public final SelectorCache getSelectorCache() {
+        return selectors;
+    }
+
     /**
      * Parses the received HTML code.
      * <p>
@@ -88,10 +338,139 @@ public final Element addClass(final Element root, final String selector, final S
      * @return the parsed HTML body
      */
     public final Element parse(final String html) {
+        final long    start;  // Start time
+        final Element parsed; // Parsed body
+
         Objects.requireNonNull(html, "Received a null pointer as body");
 
-        return Jsoup.parse(html)
+        start = System.nanoTime();
+        parsed = Jsoup.parse(html)
             .body();
+
+        metrics.record("HtmlTool.parse", System.nanoTime() - start);
+
+        return parsed;
+    }
+
+    /**
+     * Parses the received HTML as the contents of a {@code <body>} element.
+     * <p>
+     * This is a lighter alternative to {@link #parse(String) parse}, which won't build a full document just to discard
+     * everything except the body. The resulting element can be used on the other methods in the same way.
+     * <p>
+     * As the HTML is handled as a body fragment, any element which would be moved to the {@code <head>} when parsing a
+     * full document, such as a leading {@code <script>}, is kept in place.
+     *
+     * @param html
+     *            HTML to parse
+     * @return the parsed HTML body
+     */
+    public final Element parseFragment(final String html) {
+        final long    start;  // Start time
+        final Element parsed; // Parsed body
+
+        Objects.requireNonNull(html, "Received a null pointer as body");
+
+        start = System.nanoTime();
+        parsed = fragments.parse(html, true);
+
+        metrics.record("HtmlTool.parseFragment", System.nanoTime() - start);
+
+        return parsed;
+    }
+
+    /**
+     * Parses the received HTML code, and attaches an {@link IndexedElement} to the parsed body.
+     * <p>
+     * The result is the same as with {@link #parse(String) parse}, but the tools will find the elements through the
+     * index, instead of walking the whole tree for each call. This is meant for pages which receive many calls.
+     *
+     * @param html
+     *            HTML to parse
+     * @return the parsed HTML body
+     */
+    public final Element parseIndexed(final String html) {
+        final Element parsed; // Parsed body
+
+        parsed = parse(html);
+        IndexedElement.of(parsed);
+
+        return parsed;
+    }
+
+    /**
+     * Parses the received HTML as the contents of a {@code <body>} element, and attaches a {@link SplicedElement} to
+     * the parsed body.
+     * <p>
+     * The resulting element can be used on the other methods in the same way, and then {@link #serialize(Element)
+     * serialized}, which copies the unchanged parts of the HTML from the source instead of generating them again. The
+     * result is not pretty printed.
+     * <p>
+     * HTML with parse errors, such as misnested tags, is not copied from the source, as the parser may have moved its
+     * elements around. It is serialized by jsoup instead.
+     * <p>
+     * The tools store the nodes they change in the {@link SplicedElement}. Changes made by other means have to be
+     * stored in it before making them.
+     *
+     * @param html
+     *            HTML to parse
+     * @return the parsed HTML body
+     */
+    public final Element parseSpliced(final String html) {
+        final long    start;  // Start time
+        final Element parsed; // Parsed body
+
+        Objects.requireNonNull(html, "Received a null pointer as body");
+
+        start = System.nanoTime();
+        parsed = tracked.parse(html, false);
+        if (tracked.getErrors()
+            .isEmpty()) {
+            SplicedElement.of(parsed, html);
+        }
+
+        metrics.record("HtmlTool.parseSpliced", System.nanoTime() - start);
+
+        return parsed;
+    }
+
+    /**
+     * Parses the received HTML, applies the pipeline to it, and returns the resulting HTML.
+     * <p>
+     * This is the same as calling {@link #parse(String) parse}, applying the pipeline, and then getting the HTML from
+     * the parsed element, but faster. The HTML is parsed as the contents of the {@code <body>}, without creating the
+     * rest of the document, and the result is not pretty printed.
+     * <p>
+     * As the HTML is handled as a body fragment, any element which would be moved to the {@code <head>} when parsing a
+     * full document, such as a leading {@code <script>}, is kept in place.
+     * <p>
+     * The pipeline is {@link Pipeline#filter(CharSequence) filtered} with the HTML first, so steps whose needles are
+     * not in the HTML are skipped.
+     *
+     * @param html
+     *            HTML to transform
+     * @param pipeline
+     *            steps transforming the parsed HTML
+     * @return the transformed HTML
+     */
+    public final String process(final String html, final Pipeline pipeline) {
+        final long    start;  // Start time
+        final Element parsed; // Parsed body
+        final String  result; // Transformed HTML
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+        Objects.requireNonNull(pipeline, "Received a null pointer as pipeline");
+
+        start = System.nanoTime();
+
+        parsed = fragments.parse(html, false);
+        pipeline.filter(html)
+            .apply(parsed);
+        result = fragments.serialize(parsed);
+
+        metrics.record("HtmlTool.process", System.nanoTime() - start);
+
+        return result;
     }
 
     /**
@@ -106,18 +485,31 @@ public final Element parse(final String html) {
      * @return transformed element
      */
     public final Element removeAttribute(final Element root, final String selector, final String attribute) {
-        final Iterable<Element> elements; // Elements selected
+        final long                     start;    // Start time
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Elements selected
+        int                            mutated;  // Elements changed
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(attribute, "Received a null pointer as attribute");
 
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
+        mutated = 0;
         for (final Element element : elements) {
-            element.removeAttr(attribute);
+            if (element.hasAttr(attribute)) {
+                spliced.ifPresent(splicer -> splicer.changing(element));
+                element.removeAttr(attribute);
+                mutated++;
+            }
         }
 
+        metrics.record("HtmlTool.removeAttribute", elements.size(), mutated, System.nanoTime() - start);
+
         return root;
     }
 
@@ -135,15 +527,26 @@ public final Element removeAttribute(final Element root, final String selector,
      * @return transformed element
      */
     public final Element removeClass(final Element root, final String selector, final String className) {
-        final Iterable<Element> elements; // Elements selected
+        final long                     start;    // Start time
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Elements selected
+        int                            mutated;  // Elements changed
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(className, "Received a null pointer as className");
 
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
+        mutated = 0;
         for (final Element element : elements) {
+            if (element.hasClass(className)) {
+                mutated++;
+            }
+            spliced.ifPresent(splicer -> splicer.changing(element));
             element.removeClass(className);
 
             if (element.classNames()
@@ -152,6 +555,8 @@ public final Element removeClass(final Element root, final String selector, fina
             }
         }
 
+        metrics.record("HtmlTool.removeClass", elements.size(), mutated, System.nanoTime() - start);
+
         return root;
     }
 
@@ -167,21 +572,70 @@ public final Element removeClass(final Element root, final String selector, fina
      * @return transformed element
      */
     public final Element retag(final Element root, final String selector, final String tag) {
-        final Iterable<Element> elements; // Elements selected
+        final long                     start;    // Start time
+        final Optional<IndexedElement> indexed;  // Index for the tree
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Elements selected
+        String                         previous; // Previous tag
+        int                            mutated;  // Elements changed
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(tag, "Received a null pointer as tag");
 
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        indexed = IndexedElement.find(root);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
+        mutated = 0;
         for (final Element element : elements) {
-            element.tagName(tag);
+            if (!element.tagName()
+                .equals(tag)) {
+                spliced.ifPresent(splicer -> splicer.changing(element));
+                previous = element.normalName();
+                element.tagName(tag);
+                if (indexed.isPresent()) {
+                    indexed.get()
+                        .retagged(element, previous);
+                }
+                mutated++;
+            }
         }
 
+        metrics.record("HtmlTool.retag", elements.size(), mutated, System.nanoTime() - start);
+
         return root;
     }
 
+    /**
+     * Returns the HTML for the contents of the received element.
+     * <p>
+     * If the element was parsed with {@link #parseSpliced(String) parseSpliced}, the parts which didn't change are
+     * copied from the source HTML, and the rest are generated again. So an unchanged page is returned exactly as it was
+     * received. Otherwise this is the same as calling {@link Element#html()}.
+     *
+     * @param root
+     *            element to serialize
+     * @return the HTML for the element contents
+     */
+    public final String serialize(final Element root) {
+        final long   start; // Start time
+        final String html;  // Serialized HTML
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+
+        start = System.nanoTime();
+        html = SplicedElement.find(root)
+            .map(SplicedElement::serialize)
+            .orElseGet(root::html);
+
+        metrics.record("HtmlTool.serialize", System.nanoTime() - start);
+
+        return html;
+    }
+
     /**
      * Finds a set of elements through a CSS selector and swaps its tag with that from its parent.
      *
@@ -192,16 +646,22 @@ public final Element retag(final Element root, final String selector, final Stri
      * @return transformed element
      */
     public final Element swapTagWithParent(final Element root, final String selector) {
-        final Iterable<Element> elements; // Selected elements
-        Element                 parent;   // Parent element
-        String                  text;     // Preserved text
+        final long                     start;    // Start time
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Selected elements
+        Element                        parent;   // Parent element
+        String                         text;     // Preserved text
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
 
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
         for (final Element element : elements) {
+            spliced.ifPresent(splicer -> splicer.changingAround(element));
             parent = element.parent();
 
             // Takes the text out of the element
@@ -216,6 +676,12 @@ public final Element swapTagWithParent(final Element root, final String selector
             parent.text(text);
         }
 
+        // Elements are moved and removed
+        IndexedElement.find(root)
+            .ifPresent(IndexedElement::invalidate);
+
+        metrics.record("HtmlTool.swapTagWithParent", elements.size(), elements.size(), System.nanoTime() - start);
+
         return root;
     }
 
@@ -231,22 +697,35 @@ public final Element swapTagWithParent(final Element root, final String selector
      * @return transformed element
      */
     public final Element unwrap(final Element root, final String selector) {
-        final Iterable<Element> elements; // Elements to unwrap
+        final long                     start;    // Start time
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Elements to unwrap
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
 
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
         for (final Element element : elements) {
+            spliced.ifPresent(splicer -> splicer.changingAround(element));
             element.unwrap();
         }
 
+        IndexedElement.find(root)
+            .ifPresent(indexed -> elements.forEach(indexed::unwrapped));
+
+        metrics.record("HtmlTool.unwrap", elements.size(), elements.size(), System.nanoTime() - start);
+
         return root;
     }
 
     /**
      * Finds a set of elements through a CSS selector and wraps them with the received wrapper element.
+     * <p>
+     * The wrapper is parsed only once, and copied for each element.
      *
      * @param root
      *            root element for the selection
@@ -257,19 +736,83 @@ public final Element unwrap(final Element root, final String selector) {
      * @return transformed element
      */
     public final Element wrap(final Element root, final String selector, final String wrapper) {
-        final Iterable<Element> elements; // Selected elements
+        final long                     start;    // Start time
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Elements                 elements; // Selected elements
+        final Set<String>              tags;     // Tags of the added elements
+        Optional<Set<String>>          wrapped;  // Tags of the elements in the wrapper
+        boolean                        known;    // Flag marking all the added tags are known
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(selector, "Received a null pointer as selector");
         Objects.requireNonNull(wrapper, "Received a null pointer as HTML wrap");
 
+        start = System.nanoTime();
+
         // Selects and iterates over the elements
-        elements = root.select(selector);
+        spliced = SplicedElement.find(root);
+        elements = IndexedElement.select(selectors, root, selector);
+        tags = new HashSet<>();
+        known = true;
         for (final Element element : elements) {
-            element.wrap(wrapper);
+            spliced.ifPresent(splicer -> splicer.changingAround(element));
+            wrapped = wrappers.wrap(element, wrapper);
+            if (wrapped.isPresent()) {
+                tags.addAll(wrapped.get());
+            } else {
+                known = false;
+            }
         }
 
+        // The wrappers have to be indexed
+        if (!elements.isEmpty()) {
+            if (known) {
+                IndexedElement.find(root)
+                    .ifPresent(indexed -> indexed.invalidate(tags));
+            } else {
+                IndexedElement.find(root)
+                    .ifPresent(IndexedElement::invalidate);
+            }
+        }
+
+        metrics.record("HtmlTool.wrap", elements.size(), elements.size(), System.nanoTime() - start);
+
         return root;
     }
 
+    /**
+     * Applies the rules in a single walk of the tree.
+     *
+     * @param root
+     *            root element for the selection
+     * @param batch
+     *            rules to apply
+     * @return the number of elements matched
+     */
+    private final int applyBatch(final Element root, final List<SelectorRule> batch) {
+        final Optional<SplicedElement> spliced; // Splicer for the tree
+        final int                      matched; // Elements matched
+
+        for (final SelectorRule rule : batch) {
+            rule.reset();
+        }
+
+        // The rules only change the elements they match
+        spliced = SplicedElement.find(root);
+        if (spliced.isPresent()) {
+            matched = new RuleEngine(batch).applyAndMeasure(root, spliced.get()::changing)
+                .getMatched();
+        } else {
+            matched = new RuleEngine(batch).applyAndMeasure(root)
+                .getMatched();
+        }
+
+        // Releases the matches kept by the selectors
+        for (final SelectorRule rule : batch) {
+            rule.reset();
+        }
+
+        return matched;
+    }
+
 }
@@ -0,0 +1,132 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.rule.ElementRule;
+
+/**
+ * Replaces images with icons.
+ * <p>
+ * Images are matched by the ending of their source, ignoring case, and replaced with a clone of the icon template. The
+ * endings are kept in an {@link IconTrie}, so finding the icon doesn't depend on the number of icons. If several
+ * endings match the same image, the longest one is used.
+ * <p>
+ * This is thread safe. The icons are kept in an immutable trie, which is replaced each time an icon is added, so the
+ * pages being transformed always see a consistent set of icons.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class IconRule implements ElementRule {
+
+    /**
+     * Image tags.
+     */
+    private static final Collection<String> TAGS = List.of("img");
+
+    /**
+     * Icon templates. The key is the ending of the source for the images to replace.
+     */
+    private final Map<String, Element>      icons;
+
+    /**
+     * Trie for finding the icons.
+     * <p>
+     * The trie is never modified, adding an icon replaces it.
+     */
+    private volatile IconTrie               trie;
+
+    /**
+     * Constructs a rule for the received icons.
+     *
+     * @param iconTemplates
+     *            icon templates, where the key is the ending of the source for the images to replace
+     */
+    public IconRule(final Map<String, Element> iconTemplates) {
+        super();
+
+        icons = new LinkedHashMap<>(iconTemplates);
+        trie = new IconTrie(icons);
+    }
+
+    /**
+     * Adds an icon template. If there was already a template for the same image it will be overwritten.
+     *
+     * @param image
+     *            ending of the source for the images to replace
+     * @param icon
+     *            icon template
+     */
+    public final synchronized void addIcon(final String image, final Element icon) {
+        icons.put(image, icon);
+        trie = new IconTrie(icons);
+    }
+
+    @Override
+    public final void apply(final Element element) {
+        final Element icon; // Icon replacing the image
+
+        icon = findIcon(element);
+        if (icon != null) {
+            element.replaceWith(icon.clone());
+        }
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return TAGS;
+    }
+
+    @Override
+    public final boolean matches(final Element element) {
+        return findIcon(element) != null;
+    }
+
+    /**
+     * Returns the icon template for the received image, or {@code null} if there is none.
+     *
+     * @param image
+     *            image to find the icon for
+     * @return the icon template for the image
+     */
+    private final Element findIcon(final Element image) {
+        final Element icon; // Icon template
+
+        if (image.hasAttr("src")) {
+            icon = trie.find(image.attr("src"));
+        } else {
+            icon = null;
+        }
+
+        return icon;
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * Suffix trie for finding the icon for an image source.
+ * <p>
+ * The endings are stored reversed and in lower case, so a source is resolved by reading it backwards, once, no matter
+ * how many icons there are. If several endings match the same source, the longest one wins.
+ * <p>
+ * This is immutable, and so thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class IconTrie {
+
+    /**
+     * Node in the trie.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class Node {
+
+        /**
+         * Nodes for the previous character in the endings.
+         */
+        private final Map<Character, Node> children = new HashMap<>();
+
+        /**
+         * Icon for the ending finishing in this node, or {@code null} if there is none.
+         */
+        private Element                    icon;
+
+        /**
+         * Default constructor.
+         */
+        private Node() {
+            super();
+        }
+
+    }
+
+    /**
+     * Root node, for the empty ending.
+     */
+    private final Node root = new Node();
+
+    /**
+     * Constructs a trie for the received icons.
+     *
+     * @param icons
+     *            icon templates, where the key is the ending of the source for the images to replace
+     */
+    public IconTrie(final Map<String, Element> icons) {
+        super();
+
+        String ending; // Ending for the icon
+        Node   node;   // Current node
+
+        Objects.requireNonNull(icons, "Received a null pointer as icons");
+
+        for (final Map.Entry<String, Element> entry : icons.entrySet()) {
+            ending = entry.getKey()
+                .toLowerCase(Locale.ENGLISH);
+            node = root;
+            for (int i = ending.length() - 1; i >= 0; i--) {
+                node = node.children.computeIfAbsent(ending.charAt(i), k -> new Node());
+            }
+            node.icon = entry.getValue();
+        }
+    }
+
+    /**
+     * Returns the icon for the longest ending matching the source, or {@code null} if there is none.
+     *
+     * @param source
+     *            image source
+     * @return the icon template for the source
+     */
+    public final Element find(final String source) {
+        Node    node;  // Current node
+        Element found; // Icon for the longest match
+        int     index; // Position in the source
+
+        node = root;
+        found = root.icon;
+        index = source.length() - 1;
+        while ((node != null) && (index >= 0)) {
+            node = node.children.get(Character.toLowerCase(source.charAt(index)));
+            if ((node != null) && (node.icon != null)) {
+                found = node.icon;
+            }
+            index--;
+        }
+
+        return found;
+    }
+
+}
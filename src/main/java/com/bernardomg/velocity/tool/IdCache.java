@@ -0,0 +1,109 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import com.bernardomg.velocity.tool.cache.BoundedCache;
+
+/**
+ * Memoizes formatted ids, so each distinct text is formatted only once.
+ * <p>
+ * Anchor links reuse the ids formatted for the headings, as the link {@code #text} formats to the id for
+ * {@code text} with a leading hash.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class IdCache {
+
+    /**
+     * Default maximum number of ids to memoize.
+     */
+    public static final int                    DEFAULT_MAX_SIZE = 4096;
+
+    /**
+     * Formatted ids. The key is the raw text.
+     */
+    private final BoundedCache<String, String> ids;
+
+    /**
+     * Constructs a cache with the default maximum size.
+     */
+    public IdCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a cache with the received maximum size.
+     *
+     * @param maxSize
+     *            maximum number of ids to memoize
+     */
+    public IdCache(final int maxSize) {
+        super();
+
+        ids = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * Formats a link to an anchor in the same page.
+     * <p>
+     * The link should begin with a hash.
+     *
+     * @param link
+     *            link to format
+     * @return the formatted link
+     */
+    public final String formatAnchor(final String link) {
+        final String id;        // Link without the hash
+        final String formatted; // Formatted id
+        final String result;    // Formatted link
+
+        if ((link.length() > 1) && (link.charAt(0) == '#') && (link.charAt(1) > ' ')) {
+            // The id won't be trimmed at the start, so the link is the same as the id with a hash
+            id = link.substring(1);
+            formatted = formatId(id);
+            if (formatted.equals(id)) {
+                result = link;
+            } else {
+                result = "#" + formatted;
+            }
+        } else {
+            result = IdFormatter.format(link);
+        }
+
+        return result;
+    }
+
+    /**
+     * Formats the received text into an id.
+     *
+     * @param text
+     *            text to format
+     * @return the formatted id
+     */
+    public final String formatId(final String text) {
+        return ids.get(text, IdFormatter::format);
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+/**
+ * Formats texts into valid ids and internal anchors.
+ * <p>
+ * The text is trimmed, spaces and underscores are replaced by hyphens, and any character which is not an ASCII letter,
+ * a digit, a hyphen or a hash is removed. This is done by scanning the text a single time, and if the text is already
+ * valid then it is returned without creating a new string.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class IdFormatter {
+
+    /**
+     * Formats the received id, transforming it into a valid internal anchor id.
+     *
+     * @param id
+     *            id to transform
+     * @return a valid anchor id
+     */
+    public static final String format(final String id) {
+        final StringBuilder formatted; // Formatted id
+        int                 start;     // First character after trimming
+        int                 end;       // Last character after trimming, exclusive
+        int                 first;     // First character to change
+        char                character; // Current character
+
+        // Trims the text, same as String.trim
+        start = 0;
+        end = id.length();
+        while ((start < end) && (id.charAt(start) <= ' ')) {
+            start++;
+        }
+        while ((start < end) && (id.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+
+        // Looks for the first character to change
+        first = start;
+        while ((first < end) && isValid(id.charAt(first))) {
+            first++;
+        }
+
+        if (first == end) {
+            // Nothing to change, aside from trimming
+            return id.substring(start, end);
+        }
+
+        formatted = new StringBuilder(end - start);
+        formatted.append(id, start, first);
+        for (int i = first; i < end; i++) {
+            character = id.charAt(i);
+            if ((character == ' ') || (character == '_')) {
+                formatted.append('-');
+            } else if (isValid(character)) {
+                formatted.append(character);
+            }
+        }
+
+        return formatted.toString();
+    }
+
+    /**
+     * Indicates if the character can be kept as it is in an id.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if the character is valid, {@code false} otherwise
+     */
+    private static final boolean isValid(final char character) {
+        return ((character >= 'a') && (character <= 'z')) || ((character >= 'A') && (character <= 'Z'))
+                || ((character >= '0') && (character <= '9')) || (character == '-') || (character == '#');
+    }
+
+    /**
+     * Utilities class constructor.
+     */
+    private IdFormatter() {
+        super();
+    }
+
+}
@@ -0,0 +1,354 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+
+/**
+ * Index of the elements in a tree by their tags, shared by all the tool calls on that tree.
+ * <p>
+ * The index is attached to the root element, so the tools find it when receiving that root, and use it for selectors
+ * with a single tag as subject, such as {@code table} or {@code p > img}. Only the elements with that tag are checked,
+ * instead of walking the whole tree.
+ * <p>
+ * It is built lazily, in a single walk, the first time it is used. The tools keep it up to date while they change the
+ * tree, but any change made by other means, such as calling jsoup directly, requires calling {@link #invalidate()}.
+ * <p>
+ * This class is not thread safe, in the same way as the tree it indexes.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool#parseIndexed(String)
+ */
+public final class IndexedElement {
+
+    /**
+     * Key for the index in the root user data.
+     */
+    private static final String            KEY   = IndexedElement.class.getName();
+
+    /**
+     * Elements by tag, in document order.
+     */
+    private final Map<String, Set<Element>> index = new HashMap<>();
+
+    /**
+     * Flag marking the whole index has to be built.
+     */
+    private boolean                         outdated;
+
+    /**
+     * Indexed tree.
+     */
+    private final Element                   root;
+
+    /**
+     * Tags which have to be indexed again.
+     */
+    private final Set<String>               stale = new HashSet<>();
+
+    /**
+     * Constructs an index for the tree.
+     *
+     * @param indexedRoot
+     *            root of the indexed tree
+     */
+    private IndexedElement(final Element indexedRoot) {
+        super();
+
+        root = indexedRoot;
+        outdated = true;
+    }
+
+    /**
+     * Returns the index attached to the root, if there is any.
+     *
+     * @param root
+     *            root of the indexed tree
+     * @return the index for the tree
+     */
+    public static final Optional<IndexedElement> find(final Element root) {
+        final Object         data;    // Data attached to the root
+        final IndexedElement indexed; // Attached index
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+
+        data = root.attributes()
+            .userData(KEY);
+
+        // A cloned root keeps the data from the original
+        if ((data instanceof IndexedElement) && (((IndexedElement) data).root == root)) {
+            indexed = (IndexedElement) data;
+        } else {
+            indexed = null;
+        }
+
+        return Optional.ofNullable(indexed);
+    }
+
+    /**
+     * Returns the index attached to the root, attaching a new one if there is none.
+     *
+     * @param root
+     *            root of the tree to index
+     * @return the index for the tree
+     */
+    public static final IndexedElement of(final Element root) {
+        final Optional<IndexedElement> existing; // Attached index
+        final IndexedElement           indexed;  // Index for the root
+
+        existing = find(root);
+        if (existing.isPresent()) {
+            indexed = existing.get();
+        } else {
+            indexed = new IndexedElement(root);
+            root.attributes()
+                .userData(KEY, indexed);
+        }
+
+        return indexed;
+    }
+
+    /**
+     * Selects the elements matching the selector, using the index attached to the root if there is one and the
+     * selector has a single tag as subject.
+     *
+     * @param selectors
+     *            cache for the compiled selectors
+     * @param root
+     *            root element for the selection
+     * @param selector
+     *            CSS selector
+     * @return the elements matching the selector
+     */
+    static final Elements select(final SelectorCache selectors, final Element root, final String selector) {
+        final Optional<IndexedElement> indexed;   // Index for the root
+        final Collection<String>       tags;      // Tags for the selector subject
+        final Evaluator                evaluator; // Compiled selector
+        final Elements                 selected;  // Selected elements
+
+        indexed = find(root);
+        if (indexed.isPresent()) {
+            tags = SelectorRule.getSubjectTags(selector);
+        } else {
+            tags = Collections.emptyList();
+        }
+
+        if (tags.size() == 1) {
+            evaluator = selectors.compile(selector);
+            selected = new Elements();
+            SelectorRule.reset(evaluator);
+            for (final Element element : indexed.get()
+                .getElementsByTag(tags.iterator()
+                    .next())) {
+                if (evaluator.matches(root, element)) {
+                    selected.add(element);
+                }
+            }
+            SelectorRule.reset(evaluator);
+        } else {
+            selected = selectors.select(root, selector);
+        }
+
+        return selected;
+    }
+
+    /**
+     * Returns the elements with the received tag, in document order.
+     *
+     * @param tag
+     *            tag to search for
+     * @return the elements with the tag
+     */
+    public final List<Element> getElementsByTag(final String tag) {
+        final Set<Element>  tagged; // Elements with the tag
+        final List<Element> result; // Copy of the elements
+
+        Objects.requireNonNull(tag, "Received a null pointer as tag");
+
+        update();
+
+        tagged = index.get(tag);
+        if (tagged == null) {
+            result = Collections.emptyList();
+        } else {
+            result = Collections.unmodifiableList(new ArrayList<>(tagged));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the root of the indexed tree.
+     *
+     * @return the root of the indexed tree
+     */
+    public final Element getRoot() {
+        return root;
+    }
+
+    /**
+     * Discards the whole index, which will be built again when it is used.
+     */
+    public final void invalidate() {
+        outdated = true;
+        stale.clear();
+        index.clear();
+    }
+
+    /**
+     * Discards the elements for the received tags, which will be indexed again when the index is used.
+     * <p>
+     * This is meant for changes which add elements with those tags, or move them.
+     *
+     * @param tags
+     *            tags to index again
+     */
+    public final void invalidate(final Collection<String> tags) {
+        Objects.requireNonNull(tags, "Received a null pointer as tags");
+
+        if (!outdated) {
+            stale.addAll(tags);
+        }
+    }
+
+    /**
+     * Removes the element, and all its descendants, from the index.
+     *
+     * @param element
+     *            removed element
+     */
+    public final void removed(final Element element) {
+        Objects.requireNonNull(element, "Received a null pointer as element");
+
+        if (!outdated) {
+            for (final Element descendant : element.getAllElements()) {
+                unwrapped(descendant);
+            }
+        }
+    }
+
+    /**
+     * Moves the element to the elements of its new tag.
+     *
+     * @param element
+     *            retagged element
+     * @param previous
+     *            previous tag for the element
+     */
+    public final void retagged(final Element element, final String previous) {
+        Objects.requireNonNull(element, "Received a null pointer as element");
+        Objects.requireNonNull(previous, "Received a null pointer as previous tag");
+
+        if (!outdated) {
+            remove(previous, element);
+            // The new position is found when indexing again
+            stale.add(element.normalName());
+        }
+    }
+
+    /**
+     * Removes the element, but not its descendants, from the index.
+     *
+     * @param element
+     *            unwrapped element
+     */
+    public final void unwrapped(final Element element) {
+        Objects.requireNonNull(element, "Received a null pointer as element");
+
+        if (!outdated) {
+            remove(element.normalName(), element);
+        }
+    }
+
+    /**
+     * Adds the node to the index, if it is an element with one of the received tags.
+     *
+     * @param node
+     *            visited node
+     * @param tags
+     *            tags to index, or {@code null} for all the tags
+     */
+    private final void add(final Node node, final Set<String> tags) {
+        if ((node instanceof Element) && ((tags == null) || tags.contains(node.normalName()))) {
+            index.computeIfAbsent(node.normalName(), k -> new LinkedHashSet<>())
+                .add((Element) node);
+        }
+    }
+
+    /**
+     * Removes the element from the elements with the tag.
+     *
+     * @param tag
+     *            tag for the element
+     * @param element
+     *            element to remove
+     */
+    private final void remove(final String tag, final Element element) {
+        final Set<Element> tagged; // Elements with the tag
+
+        tagged = index.get(tag);
+        if (tagged != null) {
+            tagged.remove(element);
+        }
+    }
+
+    /**
+     * Builds the index, or the stale tags, in a single walk.
+     */
+    private final void update() {
+        final Set<String> tags; // Tags to index
+
+        if (outdated) {
+            NodeTraversor.traverse((node, depth) -> add(node, null), root);
+            outdated = false;
+        } else if (!stale.isEmpty()) {
+            tags = new HashSet<>(stale);
+            for (final String tag : tags) {
+                index.remove(tag);
+            }
+            NodeTraversor.traverse((node, depth) -> add(node, tags), root);
+            stale.clear();
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.velocity.tools.ToolContext;
+import org.apache.velocity.tools.config.DefaultKey;
+
+import com.bernardomg.velocity.tool.metrics.InMemoryToolMetrics;
+import com.bernardomg.velocity.tool.metrics.OperationMetrics;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+
+/**
+ * Gives access to the metrics shared by the tools created by Velocity, to be used as an extension of the Velocity
+ * templating engine.
+ * <p>
+ * Velocity creates the tools through their default constructors, so they can't receive a metrics instance. Instead,
+ * when the toolbox has the {@code metrics} property set to {@code true}, each tool records its operations into the
+ * in-memory metrics of the metrics tool in the same toolbox. A skin can then show the summary at the end of the page
+ * with {@code $metrics.summary}.
+ * <p>
+ * The metrics are kept by each instance of this tool, so they last as long as the toolbox which created it, and
+ * separate toolboxes, such as those of the modules in a reactor build, don't mix their metrics.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@DefaultKey("metrics")
+public final class MetricsTool {
+
+    /**
+     * Toolbox property which enables the shared metrics.
+     */
+    public static final String        METRICS_PROPERTY = "metrics";
+
+    /**
+     * Metrics shared by the tools.
+     */
+    private final InMemoryToolMetrics metrics          = new InMemoryToolMetrics();
+
+    /**
+     * Default constructor.
+     */
+    public MetricsTool() {
+        super();
+    }
+
+    /**
+     * Returns the metrics a tool should use for the received properties.
+     * <p>
+     * If the {@link #METRICS_PROPERTY metrics property} is {@code true}, these are the metrics of the metrics tool in
+     * the same toolbox. Otherwise, or if the toolbox has no metrics tool, the current ones are kept.
+     *
+     * @param properties
+     *            tool properties
+     * @param current
+     *            metrics used by the tool
+     * @return the metrics the tool should use
+     */
+    static final ToolMetrics configure(final Map<String, Object> properties, final ToolMetrics current) {
+        final ToolMetrics           metrics; // Metrics to use
+        final Optional<MetricsTool> tool;    // Metrics tool in the toolbox
+
+        Objects.requireNonNull(properties, "Received a null pointer as properties");
+
+        if (Boolean.parseBoolean(String.valueOf(properties.get(METRICS_PROPERTY)))) {
+            tool = find(properties.get(ToolContext.CONTEXT_KEY));
+        } else {
+            tool = Optional.empty();
+        }
+
+        if (tool.isPresent()) {
+            metrics = tool.get()
+                .getMetrics();
+        } else {
+            metrics = current;
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics tool in the toolbox of the received context, if there is any.
+     * <p>
+     * Asking the context for the tool creates it, if it wasn't already.
+     *
+     * @param context
+     *            Velocity context received by the tools
+     * @return the metrics tool in the toolbox
+     */
+    private static final Optional<MetricsTool> find(final Object context) {
+        final Optional<MetricsTool> found; // Metrics tool found
+        final ToolContext           tools; // Context with the tools
+
+        if (context instanceof ToolContext) {
+            tools = (ToolContext) context;
+            found = tools.getToolClassMap()
+                .entrySet()
+                .stream()
+                .filter(entry -> MetricsTool.class.equals(entry.getValue()))
+                .findFirst()
+                .map(entry -> tools.get(entry.getKey()))
+                .filter(MetricsTool.class::isInstance)
+                .map(MetricsTool.class::cast);
+        } else {
+            found = Optional.empty();
+        }
+
+        return found;
+    }
+
+    /**
+     * Removes all the shared measures.
+     */
+    public final void clear() {
+        metrics.clear();
+    }
+
+    /**
+     * Returns the metrics shared by the tools.
+     *
+     * @return the metrics shared by the tools
+     */
+    public final InMemoryToolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the shared metrics for all the operations called, sorted by the time spent on them, from more to less.
+     *
+     * @return the metrics for all the operations
+     */
+    public final List<OperationMetrics> getOperations() {
+        return metrics.getOperations();
+    }
+
+    /**
+     * Returns a summary of the shared metrics, with a line for each operation, sorted by the time spent on them.
+     *
+     * @return a summary of the metrics
+     */
+    public final String getSummary() {
+        return metrics.getSummary();
+    }
+
+}
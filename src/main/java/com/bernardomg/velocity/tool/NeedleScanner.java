@@ -0,0 +1,314 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Finds which of a set of needles appear in a raw HTML string, with a single read of it.
+ * <p>
+ * This allows skipping the operations which can't apply to a page before parsing it. For example, a page without any
+ * {@code <img} can't have icons or figures to transform.
+ * <p>
+ * The needles are searched for at the same time with an Aho&ndash;Corasick automaton, compiled into a transition table
+ * so each character takes a single lookup. Matching ignores the case of ASCII letters, as HTML tags and attributes do.
+ * Only ASCII needles are supported, and at most {@value #MAX_NEEDLES} of them.
+ * <p>
+ * This is immutable, and so thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class NeedleScanner {
+
+    /**
+     * Needles for links to anchors in the same page, in the usual ways of writing them.
+     */
+    public static final List<String> ANCHOR_LINK_NEEDLES = List.of("=\"#", "='#", "=#", "= \"#", "= '#", "= #",
+        "&#35;", "&#x23;", "&num;");
+
+    /**
+     * Needles for headings.
+     */
+    public static final List<String> HEADING_NEEDLES     = List.of("<h1", "<h2", "<h3", "<h4", "<h5", "<h6");
+
+    /**
+     * Needles for images.
+     */
+    public static final List<String> IMAGE_NEEDLES       = List.of("<img");
+
+    /**
+     * Maximum number of needles.
+     */
+    public static final int          MAX_NEEDLES         = Long.SIZE;
+
+    /**
+     * Needles for table header cells.
+     */
+    public static final List<String> TABLE_HEAD_NEEDLES  = List.of("<th");
+
+    /**
+     * Size of the alphabet in the transition table. Any other character takes back to the root state.
+     */
+    private static final int         ALPHABET            = 128;
+
+    /**
+     * Tags which the HTML parser may add to a page, without them appearing in its source.
+     */
+    private static final Set<String> IMPLIED_TAGS        = Set.of("body", "colgroup", "head", "html", "tbody", "tr");
+
+    /**
+     * Mask with all the needles.
+     */
+    private final long               all;
+
+    /**
+     * Needles searched, in lower case.
+     */
+    private final List<String>       needles;
+
+    /**
+     * Needles found when reaching each state, as a mask of their indexes.
+     */
+    private final long[]             outputs;
+
+    /**
+     * Transitions for each state and character.
+     */
+    private final int[][]            transitions;
+
+    /**
+     * Constructs a scanner for the received needles.
+     *
+     * @param searched
+     *            needles to search for
+     */
+    public NeedleScanner(final Collection<String> searched) {
+        super();
+
+        final List<int[]>    gotos;    // Transitions in the trie, before adding the failures
+        final List<Long>     found;    // Needles ending in each state
+        final int[]          failures; // Failure link for each state
+        final Deque<Integer> queue;    // States to visit, breadth first
+        int                  state;    // Current state
+        int                  next;     // Next state
+        String               needle;   // Current needle
+        char                 current;  // Current character
+
+        Objects.requireNonNull(searched, "Received a null pointer as needles");
+
+        needles = List.copyOf(searched.stream()
+            .map(n -> n.toLowerCase(Locale.ENGLISH))
+            .collect(Collectors.toCollection(LinkedHashSet::new)));
+        if (needles.size() > MAX_NEEDLES) {
+            throw new IllegalArgumentException(
+                "Received " + needles.size() + " needles, but at most " + MAX_NEEDLES + " are supported");
+        }
+
+        // Builds the trie
+        gotos = new ArrayList<>();
+        found = new ArrayList<>();
+        gotos.add(newState());
+        found.add(0L);
+        for (int i = 0; i < needles.size(); i++) {
+            needle = needles.get(i);
+            if (needle.isEmpty()) {
+                throw new IllegalArgumentException("Received an empty needle");
+            }
+            state = 0;
+            for (int j = 0; j < needle.length(); j++) {
+                current = needle.charAt(j);
+                if (current >= ALPHABET) {
+                    throw new IllegalArgumentException("Received a needle which is not ASCII: " + needle);
+                }
+                if (gotos.get(state)[current] < 0) {
+                    gotos.get(state)[current] = gotos.size();
+                    gotos.add(newState());
+                    found.add(0L);
+                }
+                state = gotos.get(state)[current];
+            }
+            found.set(state, found.get(state) | (1L << i));
+        }
+
+        // Turns the trie into a transition table, following the failure links breadth first
+        transitions = gotos.toArray(new int[0][]);
+        outputs = new long[transitions.length];
+        failures = new int[transitions.length];
+        queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (transitions[0][c] < 0) {
+                transitions[0][c] = 0;
+            } else {
+                queue.add(transitions[0][c]);
+            }
+        }
+        outputs[0] = found.get(0);
+        while (!queue.isEmpty()) {
+            state = queue.poll();
+            outputs[state] = found.get(state) | outputs[failures[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failures[state]][c];
+                } else {
+                    failures[next] = transitions[failures[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        all = mask(needles.size());
+    }
+
+    /**
+     * Returns the needles searched, in lower case.
+     *
+     * @return the needles searched
+     */
+    public final List<String> getNeedles() {
+        return needles;
+    }
+
+    /**
+     * Returns the needles for the elements a CSS selector may match, which are the opening tags for the subjects of the
+     * selector.
+     * <p>
+     * If the selector may match any tag, or a tag which the HTML parser may add by itself, such as {@code tbody}, there
+     * is no needle for it, and an empty collection is returned.
+     *
+     * @param selector
+     *            CSS selector
+     * @return the needles for the selector
+     */
+    public static final Collection<String> getSelectorNeedles(final String selector) {
+        final Collection<String> tags;   // Tags for the subjects of the selector
+        final Collection<String> result; // Needles for the selector
+
+        Objects.requireNonNull(selector, "Received a null pointer as selector");
+
+        tags = SelectorRule.getSubjectTags(selector);
+        if (tags.stream()
+            .anyMatch(IMPLIED_TAGS::contains)) {
+            result = Collections.emptyList();
+        } else {
+            result = tags.stream()
+                .map(tag -> "<" + tag)
+                .collect(Collectors.toList());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the needles found in the text.
+     * <p>
+     * The scan stops as soon as all the needles are found.
+     *
+     * @param text
+     *            text to scan
+     * @return the needles found, in lower case
+     */
+    public final Set<String> scan(final CharSequence text) {
+        final Set<String> result;  // Needles found
+        long              found;   // Mask with the needles found
+        int               state;   // Current state
+        char              current; // Current character
+
+        Objects.requireNonNull(text, "Received a null pointer as text");
+
+        found = 0;
+        state = 0;
+        for (int i = 0; (i < text.length()) && (found != all); i++) {
+            current = text.charAt(i);
+            if ((current >= 'A') && (current <= 'Z')) {
+                current = (char) (current + ('a' - 'A'));
+            }
+            if (current < ALPHABET) {
+                state = transitions[state][current];
+                found |= outputs[state];
+            } else {
+                state = 0;
+            }
+        }
+
+        if (found == 0) {
+            result = Collections.emptySet();
+        } else {
+            result = new LinkedHashSet<>();
+            for (int i = 0; i < needles.size(); i++) {
+                if ((found & (1L << i)) != 0) {
+                    result.add(needles.get(i));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a mask with the received number of needles.
+     *
+     * @param count
+     *            number of needles
+     * @return a mask for the needles
+     */
+    private static final long mask(final int count) {
+        final long result; // Mask for the needles
+
+        if (count == Long.SIZE) {
+            result = -1L;
+        } else {
+            result = (1L << count) - 1;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the transitions for a new state, without any of them set.
+     *
+     * @return the transitions for a new state
+     */
+    private static final int[] newState() {
+        final int[] state; // Transitions
+
+        state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+
+        return state;
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Tag;
+
+/**
+ * Creates the nodes added to the pages, without parsing HTML.
+ * <p>
+ * Methods such as {@link Element#prepend(String)} or {@link Element#append(String)} run the HTML parser for each call,
+ * even for a single element. The fixers build their nodes through this factory instead.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class NodeFactory {
+
+    /**
+     * Returns a new element with the received tag.
+     *
+     * @param tag
+     *            tag for the element
+     * @return a new element
+     */
+    public static final Element element(final String tag) {
+        return new Element(Tag.valueOf(tag), "");
+    }
+
+    /**
+     * Returns a new element with the received tag, containing the text.
+     *
+     * @param tag
+     *            tag for the element
+     * @param text
+     *            text for the element
+     * @return a new element with the text
+     */
+    public static final Element element(final String tag, final String text) {
+        return element(tag).appendChild(text(text));
+    }
+
+    /**
+     * Returns a new text node.
+     * <p>
+     * The text is not parsed, so it is escaped when serializing the page.
+     *
+     * @param text
+     *            text for the node
+     * @return a new text node
+     */
+    public static final TextNode text(final String text) {
+        return new TextNode(text);
+    }
+
+    /**
+     * Utilities class constructor.
+     */
+    private NodeFactory() {
+        super();
+    }
+
+}
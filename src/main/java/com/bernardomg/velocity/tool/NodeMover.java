@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Objects;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+/**
+ * Moves nodes between elements in bulk.
+ * <p>
+ * Removing a node from its parent shifts all the siblings after it, so moving the children one by one takes quadratic
+ * time on elements with many children. Here all of them are detached at once and then added to their new parent in a
+ * single splice.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class NodeMover {
+
+    /**
+     * Moves the child elements of the source to the end of the target.
+     * <p>
+     * Any other child node, such as the text directly inside the source, is discarded.
+     *
+     * @param source
+     *            element to take the children from
+     * @param target
+     *            element receiving the children
+     */
+    public static final void moveChildren(final Element source, final Element target) {
+        final Elements children; // Children to move
+
+        Objects.requireNonNull(source, "Received a null pointer as source");
+        Objects.requireNonNull(target, "Received a null pointer as target");
+
+        children = source.children();
+        source.empty();
+        target.appendChildren(children);
+    }
+
+    /**
+     * Utilities class constructor.
+     */
+    private NodeMover() {
+        super();
+    }
+
+}
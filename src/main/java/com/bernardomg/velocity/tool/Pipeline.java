@@ -0,0 +1,272 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * Sequence of steps transforming a parsed page.
+ * <p>
+ * Pipelines are immutable, adding a step returns a new pipeline, so they can be built once and shared by all the
+ * pages. For example:
+ *
+ * <pre>
+ * pipeline = new Pipeline().then(siteTool::fixPage)
+ *     .then(html5UpdateTool::updateTableHeads)
+ *     .then(root -&gt; htmlTool.addClass(root, "table", "table-striped"));
+ * </pre>
+ * <p>
+ * Steps can be given needles, which are searched for in the raw HTML before parsing it. If none of them is found the
+ * step is skipped, as it can't apply to the page:
+ *
+ * <pre>
+ * pipeline = new Pipeline().then(html5UpdateTool::updateTableHeads, NeedleScanner.TABLE_HEAD_NEEDLES);
+ * </pre>
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool#process(String, Pipeline)
+ */
+public final class Pipeline {
+
+    /**
+     * Step in the pipeline.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class Step {
+
+        /**
+         * Needles for the step. If empty the step is always applied.
+         */
+        private final Collection<String> needles;
+
+        /**
+         * Transformation applied by the step.
+         */
+        private final Consumer<Element>  transformation;
+
+        /**
+         * Constructs a step.
+         *
+         * @param stepTransformation
+         *            transformation applied by the step
+         * @param stepNeedles
+         *            needles for the step
+         */
+        private Step(final Consumer<Element> stepTransformation, final Collection<String> stepNeedles) {
+            super();
+
+            transformation = stepTransformation;
+            needles = stepNeedles;
+        }
+
+    }
+
+    /**
+     * Scanner for the needles of all the steps, or {@code null} if the steps can't be skipped.
+     */
+    private final NeedleScanner scanner;
+
+    /**
+     * Steps to apply, in order.
+     */
+    private final List<Step>    steps;
+
+    /**
+     * Constructs an empty pipeline.
+     */
+    public Pipeline() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * Constructs a pipeline with the received steps, and a scanner for their needles.
+     * <p>
+     * If no step has needles, or there are too many of them, there is no scanner, and all the steps are always applied.
+     *
+     * @param pipelineSteps
+     *            steps to apply, in order
+     */
+    private Pipeline(final List<Step> pipelineSteps) {
+        this(pipelineSteps, buildScanner(pipelineSteps));
+    }
+
+    /**
+     * Constructs a pipeline with the received steps and scanner.
+     *
+     * @param pipelineSteps
+     *            steps to apply, in order
+     * @param needleScanner
+     *            scanner for the needles of the steps, or {@code null} if they can't be skipped
+     */
+    private Pipeline(final List<Step> pipelineSteps, final NeedleScanner needleScanner) {
+        super();
+
+        steps = pipelineSteps;
+        scanner = needleScanner;
+    }
+
+    /**
+     * Applies all the steps to the received element, in order.
+     *
+     * @param root
+     *            root element to transform
+     * @return transformed element
+     */
+    public final Element apply(final Element root) {
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+
+        for (final Step step : steps) {
+            step.transformation.accept(root);
+        }
+
+        return root;
+    }
+
+    /**
+     * Returns a pipeline with only the steps which may apply to the received HTML.
+     * <p>
+     * The HTML is scanned once for the needles of all the steps, and those steps without any needle found are skipped.
+     * Steps without needles are always kept. The filtered pipeline shares the scanner of this one, so filtering doesn't
+     * build a new one for each page.
+     *
+     * @param html
+     *            raw HTML which will be transformed
+     * @return a pipeline with the steps which may apply to the HTML
+     */
+    public final Pipeline filter(final CharSequence html) {
+        final Set<String> found;      // Needles found
+        final List<Step>  applicable; // Steps which may apply
+        final Pipeline    filtered;   // Filtered pipeline
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+
+        if (scanner == null) {
+            filtered = this;
+        } else {
+            found = scanner.scan(html);
+            applicable = new ArrayList<>(steps.size());
+            for (final Step step : steps) {
+                if (step.needles.isEmpty() || !Collections.disjoint(step.needles, found)) {
+                    applicable.add(step);
+                }
+            }
+            if (applicable.size() == steps.size()) {
+                filtered = this;
+            } else {
+                filtered = new Pipeline(Collections.unmodifiableList(applicable), scanner);
+            }
+        }
+
+        return filtered;
+    }
+
+    /**
+     * Indicates if the pipeline has no steps.
+     *
+     * @return {@code true} if there are no steps, {@code false} otherwise
+     */
+    public final boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    /**
+     * Returns a new pipeline, with the received step added after the steps of this one.
+     *
+     * @param step
+     *            step to add
+     * @return a new pipeline with the step added
+     */
+    public final Pipeline then(final Consumer<Element> step) {
+        return then(step, Collections.emptyList());
+    }
+
+    /**
+     * Returns a new pipeline, with the received step added after the steps of this one. The step will be skipped for
+     * any HTML without the needles, when {@link #filter(CharSequence) filtering} the pipeline.
+     * <p>
+     * The needles are searched for in the HTML before applying any step, so they shouldn't be something added by the
+     * steps before this one. They are matched ignoring the case.
+     *
+     * @param step
+     *            step to add
+     * @param needles
+     *            texts the HTML should contain, at least one of them, for the step to apply
+     * @return a new pipeline with the step added
+     * @see NeedleScanner
+     */
+    public final Pipeline then(final Consumer<Element> step, final Collection<String> needles) {
+        final List<Step> added; // Steps for the new pipeline
+
+        Objects.requireNonNull(step, "Received a null pointer as step");
+        Objects.requireNonNull(needles, "Received a null pointer as needles");
+
+        added = new ArrayList<>(steps.size() + 1);
+        added.addAll(steps);
+        // The scanner returns the needles in lower case
+        added.add(new Step(step, needles.stream()
+            .map(needle -> needle.toLowerCase(Locale.ENGLISH))
+            .collect(Collectors.toList())));
+
+        return new Pipeline(Collections.unmodifiableList(added));
+    }
+
+    /**
+     * Builds the scanner for the needles of the steps.
+     *
+     * @param pipelineSteps
+     *            steps to scan for
+     * @return the scanner for the steps, or {@code null} if they can't be skipped
+     */
+    private static final NeedleScanner buildScanner(final Collection<Step> pipelineSteps) {
+        final Set<String>   needles; // Needles for all the steps
+        final NeedleScanner built;   // Scanner for the needles
+
+        needles = new LinkedHashSet<>();
+        for (final Step step : pipelineSteps) {
+            needles.addAll(step.needles);
+        }
+
+        if (needles.isEmpty() || (needles.size() > NeedleScanner.MAX_NEEDLES)) {
+            built = null;
+        } else {
+            built = new NeedleScanner(needles);
+        }
+
+        return built;
+    }
+
+}
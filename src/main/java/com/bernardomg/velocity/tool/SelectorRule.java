@@ -0,0 +1,291 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Evaluator;
+
+import com.bernardomg.velocity.tool.rule.ElementRule;
+
+/**
+ * Applies an {@link HtmlRule} to the elements matching its selector.
+ * <p>
+ * The tags for the rule are taken from the subject of each selector group, so the engine can skip checking the selector
+ * for any other element. If any group doesn't start with a tag, the rule is checked against all the elements.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class SelectorRule implements ElementRule {
+
+    /**
+     * Pattern for selectors made only of tags and combinators. Changing the classes or attributes of an element can't
+     * change what these match.
+     */
+    private static final Pattern     TAG_ONLY = Pattern.compile("[\\w\\s,>+~*-]+");
+
+    /**
+     * Compiled selector.
+     */
+    private final Evaluator          evaluator;
+
+    /**
+     * Number of elements changed by the rule.
+     */
+    private int                      mutated;
+
+    /**
+     * Root for the selection.
+     */
+    private final Element            root;
+
+    /**
+     * Rule to apply.
+     */
+    private final HtmlRule           rule;
+
+    /**
+     * Tags for the elements the selector may match.
+     */
+    private final Collection<String> tags;
+
+    /**
+     * Constructs a rule applying the received one.
+     *
+     * @param htmlRule
+     *            rule to apply
+     * @param compiled
+     *            compiled selector for the rule
+     * @param selectionRoot
+     *            root for the selection
+     */
+    public SelectorRule(final HtmlRule htmlRule, final Evaluator compiled, final Element selectionRoot) {
+        super();
+
+        rule = htmlRule;
+        evaluator = compiled;
+        root = selectionRoot;
+        tags = getSubjectTags(htmlRule.getSelector());
+    }
+
+    /**
+     * Returns the tags for the subjects of the selector, or an empty collection if any of them may be any tag.
+     *
+     * @param selector
+     *            selector to check
+     * @return the tags for the subjects of the selector
+     */
+    static final Collection<String> getSubjectTags(final String selector) {
+        final Set<String>  found;   // Tags found
+        final List<String> groups;  // Selector groups
+        int                depth;   // Nesting level inside brackets
+        int                begin;   // Start of the current group or compound
+        char               current; // Current character
+        String             tag;     // Tag for the current group
+        boolean            any;     // Flag marking a group may match any tag
+
+        groups = new ArrayList<>();
+        if ((selector.indexOf('\\') < 0) && (selector.indexOf('"') < 0) && (selector.indexOf('\'') < 0)) {
+            depth = 0;
+            begin = 0;
+            for (int i = 0; i < selector.length(); i++) {
+                switch (selector.charAt(i)) {
+                    case '(':
+                    case '[':
+                        depth++;
+                        break;
+                    case ')':
+                    case ']':
+                        depth--;
+                        break;
+                    case ',':
+                        if (depth == 0) {
+                            groups.add(selector.substring(begin, i));
+                            begin = i + 1;
+                        }
+                        break;
+                    default:
+                }
+            }
+            groups.add(selector.substring(begin));
+        }
+
+        found = new HashSet<>();
+        any = groups.isEmpty();
+        for (final String group : groups) {
+            // The subject is the last compound in the group
+            depth = 0;
+            begin = 0;
+            for (int i = 0; i < group.length(); i++) {
+                current = group.charAt(i);
+                if ((current == '(') || (current == '[')) {
+                    depth++;
+                } else if ((current == ')') || (current == ']')) {
+                    depth--;
+                } else if ((depth == 0) && (Character.isWhitespace(current) || (current == '>') || (current == '+')
+                        || (current == '~'))) {
+                    begin = i + 1;
+                }
+            }
+
+            tag = leadingTag(group.substring(begin));
+            if (tag.isEmpty()) {
+                any = true;
+            } else {
+                found.add(tag);
+            }
+        }
+
+        if (any) {
+            found.clear();
+        }
+
+        return Collections.unmodifiableSet(found);
+    }
+
+    /**
+     * Returns the tag at the start of the compound selector, in lower case, or an empty string if it doesn't start
+     * with a tag.
+     *
+     * @param compound
+     *            compound selector
+     * @return the tag for the compound selector
+     */
+    private static final String leadingTag(final String compound) {
+        int end; // End of the tag
+
+        end = 0;
+        while ((end < compound.length())
+                && (Character.isLetterOrDigit(compound.charAt(end)) || (compound.charAt(end) == '-')
+                        || (compound.charAt(end) == '_'))) {
+            end++;
+        }
+
+        return compound.substring(0, end)
+            .toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Clears the matches memoized by the compiled selector.
+     * <p>
+     * Structural selectors remember their previous matches, and jsoup only clears them when starting a selection. This
+     * makes an empty selection, so the matches from before the tree was modified are not reused.
+     *
+     * @param compiled
+     *            compiled selector to reset
+     */
+    static final void reset(final Evaluator compiled) {
+        Collector.findFirst(compiled, new Element("div"));
+    }
+
+    @Override
+    public final void apply(final Element element) {
+        switch (rule.getOperation()) {
+            case ADD_CLASS:
+                if (!element.hasClass(rule.getArgument())) {
+                    element.addClass(rule.getArgument());
+                    mutated++;
+                }
+                break;
+            case REMOVE_ATTRIBUTE:
+                if (element.hasAttr(rule.getArgument())) {
+                    element.removeAttr(rule.getArgument());
+                    mutated++;
+                }
+                break;
+            case REMOVE_CLASS:
+                if (element.hasClass(rule.getArgument())) {
+                    mutated++;
+                }
+                element.removeClass(rule.getArgument());
+
+                if (element.classNames()
+                    .isEmpty()) {
+                    element.removeAttr("class");
+                }
+                break;
+            case RETAG:
+                if (!element.tagName()
+                    .equals(rule.getArgument())) {
+                    element.tagName(rule.getArgument());
+                    mutated++;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unsupported operation " + rule.getOperation());
+        }
+    }
+
+    /**
+     * Returns the number of elements changed by the rule.
+     *
+     * @return the number of elements changed
+     */
+    public final int getMutated() {
+        return mutated;
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Indicates if the selector is made only of tags and combinators.
+     * <p>
+     * Changes to the classes or attributes made by other rules won't change the elements matched by these selectors, so
+     * they can be checked at the same time as the rules before them.
+     *
+     * @return {@code true} if the selector is made only of tags and combinators, {@code false} otherwise
+     */
+    public final boolean isTagOnly() {
+        return TAG_ONLY.matcher(rule.getSelector())
+            .matches();
+    }
+
+    @Override
+    public final boolean matches(final Element element) {
+        return evaluator.matches(root, element);
+    }
+
+    /**
+     * Clears the matches memoized by the compiled selector.
+     *
+     * @see #reset(Evaluator)
+     */
+    public final void reset() {
+        reset(evaluator);
+    }
+
+}
@@ -24,16 +24,27 @@
 
 package com.bernardomg.velocity.tool;
 
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.apache.velocity.tools.config.DefaultKey;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
-import org.jsoup.parser.Tag;
+
+import com.bernardomg.velocity.tool.metrics.NoOpToolMetrics;
+import com.bernardomg.velocity.tool.metrics.ToolMetrics;
+import com.bernardomg.velocity.tool.report.ReportFixer;
+import com.bernardomg.velocity.tool.report.ReportFixerRegistry;
+import com.bernardomg.velocity.tool.report.TaggedElements;
+import com.bernardomg.velocity.tool.rule.ElementRule;
+import com.bernardomg.velocity.tool.rule.RuleCount;
+import com.bernardomg.velocity.tool.rule.RuleEngine;
 
 /**
  * Utilities class for fixing several issues in Doxia generated sites, updating and homogenising their layouts.
@@ -45,6 +56,9 @@
  * The <a href="https://github.com/Bernardo-MG/docs-maven-skin">Docs Maven Skin</a> and its requirements have dictated
  * the development of this class. For more generic methods use the {@link com.bernardomg.velocity.tool.HtmlTool
  * HtmlTool}.
+ * <p>
+ * This class is thread safe. A single instance can be shared by all the pages of a site, so the formatted ids and
+ * parsed icons are kept for the whole build.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
@@ -52,20 +66,132 @@
 public class SiteTool {
 
     /**
-     * Regular expresion indicating invalid values for ids and internal links which will be replaced by hyphens.
+     * Default icon replacements.
+     * <p>
+     * The key is the ending of the source for the images to replace, and the value the already parsed replacement.
+     */
+    private static final Map<String, Element> DEFAULT_ICONS = defaultIcons();
+
+    /**
+     * Engine for transforming images into figures, also unwrapping the figures already in the page.
+     */
+    private final RuleEngine                  allFiguresEngine;
+
+    /**
+     * Engine for fixing anchor links.
+     */
+    private final RuleEngine                  anchorLinksEngine;
+
+    /**
+     * Engine for transforming images to figures.
+     */
+    private final RuleEngine                  figuresEngine;
+
+    /**
+     * Engine for fixing heading ids.
+     */
+    private final RuleEngine                  headingIdsEngine;
+
+    /**
+     * Rule for transforming icons, which keeps the icon replacements applied by this instance.
+     * <p>
+     * The replacements are parsed only once, when registered, and cloned each time they are used.
+     */
+    private final IconRule                    iconRule;
+
+    /**
+     * Engine for transforming icons.
+     */
+    private final RuleEngine                  iconsEngine;
+
+    /**
+     * Formatted ids, shared by the heading ids and anchor links fixes.
+     * <p>
+     * All the pages fixed by this instance share the same cache.
+     */
+    private final IdCache                     ids           = new IdCache();
+
+    /**
+     * Metrics for the operations.
      */
-    private static final String ID_HYPHEN_REGEX   = "[ _]";
+    private volatile ToolMetrics              metrics;
 
     /**
-     * Regular expresion indicating invalid values for ids and internal links will will be removed.
+     * Engine applying all the page fixes in a single traversal.
      */
-    private static final String ID_REJECTED_REGEX = "[^\\w#-]";
+    private final RuleEngine                  pageEngine;
+
+    /**
+     * Fixers for the reports.
+     */
+    private final ReportFixerRegistry         reportFixers  = new ReportFixerRegistry();
 
     /**
      * Constructs an instance of the utilities class.
      */
     public SiteTool() {
+        this(new NoOpToolMetrics());
+    }
+
+    /**
+     * Constructs an instance of the utilities class, which will record its operations into the received metrics.
+     *
+     * @param toolMetrics
+     *            metrics for the operations
+     */
+    public SiteTool(final ToolMetrics toolMetrics) {
         super();
+
+        final ElementRule headingIdRule;  // Rule for heading ids
+        final ElementRule anchorLinkRule; // Rule for anchor links
+        final ElementRule figureRule;     // Rule for figures
+
+        metrics = Objects.requireNonNull(toolMetrics, "Received a null pointer as metrics");
+
+        headingIdRule = new HeadingIdRule(ids);
+        anchorLinkRule = new AnchorLinkRule(ids);
+        iconRule = new IconRule(DEFAULT_ICONS);
+        figureRule = new FigureRule();
+
+        headingIdsEngine = new RuleEngine(headingIdRule);
+        anchorLinksEngine = new RuleEngine(anchorLinkRule);
+        iconsEngine = new RuleEngine(iconRule);
+        figuresEngine = new RuleEngine(figureRule);
+        allFiguresEngine = new RuleEngine(new FigureRule(true));
+        pageEngine = new RuleEngine(headingIdRule, anchorLinkRule, iconRule, figureRule);
+    }
+
+    /**
+     * Registers an icon replacement, to be applied by {@link #transformIcons(Element) transformIcons}.
+     * <p>
+     * Any image with a source ending with the received value will be replaced by the first element in the icon HTML.
+     * If there was already a replacement for the same image it will be overwritten.
+     * <p>
+     * The icon HTML is parsed only once, when registering it.
+     *
+     * @param image
+     *            ending of the source for the images to replace, such as {@code images/add.gif}
+     * @param icon
+     *            HTML for the icon replacing the images
+     */
+    public final void addIcon(final String image, final String icon) {
+        Objects.requireNonNull(image, "Received a null pointer as image");
+        Objects.requireNonNull(icon, "Received a null pointer as icon");
+
+        iconRule.addIcon(image, parseIcon(icon));
+    }
+
+    /**
+     * Configures the tool with the properties from the Velocity toolbox.
+     * <p>
+     * If the {@code metrics} property is {@code true} the operations are recorded into the metrics of the
+     * {@link MetricsTool} in the same toolbox.
+     *
+     * @param properties
+     *            toolbox and tool properties
+     */
+    public final void configure(final Map<String, Object> properties) {
+        metrics = MetricsTool.configure(properties, metrics);
     }
 
     /**
@@ -87,24 +213,9 @@ public SiteTool() {
      * @return transformed element
      */
     public final Element fixAnchorLinks(final Element root) {
-        String ref; // Value of the href attribute
-        String id;  // Formatted id
-
         Objects.requireNonNull(root, "Received a null pointer as root element");
 
-        // Anchors
-        for (final Element anchor : root.getElementsByTag("a")) {
-            // If the attribute doesn't exist then the ref will be an empty
-            // string
-            ref = anchor.attr("href");
-
-            if ((!ref.isEmpty()) && ("#".equals(ref.substring(0, 1)))) {
-                id = formatId(ref);
-                anchor.attr("href", id);
-            }
-        }
-
-        return root;
+        return apply(anchorLinksEngine, root, "SiteTool.fixAnchorLinks");
     }
 
     /**
@@ -127,27 +238,35 @@ public final Element fixAnchorLinks(final Element root) {
      * @return transformed element
      */
     public final Element fixHeadingIds(final Element root) {
-        final Collection<Element> headings; // Headings to fix
-        String                    idText;   // Text to generate the id
-        String                    id;       // Formatted id
+        Objects.requireNonNull(root, "Received a null pointer as root element");
 
+        return apply(headingIdsEngine, root, "SiteTool.fixHeadingIds");
+    }
+
+    /**
+     * Applies all the page fixes, walking the page a single time.
+     * <p>
+     * The result is the same as calling these methods, in this order:
+     * <ul>
+     * <li>{@link #fixHeadingIds(Element) fixHeadingIds}</li>
+     * <li>{@link #fixAnchorLinks(Element) fixAnchorLinks}</li>
+     * <li>{@link #transformIcons(Element) transformIcons}</li>
+     * <li>{@link #transformImagesToFigures(Element) transformImagesToFigures}</li>
+     * </ul>
+     * But each of them requires a full traversal of the page, while this method requires only one.
+     *
+     * @param root
+     *            root element with the page
+     * @return transformed element
+     */
+    public final Element fixPage(final Element root) {
         Objects.requireNonNull(root, "Received a null pointer as root element");
 
-        // Table rows with <th> tags in a <tbody>
-        headings = root.select("h1,h2,h3,h4,h5,h6");
-        for (final Element heading : headings) {
-            if (heading.hasAttr("id")) {
-                // Contains an id
-                // The id text is taken from the attribute
-                idText = heading.attr("id");
-            } else {
-                // Doesn't contain an id
-                // The id text is taken from the heading text
-                idText = heading.text();
-            }
-            id = formatId(idText);
-            heading.attr("id", id);
-        }
+        apply(pageEngine, root, "SiteTool.fixPage");
+
+        // Images are replaced, or moved into new elements
+        IndexedElement.find(root)
+            .ifPresent(IndexedElement::invalidate);
 
         return root;
     }
@@ -174,6 +293,9 @@ public final Element fixHeadingIds(final Element root) {
      * <li>Team list</li>
      * </ul>
      * Most of the times, the fix consists on correcting the heading levels, and adding an initial heading if needed.
+     * <p>
+     * Each report is handled by a {@link ReportFixer}, loaded through the {@link java.util.ServiceLoader
+     * ServiceLoader}. More reports can be supported by registering new fixers.
      *
      * @param root
      *            root element with the report
@@ -182,105 +304,66 @@ public final Element fixHeadingIds(final Element root) {
      * @return transformed element
      */
     public final Element fixReport(final Element root, final String report) {
+        final long                       start;    // Start time
+        final Optional<ReportFixer>      fixer;    // Fixer for the report
+        final Optional<IndexedElement>   indexed;  // Index for the tree
+        final Map<String, List<Element>> tagged;   // Elements taken from the index
+        final TaggedElements             elements; // Elements used by the fixer
+        final int                        matched;  // Elements matched
+        final int                        mutated;  // Elements changed
 
         Objects.requireNonNull(root, "Received a null pointer as root element");
         Objects.requireNonNull(report, "Received a null pointer as report");
 
-        switch (report) {
-            case "changes-report":
-                fixReportChanges(root);
-                break;
-            case "checkstyle":
-            case "checkstyle-aggregate":
-                fixReportCheckstyle(root);
-                break;
-            case "cpd":
-                fixReportCpd(root);
-                break;
-            case "dependencies":
-                fixReportDependencies(root);
-                break;
-            case "dependency-analysis":
-                fixReportDependencyAnalysis(root);
-                break;
-            case "failsafe-report":
-                fixReportFailsafe(root);
-                break;
-            case "findbugs":
-            case "spotbugs":
-                fixReportFindbugs(root);
-                break;
-            case "jdepend-report":
-                fixReportJdepend(root);
-                break;
-            case "license":
-            case "licenses":
-                fixReportLicense(root);
-                break;
-            case "plugins":
-                fixReportPlugins(root);
-                break;
-            case "plugin-management":
-                fixReportPluginManagement(root);
-                break;
-            case "pmd":
-                fixReportPmd(root);
-                break;
-            case "project-summary":
-            case "summary":
-                fixReportProjectSummary(root);
-                break;
-            case "surefire-report":
-                fixReportSurefire(root);
-                break;
-            case "taglist":
-                fixReportTaglist(root);
-                break;
-            case "team-list":
-            case "team":
-                fixReportTeamList(root);
-                break;
-            default:
-                break;
+        start = System.nanoTime();
+
+        fixer = reportFixers.get(report);
+        if (fixer.isPresent()) {
+            indexed = IndexedElement.find(root);
+            if (indexed.isPresent()) {
+                tagged = new HashMap<>();
+                for (final String tag : fixer.get()
+                    .getTags()) {
+                    tagged.put(tag, indexed.get()
+                        .getElementsByTag(tag));
+                }
+                elements = TaggedElements.of(tagged);
+            } else {
+                // Collects the elements for all the tags in a single pass
+                elements = TaggedElements.collect(root, fixer.get()
+                    .getTags());
+            }
+            mutated = fixer.get()
+                .fix(root, elements);
+            indexed.ifPresent(IndexedElement::invalidate);
+            matched = elements.size();
+        } else {
+            matched = 0;
+            mutated = 0;
         }
 
+        metrics.record("SiteTool.fixReport", matched, mutated, System.nanoTime() - start);
+
         return root;
     }
 
     /**
      * Transforms the default icons used by the Maven Site to Font Awesome icons.
+     * <p>
+     * Additional icons can be registered through {@link #addIcon(String, String) addIcon}.
      *
      * @param root
      *            root element with the page
      * @return transformed element
      */
     public final Element transformIcons(final Element root) {
-        final Map<String, String> replacements; // Texts to replace and
-                                                // replacements
-
         Objects.requireNonNull(root, "Received a null pointer as root element");
 
-        replacements = new HashMap<>();
-        replacements.put("img[src$=images/add.gif]",
-            "<span><span class=\"fa-solid fa-plus\" aria-hidden=\"true\"></span><span class=\"sr-only\">Addition</span></span>");
-        replacements.put("img[src$=images/remove.gif]",
-            "<span><span class=\"fa-solid fa-minus\" aria-hidden=\"true\"></span><span class=\"sr-only\">Remove</span></span>");
-        replacements.put("img[src$=images/fix.gif]",
-            "<span><span class=\"fa-solid fa-wrench\" aria-hidden=\"true\"></span><span class=\"sr-only\">Fix</span></span>");
-        replacements.put("img[src$=images/update.gif]",
-            "<span><span class=\"fa-solid fa-rotate\" aria-hidden=\"true\"></span><span class=\"sr-only\">Refresh</span></span>");
-        replacements.put("img[src$=images/icon_help_sml.gif]",
-            "<span><span class=\"fa-solid fa-question\" aria-hidden=\"true\"></span><span class=\"sr-only\">Question</span></span>");
-        replacements.put("img[src$=images/icon_success_sml.gif]",
-            "<span><span class=\"navbar-icon fa-solid fa-check\" aria-hidden=\"true\" title=\"Passed\" aria-label=\"Passed\"></span><span class=\"sr-only\">Passed</span></span>");
-        replacements.put("img[src$=images/icon_warning_sml.gif]",
-            "<span><span class=\"fa-solid fa-exclamation\" aria-hidden=\"true\"></span><span class=\"sr-only\">Warning</span>");
-        replacements.put("img[src$=images/icon_error_sml.gif]",
-            "<span><span class=\"navbar-icon fa-solid fa-xmark\" aria-hidden=\"true\" title=\"Failed\" aria-label=\"Failed\"></span><span class=\"sr-only\">Failed</span></span>");
-        replacements.put("img[src$=images/icon_info_sml.gif]",
-            "<span><span class=\"fa-solid fa-info\" aria-hidden=\"true\"></span><span class=\"sr-only\">Info</span></span>");
-
-        replaceAll(root, replacements);
+        apply(iconsEngine, root, "SiteTool.transformIcons");
+
+        // Images are replaced, or moved into new elements
+        IndexedElement.find(root)
+            .ifPresent(IndexedElement::invalidate);
 
         return root;
     }
@@ -290,411 +373,187 @@ public final Element transformIcons(final Element root) {
      * <p>
      * This will wrap {@code <img>} elements with a {@code <figure>} element, and add a {@code <figcaption>} with the
      * contents of the image's {@code alt} attribute, if said attribute exists.
+     * <p>
+     * The figures created are unwrapped from their {@code <p>} parents. Figures which were already in the page are kept
+     * as they are.
      *
      * @param root
      *            root element with images to transform
      * @return transformed element
      */
     public final Element transformImagesToFigures(final Element root) {
-        final Collection<Element> images;  // Image elements from the <body>
-        final Collection<Element> figures; // figure elements from the <body>
-        Element                   figure;  // <figure> element
-        Element                   caption; // <figcaption> element
-
-        Objects.requireNonNull(root, "Received a null pointer as root element");
-
-        images = root.select("img");
-        for (final Element img : images) {
-            figure = new Element(Tag.valueOf("figure"), "");
-
-            img.replaceWith(figure);
-            figure.appendChild(img);
-
-            if (img.hasAttr("alt")) {
-                caption = new Element(Tag.valueOf("figcaption"), "");
-                caption.text(img.attr("alt"));
-                figure.appendChild(caption);
-            }
-        }
-
-        figures = root.select("figure");
-        for (final Element fig : figures) {
-            if ("p".equals(fig.parent()
-                .tag()
-                .getName())) {
-                fig.parent()
-                    .unwrap();
-            }
-        }
-
-        return root;
+        return transformImagesToFigures(root, false);
     }
 
     /**
-     * Fixes the changes report page.
+     * Transforms simple {@code <img>} elements to {@code <figure>} elements.
+     * <p>
+     * This will wrap {@code <img>} elements with a {@code <figure>} element, and add a {@code <figcaption>} with the
+     * contents of the image's {@code alt} attribute, if said attribute exists.
+     * <p>
+     * The figures created are unwrapped from their {@code <p>} parents, and so are those which were already in the page
+     * if told so.
      *
      * @param root
-     *            root element for the report page to fix
+     *            root element with images to transform
+     * @param includeExisting
+     *            if the figures already in the page should also be unwrapped from their paragraphs
+     * @return transformed element
      */
-    private final void fixReportChanges(final Element root) {
-        final Collection<Element> headings;     // Headings in the body
-        final Collection<Element> sections;     // Sections in the body
-        final Element             section;      // First section
-        Element                   timeElement;  // Element with the date
-        Element                   smallElement; // Element with the small date
-        String                    text;         // Heading text
-        String[]                  texts;        // Split heading text
-
-        // Sets all the h2 to h1
-        for (final Element head : root.getElementsByTag("h2")) {
-            head.tagName("h1");
-        }
+    public final Element transformImagesToFigures(final Element root, final boolean includeExisting) {
+        final RuleEngine engine; // Engine for the figures
 
-        headings = root.getElementsByTag("h3");
-        if (!headings.isEmpty()) {
-            // Sets first h3 to h2
-            headings.iterator()
-                .next()
-                .tagName("h2");
-        }
-
-        // Takes again all the h3 elements, to avoid the new h2
-        for (final Element heading : root.getElementsByTag("h3")) {
-            // Moves the heading id to the parent
-            heading.parent()
-                .attr("id", heading.id());
-            heading.removeAttr("id");
-
-            // Transforms the date on the heading
-            text = heading.text();
-            texts = text.split("–", 2);
-            if (texts.length == 2) {
-                timeElement = new Element(Tag.valueOf("time"), "");
-                timeElement.text(texts[1].trim());
-
-                smallElement = new Element(Tag.valueOf("small"), "");
-                smallElement.append("(");
-                smallElement.appendChild(timeElement);
-                smallElement.append(")");
-
-                heading.text(texts[0]);
-                heading.appendChild(smallElement);
-            }
-        }
-
-        // Moves all the elements out of the sections
-        sections = root.getElementsByTag("section");
-        if (!sections.isEmpty()) {
-            section = sections.iterator()
-                .next();
-            for (final Element child : section.children()) {
-                child.remove();
-                root.appendChild(child);
-            }
+        Objects.requireNonNull(root, "Received a null pointer as root element");
 
-            section.remove();
+        if (includeExisting) {
+            engine = allFiguresEngine;
+        } else {
+            engine = figuresEngine;
         }
-    }
 
-    /**
-     * Fixes the Checkstyle report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportCheckstyle(final Element root) {
-        final Collection<Element> elements; // Found elements
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            elements.iterator()
-                .next()
-                .tagName("h1");
-        }
-        root.select("img[src=\"images/rss.png\"]")
-            .remove();
-    }
+        apply(engine, root, "SiteTool.transformImagesToFigures");
 
-    /**
-     * Fixes the CPD report page.
-     *
-     * @param root
-     *            element for the body of the report page
-     */
-    private final void fixReportCpd(final Element root) {
-        final Collection<Element> elements; // Found elements
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            elements.iterator()
-                .next()
-                .tagName("h1");
-        }
-    }
+        // Images are replaced, or moved into new elements
+        IndexedElement.find(root)
+            .ifPresent(IndexedElement::invalidate);
 
-    /**
-     * Fixes the dependencies report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportDependencies(final Element root) {
-        root.prepend("<h1>Dependencies Report</h1>");
+        return root;
     }
 
     /**
-     * Fixes the dependency analysis report page.
+     * Applies the rules engine to the received tree, recording the operation.
      *
+     * @param engine
+     *            engine to apply
      * @param root
-     *            root element for the report page to fix
+     *            root element of the tree to transform
+     * @param operation
+     *            operation name for the metrics
+     * @return transformed element
      */
-    private final void fixReportDependencyAnalysis(final Element root) {
-        for (final Element head : root.getElementsByTag("h2")) {
-            head.tagName("h1");
+    private final Element apply(final RuleEngine engine, final Element root, final String operation) {
+        final long                     start;    // Start time
+        final Optional<IndexedElement> indexed;  // Index for the tree
+        final Optional<SplicedElement> spliced;  // Splicer for the tree
+        final Consumer<Element>        changing; // Receives the elements before changing them
+        final RuleCount                count;    // Rules matched and applied
+
+        start = System.nanoTime();
+        indexed = IndexedElement.find(root);
+        spliced = SplicedElement.find(root);
+        if (spliced.isPresent()) {
+            // The rules may replace the elements, wrap them, or unwrap their parents
+            changing = spliced.get()::changingAround;
+        } else {
+            changing = element -> {
+                // Nothing to track
+            };
         }
-
-        for (final Element head : root.getElementsByTag("h3")) {
-            head.tagName("h2");
+        if (indexed.isPresent() && (engine.getTags()
+            .size() == 1)) {
+            // Only the elements with the tag are checked
+            count = engine.applyAndMeasure(root, indexed.get()
+                .getElementsByTag(engine.getTags()
+                    .iterator()
+                    .next()), changing);
+        } else {
+            count = engine.applyAndMeasure(root, changing);
         }
-    }
 
-    /**
-     * Fixes the Failsafe report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportFailsafe(final Element root) {
-        final Collection<Element> elements; // Found elements
-        final Element             heading;  // First h2 heading
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            heading = elements.iterator()
-                .next();
-            heading.tagName("h1");
-            heading.text("Failsafe Report");
-        }
-    }
+        metrics.record(operation, count.getMatched(), count.getApplied(), System.nanoTime() - start);
 
-    /**
-     * Fixes the Findbugs report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportFindbugs(final Element root) {
-        final Collection<Element> elements; // Found elements
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            elements.iterator()
-                .next()
-                .tagName("h1");
-        }
+        return root;
     }
 
     /**
-     * Fixes the JDepend report page.
+     * Returns the default icon replacements, already built.
      *
-     * @param root
-     *            root element for the report page to fix
+     * @return the default icon replacements
      */
-    private final void fixReportJdepend(final Element root) {
-        final Collection<Element> elements; // Found elements
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            elements.iterator()
-                .next()
-                .tagName("h1");
-        }
+    private static final Map<String, Element> defaultIcons() {
+        final Map<String, Element> replacements; // Image sources and replacements
+
+        replacements = new LinkedHashMap<>();
+        replacements.put("images/add.gif", icon("fa-solid fa-plus", "Addition"));
+        replacements.put("images/remove.gif", icon("fa-solid fa-minus", "Remove"));
+        replacements.put("images/fix.gif", icon("fa-solid fa-wrench", "Fix"));
+        replacements.put("images/update.gif", icon("fa-solid fa-rotate", "Refresh"));
+        replacements.put("images/icon_help_sml.gif", icon("fa-solid fa-question", "Question"));
+        replacements.put("images/icon_success_sml.gif", labeledIcon("navbar-icon fa-solid fa-check", "Passed"));
+        replacements.put("images/icon_warning_sml.gif", icon("fa-solid fa-exclamation", "Warning"));
+        replacements.put("images/icon_error_sml.gif", labeledIcon("navbar-icon fa-solid fa-xmark", "Failed"));
+        replacements.put("images/icon_info_sml.gif", icon("fa-solid fa-info", "Info"));
+
+        return Collections.unmodifiableMap(replacements);
     }
 
     /**
-     * Fixes the License report page.
+     * Builds an icon, made of a {@code <span>} containing the icon and a text for screen readers.
      *
-     * @param root
-     *            root element for the report page to fix
+     * @param classes
+     *            classes for the icon
+     * @param text
+     *            text for screen readers
+     * @return the icon
      */
-    private final void fixReportLicense(final Element root) {
-        root.prepend("<h1>License</h1>");
-    }
+    private static final Element icon(final String classes, final String text) {
+        final Element icon; // Icon container
 
-    /**
-     * Fixes the plugin management report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportPluginManagement(final Element root) {
-        final Collection<Element> sections; // Sections in the body
-        final Element             section;  // Section element
+        icon = NodeFactory.element("span");
+        icon.appendChild(NodeFactory.element("span")
+            .attr("class", classes)
+            .attr("aria-hidden", "true"));
+        icon.appendChild(NodeFactory.element("span", text)
+            .attr("class", "sr-only"));
 
-        for (final Element head : root.getElementsByTag("h2")) {
-            head.tagName("h1");
-        }
-
-        sections = root.getElementsByTag("section");
-        if (!sections.isEmpty()) {
-            section = sections.iterator()
-                .next();
-
-            for (final Element child : section.children()) {
-                child.remove();
-                root.appendChild(child);
-            }
-
-            section.remove();
-        }
+        return icon;
     }
 
     /**
-     * Fixes the plugins report page.
+     * Builds an icon which also has the text as title and label.
      *
-     * @param root
-     *            root element for the report page to fix
+     * @param classes
+     *            classes for the icon
+     * @param text
+     *            text for screen readers, title and label
+     * @return the icon
      */
-    private final void fixReportPlugins(final Element root) {
-        root.prepend("<h1>Plugins Report</h1>");
-    }
-
-    /**
-     * Fixes the PMD report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportPmd(final Element root) {
-        final Collection<Element> elements; // Found elements
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            elements.iterator()
-                .next()
-                .tagName("h1");
-        }
-    }
+    private static final Element labeledIcon(final String classes, final String text) {
+        final Element icon; // Icon container
 
-    /**
-     * Fixes the project summary report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportProjectSummary(final Element root) {
-        for (final Element head : root.getElementsByTag("h2")) {
-            head.tagName("h1");
-        }
+        icon = icon(classes, text);
+        icon.child(0)
+            .attr("title", text)
+            .attr("aria-label", text);
 
-        for (final Element head : root.getElementsByTag("h3")) {
-            head.tagName("h2");
-        }
+        return icon;
     }
 
     /**
-     * Fixes the Surefire report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportSurefire(final Element root) {
-        final Collection<Element> elements; // Found elements
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            elements.iterator()
-                .next()
-                .tagName("h1");
-        }
-    }
-
-    /**
-     * Fixes the tag list report page.
-     *
-     * @param root
-     *            root element for the report page to fix
-     */
-    private final void fixReportTaglist(final Element root) {
-        final Collection<Element> elements; // Found elements
-
-        elements = root.getElementsByTag("h2");
-        if (!elements.isEmpty()) {
-            elements.iterator()
-                .next()
-                .tagName("h1");
-        }
-    }
-
-    /**
-     * Fixes the team list report page.
+     * Parses the received HTML into an icon template.
+     * <p>
+     * The first element in the HTML will be the template.
      *
-     * @param root
-     *            root element for the report page to fix
+     * @param html
+     *            HTML for the icon
+     * @return the icon template
      */
-    private final void fixReportTeamList(final Element root) {
-        for (final Element head : root.getElementsByTag("h2")) {
-            head.tagName("h1");
+    private static final Element parseIcon(final String html) {
+        final Element body; // Body of the parsed HTML
+        final Element icon; // Parsed icon
+
+        body = Jsoup.parseBodyFragment(html)
+            .body();
+        if (body.children()
+            .isEmpty()) {
+            throw new IllegalArgumentException("Received an icon without any element: " + html);
         }
 
-        for (final Element head : root.getElementsByTag("h3")) {
-            head.tagName("h2");
-        }
-    }
+        // The icon is detached from the parsed document
+        icon = body.child(0);
+        icon.remove();
 
-    /**
-     * Formats the received id, transforming it into a valid internal anchor id.
-     *
-     * @param id
-     *            id to transform
-     * @return a valid anchor id
-     */
-    private final String formatId(final String id) {
-        return id.trim()
-            .replaceAll(ID_HYPHEN_REGEX, "-")
-            .replaceAll(ID_REJECTED_REGEX, "");
-    }
-
-    /**
-     * Returns the result from replacing a collection of HTML elements on the received HTML code.
-     * <p>
-     * These elements are received as a {@code Map}, made up of pairs where the key is a CSS selector, and the value is
-     * the replacement for the selected element.
-     *
-     * @param root
-     *            root element for the content to modify
-     * @param replacements
-     *            {@code Map} where the key is a CSS selector and the value the element's replacement
-     */
-    private final void replaceAll(final Element root, final Map<String, String> replacements) {
-        String              selector;        // Iterated selector
-        String              replacement;     // Iterated HTML replacement
-        Element             replacementElem; // Iterated replacement
-        Collection<Element> elements;        // Selected elements
-        Element             replacementBody; // Body of the replacement
-
-        for (final Entry<String, String> replacementEntry : replacements.entrySet()) {
-            selector = replacementEntry.getKey();
-            replacement = replacementEntry.getValue();
-
-            elements = root.select(selector);
-            if (!elements.isEmpty()) {
-                // There are elements to replace
-
-                // Processes the replacement
-                replacementBody = Jsoup.parse(replacement)
-                    .body();
-                if (!replacementBody.children()
-                    .isEmpty()) {
-                    replacementElem = replacementBody.child(0);
-
-                    // Replaces the elements
-                    for (final Element element : elements) {
-                        element.replaceWith(replacementElem.clone());
-                    }
-                }
-            }
-        }
+        return icon;
     }
 
 }
@@ -0,0 +1,703 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jsoup.nodes.Attributes;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.Range;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * Serializes a parsed tree back by copying the source of the parts which didn't change.
+ * <p>
+ * This is attached to the root element, and keeps the source HTML. Before a node is changed, its state is stored:
+ * tag, attributes and children for elements, and text for the other nodes. When serializing, only the subtrees
+ * containing stored nodes are compared with their state, and those which changed are generated again. The rest are
+ * copied from the source. So the unchanged parts of a page are kept byte by byte, an unchanged page is returned as it
+ * was received, and the work done depends on the nodes changed, not on the page size.
+ * <p>
+ * The tools store the nodes they are going to change. Changes made to the tree by other means require calling
+ * {@link #changing(Node) changing} before making them, or {@link #changingSubtree(Node) changingSubtree} when they
+ * may happen anywhere inside a node. Otherwise they are lost, as the node is copied from the source.
+ * <p>
+ * This requires the tree to be parsed with position tracking from that same source. If the positions don't follow
+ * the source order, as happens when the parser has to move nodes to fix misnested HTML, the whole tree is serialized
+ * by jsoup instead.
+ * <p>
+ * This class is not thread safe, in the same way as the tree it copies.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool#parseSpliced(String)
+ */
+public final class SplicedElement {
+
+    /**
+     * Levels stored when changing the nodes around a node: the node, its parent and the parent of its parent.
+     */
+    private static final int    AROUND_LEVELS = 3;
+
+    /**
+     * Key for this in the root user data.
+     */
+    private static final String KEY           = SplicedElement.class.getName();
+
+    /**
+     * State of a node before changing it.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class State {
+
+        /**
+         * Element attributes, or {@code null} for other nodes.
+         */
+        private final Attributes attributes;
+
+        /**
+         * Element children, or {@code null} for other nodes.
+         */
+        private final Node[]     children;
+
+        /**
+         * Element tag, or text for other nodes.
+         */
+        private final String     value;
+
+        /**
+         * Constructs a node state.
+         *
+         * @param nodeValue
+         *            element tag, or text for other nodes
+         * @param nodeAttributes
+         *            element attributes
+         * @param nodeChildren
+         *            element children
+         */
+        private State(final String nodeValue, final Attributes nodeAttributes, final Node[] nodeChildren) {
+            super();
+
+            value = nodeValue;
+            attributes = nodeAttributes;
+            children = nodeChildren;
+        }
+
+    }
+
+    /**
+     * Root of the tree.
+     */
+    private final Element          root;
+
+    /**
+     * Source HTML.
+     */
+    private final String           source;
+
+    /**
+     * State of the nodes before changing them.
+     */
+    private final Map<Node, State> states = new IdentityHashMap<>();
+
+    /**
+     * Flag marking the positions follow the source order, and so the source can be copied.
+     */
+    private final boolean          valid;
+
+    /**
+     * Constructs a splicer for the tree.
+     *
+     * @param splicedRoot
+     *            root of the tree
+     * @param html
+     *            source HTML for the tree
+     */
+    private SplicedElement(final Element splicedRoot, final String html) {
+        super();
+
+        root = splicedRoot;
+        source = html;
+        valid = checkOrder(root, 0) >= 0;
+    }
+
+    /**
+     * Returns the splicer attached to the root, if there is any.
+     *
+     * @param root
+     *            root of the tree
+     * @return the splicer for the tree
+     */
+    public static final Optional<SplicedElement> find(final Element root) {
+        final Object         data;    // Data attached to the root
+        final SplicedElement spliced; // Attached splicer
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+
+        data = root.attributes()
+            .userData(KEY);
+
+        // A cloned root keeps the data from the original
+        if ((data instanceof SplicedElement) && (((SplicedElement) data).root == root)) {
+            spliced = (SplicedElement) data;
+        } else {
+            spliced = null;
+        }
+
+        return Optional.ofNullable(spliced);
+    }
+
+    /**
+     * Creates a splicer for the tree, and attaches it to the root, replacing any previous one.
+     * <p>
+     * The tree should have been parsed from the source HTML with position tracking enabled, and not changed since
+     * then.
+     *
+     * @param root
+     *            root of the tree
+     * @param source
+     *            source HTML for the tree
+     * @return the splicer for the tree
+     */
+    public static final SplicedElement of(final Element root, final String source) {
+        final SplicedElement spliced; // Splicer for the root
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+        Objects.requireNonNull(source, "Received a null pointer as source");
+
+        spliced = new SplicedElement(root, source);
+        root.attributes()
+            .userData(KEY, spliced);
+
+        return spliced;
+    }
+
+    /**
+     * Returns the state of the node.
+     *
+     * @param node
+     *            node to read
+     * @return the node state
+     */
+    private static final State capture(final Node node) {
+        final Element element; // Node as element
+        final State   state;   // Node state
+
+        if (node instanceof Element) {
+            element = (Element) node;
+            state = new State(element.tagName(), element.attributes()
+                .clone(), element.childNodes()
+                    .toArray(new Node[0]));
+        } else {
+            state = new State(leafValue(node), null, null);
+        }
+
+        return state;
+    }
+
+    /**
+     * Checks the positions in the subtree follow the source order.
+     * <p>
+     * Returns the source position after the subtree, or {@code -1} if the subtree breaks the source order.
+     *
+     * @param node
+     *            subtree root
+     * @param from
+     *            source position where the subtree can start
+     * @return the position after the subtree, or {@code -1} if it breaks the source order
+     */
+    private static final int checkOrder(final Node node, final int from) {
+        final Range      start;    // Node range, or start tag range
+        final Range      end;      // End tag range
+        final Element    element;  // Node as element
+        final List<Node> children; // Element children
+        final int        position; // Node start position
+        int              cursor;   // Position after the last checked node
+        int              i;        // Child index
+        int              tail;     // Position where the end tag can start
+
+        start = node.sourceRange();
+        if (start.isTracked() && !start.isImplicit()) {
+            position = start.startPos();
+            cursor = start.endPos();
+        } else {
+            position = -1;
+            cursor = from;
+        }
+
+        if ((position >= 0) && (position < from)) {
+            cursor = -1;
+        } else if (node instanceof Element) {
+            element = (Element) node;
+            children = element.childNodes();
+
+            i = 0;
+            while ((cursor >= 0) && (i < children.size())) {
+                cursor = checkOrder(children.get(i), cursor);
+                i++;
+            }
+
+            end = element.endSourceRange();
+            if ((cursor >= 0) && end.isTracked() && !end.isImplicit()) {
+                // Void elements have the same range for both tags, and raw text elements a range for the whole element
+                if (end.startPos() < start.endPos()) {
+                    tail = end.endPos();
+                } else {
+                    tail = end.startPos();
+                }
+                if (tail < cursor) {
+                    cursor = -1;
+                } else {
+                    cursor = end.endPos();
+                }
+            }
+        }
+
+        return cursor;
+    }
+
+    /**
+     * Checks if the element start and end tags can be copied from the source.
+     *
+     * @param element
+     *            element to check
+     * @return {@code true} if the tags are in the source, {@code false} otherwise
+     */
+    private static final boolean hasSourceTags(final Element element) {
+        final Range start; // Start tag range
+        final Range end;   // End tag range
+
+        start = element.sourceRange();
+        end = element.endSourceRange();
+
+        return isInSource(start) && isInSource(end);
+    }
+
+    /**
+     * Checks if the range points to text in the source.
+     *
+     * @param range
+     *            range to check
+     * @return {@code true} if the range is in the source, {@code false} otherwise
+     */
+    private static final boolean isInSource(final Range range) {
+        return range.isTracked() && !range.isImplicit();
+    }
+
+    /**
+     * Returns the text value of a leaf node, or {@code null} if the node has no value which can be compared.
+     *
+     * @param node
+     *            node to read
+     * @return the node value
+     */
+    private static final String leafValue(final Node node) {
+        final String value; // Node value
+
+        if (node instanceof TextNode) {
+            value = ((TextNode) node).getWholeText();
+        } else if (node instanceof DataNode) {
+            value = ((DataNode) node).getWholeData();
+        } else if (node instanceof Comment) {
+            value = ((Comment) node).getData();
+        } else {
+            value = null;
+        }
+
+        return value;
+    }
+
+    /**
+     * Stores the state of the node, which is going to change. Only the first state is kept, so this can be called
+     * several times for the same node.
+     * <p>
+     * This covers changes to the node itself: tag, attributes, text, and which are its children.
+     *
+     * @param node
+     *            node to change
+     */
+    public final void changing(final Node node) {
+        Objects.requireNonNull(node, "Received a null pointer as node");
+
+        states.computeIfAbsent(node, SplicedElement::capture);
+    }
+
+    /**
+     * Stores the state of the node, its parent and the parent of its parent, which are going to change.
+     * <p>
+     * This covers replacing, moving or wrapping the node, and unwrapping its parent.
+     *
+     * @param node
+     *            node to change
+     */
+    public final void changingAround(final Node node) {
+        Node current; // Node to store
+        int  level;   // Levels stored
+
+        Objects.requireNonNull(node, "Received a null pointer as node");
+
+        current = node;
+        level = 0;
+        while ((current != null) && (level < AROUND_LEVELS)) {
+            changing(current);
+            current = current.parentNode();
+            level++;
+        }
+    }
+
+    /**
+     * Stores the state of the node and all its descendants, for changes which may happen anywhere inside it.
+     *
+     * @param node
+     *            root of the subtree to change
+     */
+    public final void changingSubtree(final Node node) {
+        Objects.requireNonNull(node, "Received a null pointer as node");
+
+        NodeTraversor.traverse((child, depth) -> changing(child), node);
+    }
+
+    /**
+     * Indicates if any of the stored nodes changed since parsing.
+     *
+     * @return {@code true} if the tree changed, {@code false} otherwise
+     */
+    public final boolean isChanged() {
+        return !findDirty().isEmpty();
+    }
+
+    /**
+     * Returns the HTML for the contents of the root.
+     * <p>
+     * The subtrees which didn't change since parsing are copied from the source, and the rest are generated again. If
+     * nothing changed this is the source HTML for the root contents.
+     *
+     * @return the HTML for the root contents
+     */
+    public final String serialize() {
+        final Set<Node> dirty; // Nodes whose subtree changed
+        final String    html;  // Serialized HTML
+
+        if (!valid) {
+            html = root.html();
+        } else {
+            dirty = findDirty();
+            if (dirty.isEmpty()) {
+                html = source.substring(contentStart(), contentEnd());
+            } else {
+                html = write(dirty);
+            }
+        }
+
+        return html;
+    }
+
+    /**
+     * Returns the whole source HTML, with the contents of the root serialized in place.
+     * <p>
+     * This keeps the parts of the source outside the root, such as the head of a full document when the root is its
+     * body. It requires the start and end tags of the root to be in the source, and the positions to follow the
+     * source order. Otherwise nothing is returned. If nothing changed this is the source, the same instance received.
+     *
+     * @return the source HTML with the root contents serialized, if possible
+     */
+    public final Optional<String> serializeInSource() {
+        final Set<Node> dirty; // Nodes whose subtree changed
+        final String    html;  // Serialized HTML
+
+        if (valid && hasSourceTags(root)) {
+            dirty = findDirty();
+            if (dirty.isEmpty()) {
+                html = source;
+            } else {
+                html = source.substring(0, contentStart()) + write(dirty) + source.substring(contentEnd());
+            }
+        } else {
+            html = null;
+        }
+
+        return Optional.ofNullable(html);
+    }
+
+    /**
+     * Returns the source position where the root contents end.
+     *
+     * @return the end of the root contents in the source
+     */
+    private final int contentEnd() {
+        final int end; // End of the contents
+
+        if (hasSourceTags(root)) {
+            end = root.endSourceRange()
+                .startPos();
+        } else {
+            end = source.length();
+        }
+
+        return end;
+    }
+
+    /**
+     * Returns the source position where the root contents start.
+     *
+     * @return the start of the root contents in the source
+     */
+    private final int contentStart() {
+        final int start; // Start of the contents
+
+        if (hasSourceTags(root)) {
+            start = root.sourceRange()
+                .endPos();
+        } else {
+            start = 0;
+        }
+
+        return start;
+    }
+
+    /**
+     * Returns the nodes whose subtree changed since parsing. If nothing changed this is empty.
+     *
+     * @return the nodes whose subtree changed
+     */
+    private final Set<Node> findDirty() {
+        final Set<Node> touched; // Stored nodes in the tree, and their ancestors
+        final Set<Node> dirty;   // Nodes whose subtree changed
+
+        touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Node node : states.keySet()) {
+            touch(node, touched);
+        }
+        dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+        isClean(root, touched, dirty);
+
+        return dirty;
+    }
+
+    /**
+     * Checks if the subtree is the same as before the changes, storing the nodes whose subtree changed.
+     * <p>
+     * Only the touched nodes are checked, as the rest didn't change. All of them are checked, as a changed element may
+     * still contain unchanged nodes.
+     *
+     * @param node
+     *            subtree root
+     * @param touched
+     *            stored nodes in the tree, and their ancestors
+     * @param dirty
+     *            nodes whose subtree changed
+     * @return {@code true} if the subtree didn't change, {@code false} otherwise
+     */
+    private final boolean isClean(final Node node, final Set<Node> touched, final Set<Node> dirty) {
+        final State      state;    // Node state before the changes
+        final List<Node> children; // Current children
+        final Element    element;  // Node as element
+        boolean          same;     // Flag marking the subtree didn't change
+
+        if (touched.contains(node)) {
+            state = states.get(node);
+            if (node instanceof Element) {
+                element = (Element) node;
+                children = element.childNodes();
+                // The root is not serialized, so only its children matter
+                same = (state == null) || (sameNodes(children, state.children) && ((node == root) || isSameTag(element,
+                    state)));
+                for (final Node child : children) {
+                    same = isClean(child, touched, dirty) && same;
+                }
+            } else {
+                same = (state == null) || Objects.equals(state.value, leafValue(node));
+            }
+
+            if (!same) {
+                dirty.add(node);
+            }
+        } else {
+            same = true;
+        }
+
+        return same;
+    }
+
+    /**
+     * Checks if the element start tag is the same as before the changes.
+     *
+     * @param element
+     *            element to check
+     * @param state
+     *            element state before the changes, or {@code null} if it didn't change
+     * @return {@code true} if the start tag didn't change, {@code false} otherwise
+     */
+    private final boolean isSameTag(final Element element, final State state) {
+        return (state == null) || (element.tagName()
+            .equals(state.value)
+                && element.attributes()
+                    .equals(state.attributes));
+    }
+
+    /**
+     * Checks if the current children are the same nodes as the stored ones, in the same order.
+     *
+     * @param children
+     *            current children
+     * @param stored
+     *            children before the changes
+     * @return {@code true} if the children are the same, {@code false} otherwise
+     */
+    private final boolean sameNodes(final List<Node> children, final Node[] stored) {
+        boolean same; // Flag marking the children are the same
+        int     i;    // Child index
+
+        same = children.size() == stored.length;
+        i = 0;
+        while (same && (i < stored.length)) {
+            same = children.get(i) == stored[i];
+            i++;
+        }
+
+        return same;
+    }
+
+    /**
+     * Adds the node and its ancestors to the touched nodes, if the node is still in the tree.
+     *
+     * @param node
+     *            stored node
+     * @param touched
+     *            stored nodes in the tree, and their ancestors
+     */
+    private final void touch(final Node node, final Set<Node> touched) {
+        final List<Node> path;    // Node and its ancestors not touched yet
+        Node             current; // Node being checked
+
+        path = new ArrayList<>();
+        current = node;
+        while ((current != null) && (current != root) && !touched.contains(current)) {
+            path.add(current);
+            current = current.parentNode();
+        }
+
+        // Detached nodes don't reach the root
+        if (current != null) {
+            touched.addAll(path);
+            touched.add(root);
+        }
+    }
+
+    /**
+     * Returns the HTML for the contents of the root, copying from the source the parts which didn't change.
+     *
+     * @param dirty
+     *            nodes whose subtree changed
+     * @return the HTML for the root contents
+     */
+    private final String write(final Set<Node> dirty) {
+        final StringBuilder buffer;   // Output buffer
+        final List<Node>    children; // Root children
+
+        buffer = new StringBuilder(source.length() + (source.length() >> 4));
+        children = root.childNodes();
+        for (int i = 0; i < children.size(); i++) {
+            write(children.get(i), dirty, buffer);
+        }
+
+        return buffer.toString();
+    }
+
+    /**
+     * Writes the node HTML into the buffer, copying from the source the parts which didn't change.
+     *
+     * @param node
+     *            node to write
+     * @param dirty
+     *            nodes whose subtree changed
+     * @param buffer
+     *            output buffer
+     */
+    private final void write(final Node node, final Set<Node> dirty, final StringBuilder buffer) {
+        final Element    element;  // Node as element
+        final List<Node> children; // Element children
+        final Range      start;    // Node range, or start tag range
+        final Range      end;      // End tag range
+        final boolean    tags;     // Flag marking the tags are in the source
+        final boolean    copied;   // Flag marking the start tag was copied
+
+        start = node.sourceRange();
+        if (node instanceof Element) {
+            element = (Element) node;
+            end = element.endSourceRange();
+            children = element.childNodes();
+            // Reading the ranges is a map lookup, so it is done once
+            tags = isInSource(start) && isInSource(end);
+            if (tags && !dirty.contains(node)) {
+                buffer.append(source, start.startPos(), end.endPos());
+            } else if (children.isEmpty() || element.tag()
+                .isSelfClosing()) {
+                buffer.append(element.outerHtml());
+            } else {
+                // Raw text elements, such as scripts, have a range for the whole element as end range
+                copied = tags && (end.startPos() >= start.endPos())
+                        && isSameTag(element, states.get(node));
+                if (copied) {
+                    buffer.append(source, start.startPos(), start.endPos());
+                } else {
+                    buffer.append('<')
+                        .append(element.tagName())
+                        .append(element.attributes()
+                            .html())
+                        .append('>');
+                }
+
+                for (final Node child : children) {
+                    write(child, dirty, buffer);
+                }
+
+                if (copied) {
+                    buffer.append(source, end.startPos(), end.endPos());
+                } else {
+                    buffer.append("</")
+                        .append(element.tagName())
+                        .append('>');
+                }
+            }
+        } else if (isInSource(start) && !dirty.contains(node)) {
+            buffer.append(source, start.startPos(), start.endPos());
+        } else {
+            buffer.append(node.outerHtml());
+        }
+    }
+
+}
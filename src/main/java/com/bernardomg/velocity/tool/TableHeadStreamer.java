@@ -0,0 +1,349 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+/**
+ * Moves table header rows into a {@code <thead>} while the HTML is being parsed.
+ * <p>
+ * Elements are written as soon as the parser completes them, and then removed from the document. Only the start tags
+ * of the elements still open are kept pending, so memory is bounded by the open elements and the current table row,
+ * instead of the full document.
+ * <p>
+ * The header rows moved are those at the beginning of a {@code <tbody>}, before any row without {@code <th>} cells.
+ * They are all added, in order, to a single {@code <thead>}. The output is not pretty printed.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class TableHeadStreamer {
+
+    /**
+     * Elements whose start tag was written, and are still open. The deepest one is at the head.
+     */
+    private final Deque<Element> open   = new ArrayDeque<>();
+
+    /**
+     * Output for the HTML.
+     */
+    private final Writer         output;
+
+    /**
+     * Number of rows moved into a table head.
+     */
+    private int                  moved;
+
+    /**
+     * Body whose header rows are being written into an open {@code <thead>}. Null if there is no open head.
+     */
+    private Element              pendingHead;
+
+    /**
+     * Constructs a streamer writing into the received output.
+     *
+     * @param writer
+     *            output for the HTML
+     */
+    public TableHeadStreamer(final Writer writer) {
+        super();
+
+        output = Objects.requireNonNull(writer, "Received a null pointer as output");
+    }
+
+    /**
+     * Parses the HTML from the input, writing it with the updated table heads.
+     *
+     * @param input
+     *            input with the HTML to update
+     * @return the number of rows moved into a table head
+     * @throws IOException
+     *             if the input can't be read, or the output can't be written
+     */
+    public final int process(final Reader input) throws IOException {
+        final Document          document; // Document being parsed
+        final Iterator<Element> elements; // Completed elements
+        Element                 element;  // Completed element
+
+        Objects.requireNonNull(input, "Received a null pointer as input");
+
+        try (final StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(input, "");
+            document = parser.document();
+            document.outputSettings()
+                .prettyPrint(false);
+
+            elements = parser.iterator();
+            while (elements.hasNext()) {
+                element = elements.next();
+                // Detached elements were already written along with an ancestor
+                // Elements in rows which may be moved wait until the row is complete
+                if ((element.parent() != null) && !isInPendingRow(element)) {
+                    complete(element);
+                }
+            }
+
+            // Anything left open at the end of the input
+            closeHead();
+            while (!open.isEmpty()) {
+                close(open.pop());
+            }
+            writeChildren(document);
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        output.flush();
+
+        return moved;
+    }
+
+    /**
+     * Writes the remaining content and end tag of an open element, and removes it.
+     *
+     * @param element
+     *            element to close
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void close(final Element element) throws IOException {
+        writeChildren(element);
+        output.write("</");
+        output.write(element.tagName());
+        output.write('>');
+        element.remove();
+    }
+
+    /**
+     * Closes the pending {@code <thead>}, if there is any.
+     *
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void closeHead() throws IOException {
+        if (pendingHead != null) {
+            output.write("</thead>");
+            pendingHead = null;
+        }
+    }
+
+    /**
+     * Writes an element completed by the parser, and removes it from the document.
+     *
+     * @param element
+     *            completed element
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void complete(final Element element) throws IOException {
+        final Element parent; // Element parent
+
+        parent = element.parent();
+        if (element == open.peek()) {
+            closeHead();
+            close(open.pop());
+        } else if (isHeadRow(element) && !open.contains(parent)) {
+            // Header row at the beginning of the table body
+            if (pendingHead != parent) {
+                closeHead();
+                openPath(parent.parent());
+                writePreceding(parent);
+                output.write("<thead>");
+                pendingHead = parent;
+            }
+            write(element);
+            moved++;
+        } else {
+            closeHead();
+            openPath(parent);
+            write(element);
+        }
+    }
+
+    /**
+     * Indicates if the element is a header row in a table body.
+     *
+     * @param element
+     *            element to check
+     * @return {@code true} if it is a header row, {@code false} otherwise
+     */
+    private final boolean isHeadRow(final Element element) {
+        final Element body;   // Table body
+        final Element table;  // Table
+        boolean       header; // Flag marking the row has header cells
+
+        body = element.parent();
+        table = body.parent();
+        header = false;
+        if (isNamed(element, "tr") && isNamed(body, "tbody") && isNamed(table, "table")) {
+            for (final Element cell : element.children()) {
+                if (isNamed(cell, "th")) {
+                    header = true;
+                    break;
+                }
+            }
+        }
+
+        return header;
+    }
+
+    /**
+     * Indicates if the element is inside a row at the beginning of a table body, which may still be moved to the
+     * table head.
+     *
+     * @param element
+     *            element to check
+     * @return {@code true} if it is inside a pending row, {@code false} otherwise
+     */
+    private final boolean isInPendingRow(final Element element) {
+        Element ancestor; // Ancestor to check
+        boolean pending;  // Flag marking the element is in a pending row
+
+        pending = false;
+        ancestor = element.parent();
+        // Only ancestors not yet written may be pending
+        while (!pending && (ancestor != null) && !open.contains(ancestor)) {
+            pending = isNamed(ancestor, "tr") && isNamed(ancestor.parent(), "tbody")
+                    && !open.contains(ancestor.parent()) && isNamed(ancestor.parent()
+                        .parent(), "table");
+            ancestor = ancestor.parent();
+        }
+
+        return pending;
+    }
+
+    /**
+     * Indicates if the element has the received tag.
+     *
+     * @param element
+     *            element to check, may be null
+     * @param tag
+     *            expected tag
+     * @return {@code true} if the element has the tag, {@code false} otherwise
+     */
+    private final boolean isNamed(final Element element, final String tag) {
+        return (element != null) && element.normalName()
+            .equals(tag);
+    }
+
+    /**
+     * Writes the start tags of the element and all its ancestors not yet written.
+     *
+     * @param element
+     *            deepest element to open
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void openPath(final Element element) throws IOException {
+        final List<Element> path; // Elements to open, the deepest first
+        Element             current;
+
+        path = new ArrayList<>();
+        current = element;
+        while ((current != null) && !(current instanceof Document) && !open.contains(current)) {
+            path.add(current);
+            current = current.parent();
+        }
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            current = path.get(i);
+            writePreceding(current);
+            output.write('<');
+            output.write(current.tagName());
+            output.write(current.attributes()
+                .html());
+            output.write('>');
+            open.push(current);
+        }
+    }
+
+    /**
+     * Writes the element along with its preceding siblings, and removes them.
+     *
+     * @param element
+     *            element to write
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void write(final Element element) throws IOException {
+        writePreceding(element);
+        output.write(element.outerHtml());
+        element.remove();
+    }
+
+    /**
+     * Writes all the children of the node, and removes them.
+     *
+     * @param node
+     *            node with the children to write
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void writeChildren(final Node node) throws IOException {
+        Node child; // Child to write
+
+        while (node.childNodeSize() > 0) {
+            child = node.childNode(0);
+            output.write(child.outerHtml());
+            child.remove();
+        }
+    }
+
+    /**
+     * Writes the siblings before the node, and removes them.
+     *
+     * @param node
+     *            node with the siblings to write
+     * @throws IOException
+     *             if the output can't be written
+     */
+    private final void writePreceding(final Node node) throws IOException {
+        final Node parent; // Node parent
+        Node       sibling;
+
+        parent = node.parentNode();
+        sibling = parent.childNode(0);
+        while (sibling != node) {
+            output.write(sibling.outerHtml());
+            sibling.remove();
+            sibling = parent.childNode(0);
+        }
+    }
+
+}
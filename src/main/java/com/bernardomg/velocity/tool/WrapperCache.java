@@ -0,0 +1,252 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Document.QuirksMode;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.HtmlTreeBuilder;
+import org.jsoup.parser.Parser;
+
+import com.bernardomg.velocity.tool.cache.BoundedCache;
+
+/**
+ * Wraps elements with HTML wrappers which are parsed only once.
+ * <p>
+ * jsoup parses the wrapper each time an element is wrapped. Here each wrapper is parsed into a template, which is
+ * cloned for each element. As the parsing depends on the element where the wrapper is going to be inserted, the
+ * templates are kept for each context tag and quirks mode. Each template also keeps the tags of its elements, so
+ * indexes can be updated without parsing the wrapper again.
+ * <p>
+ * The wrapping replicates {@link Node#wrap(String)}, including unbalanced and nested wrappers. Documents with custom
+ * parser settings, or tracking errors or positions, are wrapped through jsoup, as the templates are parsed with the
+ * default settings.
+ * <p>
+ * This is thread safe, as the templates are only read when cloning them.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class WrapperCache {
+
+    /**
+     * Parsed wrapper.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class Template {
+
+        /**
+         * Detached container element, with the wrapper nodes as children.
+         */
+        private final Element     container;
+
+        /**
+         * Tags of the elements in the wrapper.
+         */
+        private final Set<String> tags;
+
+        /**
+         * Constructs a template.
+         *
+         * @param templateContainer
+         *            detached container element, with the wrapper nodes as children
+         */
+        private Template(final Element templateContainer) {
+            super();
+
+            final Set<String> found; // Tags of the elements in the wrapper
+
+            container = templateContainer;
+
+            found = new HashSet<>();
+            for (final Element child : container.children()) {
+                for (final Element element : child.getAllElements()) {
+                    found.add(element.normalName());
+                }
+            }
+            tags = Collections.unmodifiableSet(found);
+        }
+
+    }
+
+    /**
+     * Default maximum number of templates to cache.
+     */
+    public static final int                      DEFAULT_MAX_SIZE = 256;
+
+    /**
+     * Parsed wrappers.
+     */
+    private final BoundedCache<String, Template> templates;
+
+    /**
+     * Constructs a cache with the default maximum size.
+     */
+    public WrapperCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a cache with the received maximum size.
+     *
+     * @param maxSize
+     *            maximum number of templates to cache
+     */
+    public WrapperCache(final int maxSize) {
+        super();
+
+        templates = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * Returns the number of templates in the cache.
+     *
+     * @return the number of cached templates
+     */
+    public final int getSize() {
+        return templates.getSize();
+    }
+
+    /**
+     * Wraps the element with the wrapper HTML, and returns the tags of the elements in the wrapper.
+     * <p>
+     * The tags are not known when the wrapping is handed to jsoup, and then the result is empty.
+     *
+     * @param element
+     *            element to wrap
+     * @param wrapper
+     *            HTML to use for wrapping the element
+     * @return the tags of the elements in the wrapper, if they are known
+     */
+    public final Optional<Set<String>> wrap(final Element element, final String wrapper) {
+        final Element    context;     // Element giving the parsing context
+        final Document   document;    // Document for the element
+        final QuirksMode quirks;      // Quirks mode for the parsing
+        final Template   template;    // Parsed wrapper
+        final Element    container;   // Copy of the parsed wrapper
+        Set<String>      tags;        // Tags of the elements in the wrapper
+        final List<Node> wrapNodes;   // Nodes in the wrapper
+        final Element    wrapElement; // Wrapping element
+        Element          deepest;     // Deepest first child in the wrapper, which will receive the element
+        Node             remainder;   // Node after the wrapping element
+
+        tags = null;
+        document = element.ownerDocument();
+        if (wrapper.isEmpty() || ((document != null) && !isDefaultParser(document.parser()))) {
+            element.wrap(wrapper);
+        } else {
+            if (element.parent() == null) {
+                context = element;
+            } else {
+                context = element.parent();
+            }
+            if (document == null) {
+                quirks = QuirksMode.noQuirks;
+            } else {
+                quirks = document.quirksMode();
+            }
+
+            template = templates.get(context.normalName() + ' ' + quirks.name() + '\u0000' + wrapper,
+                key -> parse(wrapper, context.normalName(), quirks));
+            container = template.container.clone();
+            tags = template.tags;
+            wrapNodes = container.childNodes();
+            if ((!wrapNodes.isEmpty()) && (wrapNodes.get(0) instanceof Element)) {
+                wrapElement = (Element) wrapNodes.get(0);
+
+                deepest = wrapElement;
+                while (deepest.firstElementChild() != null) {
+                    deepest = deepest.firstElementChild();
+                }
+                if (element.parent() != null) {
+                    element.replaceWith(wrapElement);
+                }
+                deepest.appendChild(element);
+
+                // Same as jsoup, the list is live so each moved node shifts the remaining ones
+                for (int i = 0; i < wrapNodes.size(); i++) {
+                    remainder = wrapNodes.get(i);
+                    if (remainder != wrapElement) {
+                        remainder.remove();
+                        wrapElement.after(remainder);
+                    }
+                }
+            } else if (wrapNodes.isEmpty()) {
+                // Lets jsoup fail the same way it does for wrappers without nodes
+                element.wrap(wrapper);
+            }
+        }
+
+        return Optional.ofNullable(tags);
+    }
+
+    /**
+     * Indicates if the parser uses the default HTML settings, and so wrappers for its documents can be parsed into a
+     * template.
+     *
+     * @param parser
+     *            parser to check
+     * @return {@code true} if the parser uses the default settings, {@code false} otherwise
+     */
+    private final boolean isDefaultParser(final Parser parser) {
+        return (parser.getTreeBuilder() instanceof HtmlTreeBuilder) && !parser.isTrackErrors()
+                && !parser.isTrackPosition() && !parser.settings()
+                    .preserveTagCase()
+                && !parser.settings()
+                    .preserveAttributeCase();
+    }
+
+    /**
+     * Parses the wrapper into a template.
+     *
+     * @param wrapper
+     *            HTML to parse
+     * @param contextTag
+     *            tag for the element where the wrapper will be inserted
+     * @param quirks
+     *            quirks mode of the document
+     * @return the template for the wrapper
+     */
+    private final Template parse(final String wrapper, final String contextTag, final QuirksMode quirks) {
+        final Document document;  // Document for the context
+        final Element  container; // Container for the parsed nodes
+
+        document = new Document("");
+        document.quirksMode(quirks);
+
+        container = new Element(contextTag);
+        container.appendChildren(Parser.parseFragment(wrapper, document.appendElement(contextTag), ""));
+
+        return new Template(container);
+    }
+
+}
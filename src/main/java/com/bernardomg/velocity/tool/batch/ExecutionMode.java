@@ -0,0 +1,54 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.batch;
+
+/**
+ * How a {@link SiteProcessor} distributes the work for the pages between threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public enum ExecutionMode {
+
+    /**
+     * Each page is read, fixed and written by the same thread, in a work-stealing pool with a thread for each page
+     * processed at the same time.
+     * <p>
+     * This is the best choice for local disks, where reading and writing takes little time.
+     */
+    POOL,
+    /**
+     * Each page is read and written by its own I/O thread, while fixing it is handed to a pool with a thread for each
+     * page processed at the same time.
+     * <p>
+     * The I/O threads are virtual threads when the JVM supports them. This is meant for slow filesystems, such as
+     * network ones, where the threads spend most of their time waiting for the files, so the pages can be read and
+     * written while others are being fixed.
+     * <p>
+     * Only a few pages for each pool thread are read and waiting to be fixed at the same time, so the whole site is not
+     * kept in memory.
+     */
+    SPLIT_IO
+
+}
@@ -0,0 +1,78 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.batch;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors for the I/O work of the site processor.
+ * <p>
+ * The project is built for Java 11, so virtual threads are looked up through reflection. When they are not supported,
+ * a bounded pool of platform threads is used instead.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class IoExecutors {
+
+    /**
+     * Platform I/O threads for each CPU thread, when there are no virtual threads.
+     */
+    private static final int IO_THREADS_PER_CPU_THREAD = 4;
+
+    /**
+     * Utilities class constructor.
+     */
+    private IoExecutors() {
+        super();
+    }
+
+    /**
+     * Returns an executor for I/O tasks.
+     * <p>
+     * If the JVM supports virtual threads, each task will run in its own virtual thread. Otherwise a fixed pool of
+     * platform threads is used.
+     *
+     * @param cpuThreads
+     *            threads used for the CPU bound work, used to size the pool of platform threads
+     * @return an executor for I/O tasks
+     */
+    public static final ExecutorService newExecutor(final int cpuThreads) {
+        ExecutorService executor; // Executor for the tasks
+
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+        } catch (final NoSuchMethodException e) {
+            executor = Executors.newFixedThreadPool(cpuThreads * IO_THREADS_PER_CPU_THREAD);
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed creating the virtual thread executor", e);
+        }
+
+        return executor;
+    }
+
+}
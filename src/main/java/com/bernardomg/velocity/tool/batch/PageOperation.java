@@ -0,0 +1,79 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.batch;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * Operation applied to each page of a site.
+ * <p>
+ * Operations can tell which texts a page needs for them to apply, so the pages without them are skipped before parsing.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@FunctionalInterface
+public interface PageOperation {
+
+    /**
+     * Applies the operation to the page.
+     *
+     * @param root
+     *            root element of the page to transform
+     * @param page
+     *            path to the page file
+     */
+    public void apply(final Element root, final Path page);
+
+    /**
+     * Returns the needles for the operation. At least one of them has to be in the raw HTML of a page for the operation
+     * to apply to it. If there are no needles, the operation may apply to any page.
+     * <p>
+     * By default there are no needles.
+     *
+     * @return the needles for the operation
+     * @see com.bernardomg.velocity.tool.NeedleScanner
+     */
+    public default Collection<String> getNeedles() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Indicates if the operation may add elements to the page, or change their tags. After such an operation is
+     * applied the needles of the following operations can't be trusted, as they were searched for in the original
+     * HTML.
+     * <p>
+     * By default this is {@code true}.
+     *
+     * @return {@code true} if the operation may add elements, {@code false} otherwise
+     */
+    public default boolean isAddingElements() {
+        return true;
+    }
+
+}
@@ -0,0 +1,291 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.batch;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.NeedleScanner;
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Creates page operations from the tools methods.
+ * <p>
+ * Operations are named after the tool methods, and receive the same arguments except for the root element. The
+ * {@code fixReport} operation takes the report id from the page file name, so {@code checkstyle.html} is fixed as the
+ * {@code checkstyle} report.
+ * <p>
+ * Each operation comes with the needles for the elements it edits, such as the subject tags of its selector, so it can
+ * be skipped for the pages without them.
+ * <p>
+ * The same tool instances are shared by all the operations created by this class.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PageOperations {
+
+    /**
+     * HTML5 update tool.
+     */
+    private final Html5UpdateTool html5UpdateTool;
+
+    /**
+     * HTML tool.
+     */
+    private final HtmlTool        htmlTool;
+
+    /**
+     * Site tool.
+     */
+    private final SiteTool        siteTool;
+
+    /**
+     * Constructs a factory with new tool instances.
+     */
+    public PageOperations() {
+        this(new HtmlTool(), new Html5UpdateTool(), new SiteTool());
+    }
+
+    /**
+     * Constructs a factory with the received tool instances.
+     *
+     * @param html
+     *            HTML tool
+     * @param html5Update
+     *            HTML5 update tool
+     * @param site
+     *            site tool
+     */
+    public PageOperations(final HtmlTool html, final Html5UpdateTool html5Update, final SiteTool site) {
+        super();
+
+        htmlTool = Objects.requireNonNull(html, "Received a null pointer as HTML tool");
+        html5UpdateTool = Objects.requireNonNull(html5Update, "Received a null pointer as HTML5 update tool");
+        siteTool = Objects.requireNonNull(site, "Received a null pointer as site tool");
+    }
+
+    /**
+     * Creates the operation with the received name, taking its arguments from the iterator.
+     *
+     * @param name
+     *            operation name
+     * @param args
+     *            arguments iterator, positioned after the operation name
+     * @return the operation
+     */
+    public final PageOperation create(final String name, final Iterator<String> args) {
+        final PageOperation      operation; // Created operation
+        final String             selector;  // CSS selector argument
+        final String             value;     // Second argument
+        final boolean            adding;    // Flag marking the operation may add elements
+        final Collection<String> needles;   // Needles for the operation
+
+        Objects.requireNonNull(name, "Received a null pointer as operation name");
+        Objects.requireNonNull(args, "Received a null pointer as arguments");
+
+        switch (name) {
+            case "addClass":
+                selector = next(args, name);
+                value = next(args, name);
+                operation = (root, page) -> htmlTool.addClass(root, selector, value);
+                adding = false;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "flatten":
+                selector = next(args, name);
+                operation = (root, page) -> htmlTool.flatten(root, selector);
+                adding = false;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "removeAttribute":
+                selector = next(args, name);
+                value = next(args, name);
+                operation = (root, page) -> htmlTool.removeAttribute(root, selector, value);
+                adding = false;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "removeClass":
+                selector = next(args, name);
+                value = next(args, name);
+                operation = (root, page) -> htmlTool.removeClass(root, selector, value);
+                adding = false;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "retag":
+                selector = next(args, name);
+                value = next(args, name);
+                operation = (root, page) -> htmlTool.retag(root, selector, value);
+                adding = true;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "swapTagWithParent":
+                selector = next(args, name);
+                operation = (root, page) -> htmlTool.swapTagWithParent(root, selector);
+                adding = true;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "unwrap":
+                selector = next(args, name);
+                operation = (root, page) -> htmlTool.unwrap(root, selector);
+                adding = false;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "wrap":
+                selector = next(args, name);
+                value = next(args, name);
+                operation = (root, page) -> htmlTool.wrap(root, selector, value);
+                adding = true;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "removePointsFromAttr":
+                selector = next(args, name);
+                value = next(args, name);
+                operation = (root, page) -> html5UpdateTool.removePointsFromAttr(root, selector, value);
+                adding = false;
+                needles = NeedleScanner.getSelectorNeedles(selector);
+                break;
+            case "updateTableHeads":
+                operation = (root, page) -> html5UpdateTool.updateTableHeads(root);
+                adding = true;
+                needles = NeedleScanner.TABLE_HEAD_NEEDLES;
+                break;
+            case "fixAnchorLinks":
+                operation = (root, page) -> siteTool.fixAnchorLinks(root);
+                adding = false;
+                needles = NeedleScanner.ANCHOR_LINK_NEEDLES;
+                break;
+            case "fixHeadingIds":
+                operation = (root, page) -> siteTool.fixHeadingIds(root);
+                adding = false;
+                needles = NeedleScanner.HEADING_NEEDLES;
+                break;
+            case "fixPage":
+                operation = (root, page) -> siteTool.fixPage(root);
+                adding = true;
+                needles = new ArrayList<>(NeedleScanner.HEADING_NEEDLES);
+                needles.addAll(NeedleScanner.ANCHOR_LINK_NEEDLES);
+                needles.addAll(NeedleScanner.IMAGE_NEEDLES);
+                break;
+            case "fixReport":
+                operation = (root, page) -> siteTool.fixReport(root, getReport(page));
+                adding = true;
+                needles = Collections.emptyList();
+                break;
+            case "transformIcons":
+                operation = (root, page) -> siteTool.transformIcons(root);
+                adding = true;
+                needles = NeedleScanner.IMAGE_NEEDLES;
+                break;
+            case "transformImagesToFigures":
+                operation = (root, page) -> siteTool.transformImagesToFigures(root);
+                adding = true;
+                needles = NeedleScanner.IMAGE_NEEDLES;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + name);
+        }
+
+        return new ScannedOperation(operation, adding, needles);
+    }
+
+    /**
+     * Parses a sequence of operations.
+     * <p>
+     * Each operation is given as its name prefixed by two hyphens, followed by its arguments. For example:
+     * {@code --fixHeadingIds --addClass table table-striped --wrap table <div class="table-responsive"></div>}.
+     *
+     * @param args
+     *            arguments with the operations
+     * @return the operations, in order
+     */
+    public final List<PageOperation> parse(final List<String> args) {
+        final List<PageOperation> operations; // Parsed operations
+        final Iterator<String>    iterator;   // Arguments iterator
+        String                    arg;        // Current argument
+
+        Objects.requireNonNull(args, "Received a null pointer as arguments");
+
+        operations = new ArrayList<>();
+        iterator = args.iterator();
+        while (iterator.hasNext()) {
+            arg = iterator.next();
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected an operation but received " + arg);
+            }
+            operations.add(create(arg.substring(2), iterator));
+        }
+
+        return operations;
+    }
+
+    /**
+     * Returns the report id for the page, taken from the file name without extension.
+     *
+     * @param page
+     *            page to get the report for
+     * @return the report id
+     */
+    private static final String getReport(final Path page) {
+        final String name;  // File name
+        final int    index; // Index of the extension
+        final String report;
+
+        name = page.getFileName()
+            .toString();
+        index = name.lastIndexOf('.');
+        if (index < 0) {
+            report = name;
+        } else {
+            report = name.substring(0, index);
+        }
+
+        return report;
+    }
+
+    /**
+     * Returns the next argument for an operation.
+     *
+     * @param args
+     *            arguments iterator
+     * @param operation
+     *            operation being parsed
+     * @return the next argument
+     */
+    private static final String next(final Iterator<String> args, final String operation) {
+        if (!args.hasNext()) {
+            throw new IllegalArgumentException("Missing argument for operation " + operation);
+        }
+
+        return args.next();
+    }
+
+}
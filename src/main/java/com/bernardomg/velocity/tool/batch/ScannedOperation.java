@@ -0,0 +1,89 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.batch;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * Page operation which declares its needles.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ScannedOperation implements PageOperation {
+
+    /**
+     * Flag marking the operation may add elements.
+     */
+    private final boolean            adding;
+
+    /**
+     * Needles for the operation.
+     */
+    private final Collection<String> needles;
+
+    /**
+     * Wrapped operation.
+     */
+    private final PageOperation      operation;
+
+    /**
+     * Constructs an operation with the received needles.
+     *
+     * @param wrapped
+     *            operation to apply
+     * @param addingElements
+     *            flag marking the operation may add elements
+     * @param operationNeedles
+     *            needles for the operation
+     */
+    public ScannedOperation(final PageOperation wrapped, final boolean addingElements,
+            final Collection<String> operationNeedles) {
+        super();
+
+        operation = wrapped;
+        adding = addingElements;
+        needles = List.copyOf(operationNeedles);
+    }
+
+    @Override
+    public final void apply(final Element root, final Path page) {
+        operation.apply(root, page);
+    }
+
+    @Override
+    public final Collection<String> getNeedles() {
+        return needles;
+    }
+
+    @Override
+    public final boolean isAddingElements() {
+        return adding;
+    }
+
+}
@@ -0,0 +1,705 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.NeedleScanner;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.SplicedElement;
+import com.bernardomg.velocity.tool.cache.PageCache;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.metrics.InMemoryToolMetrics;
+
+/**
+ * Applies page operations to all the HTML pages of a generated Maven Site.
+ * <p>
+ * Pages are processed in parallel on a work-stealing pool. Each page is parsed, transformed by all the operations in
+ * order, and written back only if its content changed. Only the elements changed by the operations are generated again,
+ * the rest of the page is copied as it was.
+ * <p>
+ * It can be used from the command line:
+ *
+ * <pre>
+ * java com.bernardomg.velocity.tool.batch.SiteProcessor target/site --fixPage --fixReport
+ * </pre>
+ * <p>
+ * Optionally, a {@link PageCache} can be used to skip fixing the pages which didn't change since the last run. The
+ * cache directory is given before the operations:
+ *
+ * <pre>
+ * java com.bernardomg.velocity.tool.batch.SiteProcessor target/site --cache target/site-cache --fixPage
+ * </pre>
+ * <p>
+ * On slow filesystems the reading and writing can be split from the fixing with {@link ExecutionMode#SPLIT_IO}, given
+ * on the command line as {@code --split-io} before the operations.
+ * <p>
+ * Pages are read and written as UTF-8, unless another charset is given, on the command line with {@code --encoding}
+ * and the charset name before the operations. This should be the {@code outputEncoding} used to generate the site.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SiteProcessor {
+
+    /**
+     * Argument for the cache directory.
+     */
+    private static final String              CACHE_ARGUMENT         = "--cache";
+
+    /**
+     * Argument for the pages charset.
+     */
+    private static final String              ENCODING_ARGUMENT      = "--encoding";
+
+    /**
+     * Version of this library, used as part of the cache keys. Empty if it is not known, such as when not running from
+     * the jar.
+     */
+    private static final String              IMPLEMENTATION_VERSION = implementationVersion();
+
+    /**
+     * Pages read and waiting to be fixed for each CPU thread, when the I/O is split from the fixing.
+     */
+    private static final int                 PAGES_PER_THREAD       = 4;
+
+    /**
+     * Parser for each thread, tracking the source positions so the unchanged parts of the pages can be copied.
+     */
+    private static final ThreadLocal<Parser> PARSERS                = ThreadLocal.withInitial(() -> Parser.htmlParser()
+        .setTrackErrors(1)
+        .setTrackPosition(true));
+
+    /**
+     * Argument for the split I/O execution mode.
+     */
+    private static final String              SPLIT_IO_ARGUMENT      = "--split-io";
+
+    /**
+     * Cache for the fixed pages. If {@code null} all the pages are fixed.
+     */
+    private final PageCache                  cache;
+
+    /**
+     * Charset for reading and writing the pages.
+     */
+    private final Charset                    charset;
+
+    /**
+     * How the work is distributed between threads.
+     */
+    private final ExecutionMode              mode;
+
+    /**
+     * Operations to apply to each page.
+     */
+    private final List<PageOperation>        operations;
+
+    /**
+     * Number of pages processed at the same time.
+     */
+    private final int                        parallelism;
+
+    /**
+     * Scanner for the needles of the operations, or {@code null} if the operations can't be skipped.
+     */
+    private final NeedleScanner              scanner;
+
+    /**
+     * Version for the operations, used as part of the cache keys.
+     */
+    private final String                     version;
+
+    /**
+     * Constructs a processor using all the available processors.
+     *
+     * @param ops
+     *            operations to apply to each page
+     */
+    public SiteProcessor(final Collection<? extends PageOperation> ops) {
+        this(ops, Runtime.getRuntime()
+            .availableProcessors());
+    }
+
+    /**
+     * Constructs a processor with the received parallelism.
+     *
+     * @param ops
+     *            operations to apply to each page
+     * @param threads
+     *            number of pages processed at the same time
+     */
+    public SiteProcessor(final Collection<? extends PageOperation> ops, final int threads) {
+        this(ops, threads, null, "", ExecutionMode.POOL, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Constructs a processor with the received parallelism, which skips fixing the pages found in the cache.
+     * <p>
+     * The version should identify the operations, and change when they change, as otherwise pages fixed by older
+     * operations will be taken from the cache. The cache keys also include the implementation version of this library,
+     * taken from its jar manifest, so upgrading it, which may change what the fixes produce, doesn't return pages
+     * fixed by the older one.
+     *
+     * @param ops
+     *            operations to apply to each page
+     * @param threads
+     *            number of pages processed at the same time
+     * @param pageCache
+     *            cache for the fixed pages
+     * @param opsVersion
+     *            version for the operations
+     */
+    public SiteProcessor(final Collection<? extends PageOperation> ops, final int threads, final PageCache pageCache,
+            final String opsVersion) {
+        this(ops, threads, Objects.requireNonNull(pageCache, "Received a null pointer as cache"), opsVersion,
+            ExecutionMode.POOL, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Constructs a processor with all the settings.
+     *
+     * @param ops
+     *            operations to apply to each page
+     * @param threads
+     *            number of pages processed at the same time
+     * @param pageCache
+     *            cache for the fixed pages, or {@code null} to fix all the pages
+     * @param opsVersion
+     *            version for the operations
+     * @param executionMode
+     *            how the work is distributed between threads
+     * @param pagesCharset
+     *            charset for reading and writing the pages
+     */
+    private SiteProcessor(final Collection<? extends PageOperation> ops, final int threads, final PageCache pageCache,
+            final String opsVersion, final ExecutionMode executionMode, final Charset pagesCharset) {
+        super();
+
+        Objects.requireNonNull(ops, "Received a null pointer as operations");
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive, but received " + threads);
+        }
+
+        operations = List.copyOf(ops);
+        parallelism = threads;
+        scanner = buildScanner(operations);
+        cache = pageCache;
+        version = Objects.requireNonNull(opsVersion, "Received a null pointer as version");
+        mode = Objects.requireNonNull(executionMode, "Received a null pointer as execution mode");
+        charset = Objects.requireNonNull(pagesCharset, "Received a null pointer as charset");
+    }
+
+    /**
+     * Processes the site in the directory received as first argument, with the operations received in the following
+     * arguments.
+     * <p>
+     * If the operations are preceded by {@code --cache} and a directory, a {@link PageCache} in that directory is used
+     * to skip the pages which didn't change, with the operations arguments as version. If they are preceded by
+     * {@code --split-io} the pages are processed with {@link ExecutionMode#SPLIT_IO}. If they are preceded by
+     * {@code --encoding} and a charset name, the pages are read and written with that charset.
+     * <p>
+     * Once the site is processed, a summary of the metrics for all the operations is printed.
+     *
+     * @param args
+     *            site directory, optionally followed by the cache directory, execution mode and charset, and then the
+     *            operations
+     * @throws IOException
+     *             if the site can't be read or written
+     * @see PageOperations#parse(List)
+     */
+    public static void main(final String[] args) throws IOException {
+        final InMemoryToolMetrics metrics;    // Metrics for the tools
+        final SelectorCache       selectors;  // Selectors shared by the tools
+        final PageOperations      operations; // Operations factory
+        final List<String>        opsArgs;    // Operations arguments
+        final int                 threads;    // Number of pages processed at the same time
+        final SiteProcessor       processor;  // Site processor
+        final int                 written;    // Number of changed pages
+        ExecutionMode             mode;       // How the work is distributed
+        Charset                   charset;    // Charset for the pages
+        Path                      cacheDir;   // Cache directory
+        int                       first;      // Index of the first operation argument
+        boolean                   valid;      // Flag marking the arguments are valid
+
+        mode = ExecutionMode.POOL;
+        charset = StandardCharsets.UTF_8;
+        cacheDir = null;
+        first = 1;
+        valid = args.length > 1;
+        while (valid && (first < args.length) && (CACHE_ARGUMENT.equals(args[first])
+                || SPLIT_IO_ARGUMENT.equals(args[first]) || ENCODING_ARGUMENT.equals(args[first]))) {
+            if (SPLIT_IO_ARGUMENT.equals(args[first])) {
+                mode = ExecutionMode.SPLIT_IO;
+                first++;
+            } else if ((first + 1 < args.length) && ENCODING_ARGUMENT.equals(args[first])) {
+                charset = Charset.forName(args[first + 1]);
+                first += 2;
+            } else if (first + 1 < args.length) {
+                cacheDir = Paths.get(args[first + 1]);
+                first += 2;
+            } else {
+                valid = false;
+            }
+        }
+        valid = valid && (first < args.length);
+
+        if (!valid) {
+            System.err.println("Usage: SiteProcessor <site directory> [--cache <cache directory>] [--split-io]"
+                    + " [--encoding <charset>] --<operation> [argument...]...");
+            System.exit(1);
+        } else {
+            metrics = new InMemoryToolMetrics();
+            selectors = new SelectorCache();
+            operations = new PageOperations(new HtmlTool(selectors, metrics), new Html5UpdateTool(selectors, metrics),
+                new SiteTool(metrics));
+            threads = Runtime.getRuntime()
+                .availableProcessors();
+            opsArgs = Arrays.asList(args)
+                .subList(first, args.length);
+            if (cacheDir == null) {
+                processor = new SiteProcessor(operations.parse(opsArgs), threads).withExecutionMode(mode)
+                    .withCharset(charset);
+                written = processor.process(Paths.get(args[0]));
+            } else {
+                try (final PageCache pageCache = new PageCache(cacheDir)) {
+                    processor = new SiteProcessor(operations.parse(opsArgs), threads, pageCache,
+                        String.join(" ", opsArgs)).withExecutionMode(mode)
+                        .withCharset(charset);
+                    written = processor.process(Paths.get(args[0]));
+                    System.out.println("Cache: " + pageCache.getHits() + " hits, " + pageCache.getMisses() + " misses");
+                }
+            }
+            System.out.println("Updated " + written + " pages");
+            System.out.print(metrics.getSummary());
+        }
+    }
+
+    /**
+     * Applies the operations to all the HTML pages in the directory, including subdirectories.
+     *
+     * @param directory
+     *            site directory
+     * @return the number of pages which were changed
+     * @throws IOException
+     *             if the site can't be read or written
+     */
+    public final int process(final Path directory) throws IOException {
+        final List<Path>              pages;       // Pages to process
+        final List<Callable<Boolean>> tasks;       // Tasks for each page
+        final ExecutorService         executor;    // Executor for the tasks
+        final ExecutorService         cpuExecutor; // Executor for fixing the pages, if split from the I/O
+        final Semaphore               inFlight;    // Permits for the pages in memory, if the I/O is split
+        final List<Future<Boolean>>   results;     // Tasks results
+        int                           written;     // Number of changed pages
+
+        Objects.requireNonNull(directory, "Received a null pointer as directory");
+
+        try (final Stream<Path> files = Files.walk(directory)) {
+            pages = files.filter(SiteProcessor::isPage)
+                .collect(Collectors.toList());
+        }
+
+        tasks = new ArrayList<>(pages.size());
+        if (mode == ExecutionMode.SPLIT_IO) {
+            cpuExecutor = new ForkJoinPool(parallelism);
+            executor = IoExecutors.newExecutor(parallelism);
+            // Otherwise with virtual threads most of the site would be read before fixing it
+            inFlight = new Semaphore(parallelism * PAGES_PER_THREAD);
+            for (final Path page : pages) {
+                tasks.add(() -> processPage(page, cpuExecutor, inFlight));
+            }
+        } else {
+            cpuExecutor = null;
+            inFlight = null;
+            executor = new ForkJoinPool(parallelism);
+            for (final Path page : pages) {
+                tasks.add(() -> processPage(page));
+            }
+        }
+
+        try {
+            results = executor.invokeAll(tasks);
+            written = 0;
+            for (final Future<Boolean> result : results) {
+                if (result.get()) {
+                    written++;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new IOException("Interrupted while processing the site", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Failed processing the site", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (cpuExecutor != null) {
+                cpuExecutor.shutdownNow();
+            }
+        }
+
+        return written;
+    }
+
+    /**
+     * Applies the operations to the HTML.
+     * <p>
+     * The HTML is scanned first for the {@link PageOperation#getNeedles() needles} of the operations, and those which
+     * can't apply are skipped. If none of them can apply, the HTML is returned without parsing it.
+     * <p>
+     * If the operations don't change the page, the HTML is returned as it was received. Otherwise, only the elements
+     * which changed are generated again, and the rest of the page is copied from the HTML, as with
+     * {@link SplicedElement}. Pages with parse errors, or written with a charset other than UTF-8, are generated again
+     * as a whole.
+     *
+     * @param html
+     *            HTML to transform
+     * @param page
+     *            path to the page, used by operations which depend on it
+     * @return the transformed HTML
+     */
+    public final String process(final String html, final Path page) {
+        final List<PageOperation> applicable; // Operations which may apply
+        final Parser              parser;     // Parser for this thread
+        final Document            document;   // Parsed page
+        final SplicedElement      spliced;    // Splicer for the page body
+        final Optional<String>    inSource;   // Page serialized in the source
+        final String              result;     // Transformed HTML
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+        Objects.requireNonNull(page, "Received a null pointer as page");
+
+        applicable = getApplicable(html);
+        if (applicable.isEmpty()) {
+            result = html;
+        } else {
+            parser = PARSERS.get();
+            // The parser keeps the errors from previous parses
+            parser.getErrors()
+                .clear();
+            document = parser.parseInput(html, "");
+            // HTML added by the operations, such as wrappers, is parsed without positions, which would be from another
+            // source
+            document.parser(Parser.htmlParser());
+            // Characters the charset can't encode are escaped
+            document.outputSettings()
+                .prettyPrint(false)
+                .charset(charset);
+            // The tools store the elements they change into the splicer
+            spliced = SplicedElement.of(document.body(), html);
+            for (final PageOperation operation : applicable) {
+                operation.apply(document.body(), page);
+            }
+
+            // Regenerated tags don't escape the characters the charset can't encode
+            if (parser.getErrors()
+                .isEmpty() && StandardCharsets.UTF_8.equals(charset)) {
+                // If nothing changed this is the received HTML
+                inSource = spliced.serializeInSource();
+            } else {
+                inSource = Optional.empty();
+            }
+
+            if (inSource.isPresent()) {
+                result = inSource.get();
+            } else if (!spliced.isChanged()) {
+                result = html;
+            } else {
+                result = document.outerHtml();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a processor with the same settings as this one, but reading and writing the pages with the received
+     * charset.
+     *
+     * @param pagesCharset
+     *            charset for reading and writing the pages
+     * @return a processor using the charset
+     */
+    public final SiteProcessor withCharset(final Charset pagesCharset) {
+        return new SiteProcessor(operations, parallelism, cache, version, mode, pagesCharset);
+    }
+
+    /**
+     * Returns a processor with the same settings as this one, but distributing the work with the received mode.
+     *
+     * @param executionMode
+     *            how the work is distributed between threads
+     * @return a processor using the execution mode
+     */
+    public final SiteProcessor withExecutionMode(final ExecutionMode executionMode) {
+        return new SiteProcessor(operations, parallelism, cache, version, executionMode, charset);
+    }
+
+    /**
+     * Builds the scanner for the needles of the operations.
+     * <p>
+     * If no operation has needles, or there are too many of them, there is no scanner, and all the operations are
+     * always applied.
+     *
+     * @param ops
+     *            operations to scan for
+     * @return the scanner for the operations, or {@code null} if they can't be skipped
+     */
+    private static final NeedleScanner buildScanner(final Collection<? extends PageOperation> ops) {
+        final Set<String>   needles; // Needles for all the operations
+        final NeedleScanner built;   // Scanner for the needles
+
+        needles = new LinkedHashSet<>();
+        for (final PageOperation operation : ops) {
+            needles.addAll(operation.getNeedles());
+        }
+
+        if (needles.isEmpty() || (needles.size() > NeedleScanner.MAX_NEEDLES)) {
+            built = null;
+        } else {
+            built = new NeedleScanner(needles);
+        }
+
+        return built;
+    }
+
+    /**
+     * Returns the implementation version of this library, from its jar manifest.
+     *
+     * @return the implementation version, or an empty string if it is not known
+     */
+    private static final String implementationVersion() {
+        return Objects.toString(SiteProcessor.class.getPackage()
+            .getImplementationVersion(), "");
+    }
+
+    /**
+     * Indicates if the path is an HTML page.
+     *
+     * @param path
+     *            path to check
+     * @return {@code true} if it is an HTML page, {@code false} otherwise
+     */
+    private static final boolean isPage(final Path path) {
+        final String name; // File name
+
+        name = path.getFileName()
+            .toString()
+            .toLowerCase(Locale.ENGLISH);
+
+        return Files.isRegularFile(path) && (name.endsWith(".html") || name.endsWith(".htm"));
+    }
+
+    /**
+     * Fixes the page, or takes it from the cache if it is there.
+     *
+     * @param source
+     *            original page
+     * @param page
+     *            path to the page
+     * @return the fixed page
+     */
+    private final String fix(final String source, final Path page) {
+        final String result; // Transformed page
+        final String key;    // Cache key for the page
+
+        if (cache == null) {
+            result = process(source, page);
+        } else {
+            // Operations such as fixReport depend on the file name, and the escaping on the charset
+            key = IMPLEMENTATION_VERSION + '\u0000' + version + '\u0000' + charset.name() + '\u0000'
+                    + page.getFileName();
+            try {
+                result = cache.get(source, key, html -> process(html, page));
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the operations which may apply to the HTML.
+     * <p>
+     * Once an operation which may add elements is applied, all the following ones are kept, as their needles may be in
+     * the added elements.
+     *
+     * @param html
+     *            HTML to scan
+     * @return the operations which may apply
+     */
+    private final List<PageOperation> getApplicable(final String html) {
+        final List<PageOperation> applicable; // Operations which may apply
+        final Set<String>         found;      // Needles found
+        Collection<String>        needed;     // Needles for the operation
+        boolean                   trusted;    // Flag marking the needles found can be trusted
+
+        if (scanner == null) {
+            applicable = operations;
+        } else {
+            found = scanner.scan(html);
+            applicable = new ArrayList<>(operations.size());
+            trusted = true;
+            for (final PageOperation operation : operations) {
+                needed = operation.getNeedles();
+                if ((!trusted) || needed.isEmpty() || !Collections.disjoint(needed, found)) {
+                    applicable.add(operation);
+                    trusted = !operation.isAddingElements();
+                }
+            }
+        }
+
+        return applicable;
+    }
+
+    /**
+     * Processes a single page, writing it back if it changed.
+     *
+     * @param page
+     *            page to process
+     * @return {@code true} if the page was changed, {@code false} otherwise
+     */
+    private final boolean processPage(final Path page) {
+        final String source; // Original page
+
+        try {
+            source = Files.readString(page, charset);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return write(page, source, fix(source, page));
+    }
+
+    /**
+     * Processes a single page, writing it back if it changed. The page is read and written by the current thread, while
+     * fixing it is handed to the received executor.
+     * <p>
+     * A permit is taken before reading the page, and released once it is written, to bound the pages kept in memory.
+     *
+     * @param page
+     *            page to process
+     * @param cpuExecutor
+     *            executor for fixing the page
+     * @param inFlight
+     *            permits for the pages in memory
+     * @return {@code true} if the page was changed, {@code false} otherwise
+     * @throws InterruptedException
+     *             if interrupted while waiting for a permit or for the page to be fixed
+     * @throws ExecutionException
+     *             if fixing the page fails
+     */
+    private final boolean processPage(final Path page, final ExecutorService cpuExecutor, final Semaphore inFlight)
+            throws InterruptedException, ExecutionException {
+        final String  source;  // Original page
+        final String  result;  // Transformed page
+        final boolean changed; // Flag marking the page changed
+
+        inFlight.acquire();
+        try {
+            try {
+                source = Files.readString(page, charset);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            try {
+                result = cpuExecutor.submit(() -> fix(source, page))
+                    .get();
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+
+            changed = write(page, source, result);
+        } finally {
+            inFlight.release();
+        }
+
+        return changed;
+    }
+
+    /**
+     * Writes the fixed page, if it changed.
+     *
+     * @param page
+     *            page to write
+     * @param source
+     *            original page
+     * @param result
+     *            fixed page
+     * @return {@code true} if the page was changed, {@code false} otherwise
+     */
+    private final boolean write(final Path page, final String source, final String result) {
+        final boolean changed; // Flag marking the page changed
+
+        changed = !source.equals(result);
+        if (changed) {
+            try {
+                Files.writeString(page, result, charset);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return changed;
+    }
+
+}
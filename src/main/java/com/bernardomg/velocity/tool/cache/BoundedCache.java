@@ -0,0 +1,286 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cache;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Thread safe cache with a maximum size, which discards the least recently used entries when it is full.
+ * <p>
+ * It keeps track of the number of hits and misses, which allows checking how effective the cache is.
+ * <p>
+ * Reading the cache doesn't take any lock, so it can be shared by many threads. Each entry keeps the tick of its last
+ * access, and once the cache goes over its maximum size a single thread evicts the least recently used entries, while
+ * the others keep working.
+ * <p>
+ * The ticks come from a clock which only advances when a value is loaded, so hits just read it, and don't write to any
+ * shared counter. This makes the recency approximate, as all the entries read between two loads are taken as equally
+ * recent, but still newer than those loaded or read before. Values are loaded outside of any lock, so two threads
+ * missing the same key at the same time may both load it, and one of the values is kept.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ * @param <K>
+ *            type of the keys
+ * @param <V>
+ *            type of the values
+ */
+public final class BoundedCache<K, V> {
+
+    /**
+     * Cached value.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     * @param <V>
+     *            type of the value
+     */
+    private static final class Entry<V> {
+
+        /**
+         * Tick of the last access.
+         */
+        private volatile long accessed;
+
+        /**
+         * Cached value.
+         */
+        private final V       value;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param cached
+         *            cached value
+         * @param tick
+         *            tick of the access
+         */
+        private Entry(final V cached, final long tick) {
+            super();
+
+            value = cached;
+            accessed = tick;
+        }
+
+    }
+
+    /**
+     * Fraction of the maximum size freed on each eviction, so evictions don't happen on every new entry.
+     */
+    private static final int                EVICTION_FRACTION = 8;
+
+    /**
+     * Cached entries.
+     */
+    private final Map<K, Entry<V>>          entries           = new ConcurrentHashMap<>();
+
+    /**
+     * Lock taken by the thread evicting entries.
+     */
+    private final ReentrantLock             evictionLock      = new ReentrantLock();
+
+    /**
+     * Number of values found in the cache.
+     */
+    private final LongAdder                 hits              = new LongAdder();
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int                       maxSize;
+
+    /**
+     * Number of values which had to be loaded.
+     */
+    private final LongAdder                 misses            = new LongAdder();
+
+    /**
+     * Clock for the access ticks, advanced on each load.
+     */
+    private final AtomicLong                ticker            = new AtomicLong();
+
+    /**
+     * Constructs a cache with the received maximum size.
+     *
+     * @param max
+     *            maximum number of entries
+     */
+    public BoundedCache(final int max) {
+        super();
+
+        if (max <= 0) {
+            throw new IllegalArgumentException("The maximum size should be positive, but received " + max);
+        }
+
+        maxSize = max;
+    }
+
+    /**
+     * Removes all the entries, and resets the hits and misses.
+     */
+    public final void clear() {
+        entries.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Returns the value for the received key, loading it if it is not in the cache.
+     *
+     * @param key
+     *            key for the value
+     * @param loader
+     *            loads the value when it is not in the cache
+     * @return the value for the key
+     */
+    public final V get(final K key, final Function<? super K, ? extends V> loader) {
+        final Entry<V> created; // Entry for the loaded value
+        final long     tick;    // Tick for the hit
+        Entry<V>       entry;   // Cached entry
+
+        Objects.requireNonNull(key, "Received a null pointer as key");
+        Objects.requireNonNull(loader, "Received a null pointer as loader");
+
+        entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            // Loads take even ticks, so they are older than the hits after them
+            created = new Entry<>(loader.apply(key), ticker.incrementAndGet() << 1);
+            entry = entries.putIfAbsent(key, created);
+            if (entry == null) {
+                entry = created;
+                evict();
+            }
+        } else {
+            hits.increment();
+            tick = (ticker.get() << 1) | 1;
+            // Hot entries are written only once between loads
+            if (entry.accessed != tick) {
+                entry.accessed = tick;
+            }
+        }
+
+        return entry.value;
+    }
+
+    /**
+     * Returns the number of times a value was found in the cache.
+     *
+     * @return the number of hits
+     */
+    public final long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return the maximum number of entries
+     */
+    public final int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of times a value had to be loaded.
+     *
+     * @return the number of misses
+     */
+    public final long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries
+     */
+    public final int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Removes the least recently used entries, until the cache is back under its maximum size.
+     * <p>
+     * Only one thread evicts at a time. If another thread is already doing it, this returns at once. The size is
+     * checked again after releasing the lock, so entries added while evicting are not left over the maximum size.
+     */
+    private final void evict() {
+        while ((entries.size() > maxSize) && evictionLock.tryLock()) {
+            try {
+                evictLeastRecentlyUsed();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used entries, leaving the cache a fraction under its maximum size.
+     * <p>
+     * Entries sharing the newest evicted tick are removed only until reaching that size.
+     */
+    private final void evictLeastRecentlyUsed() {
+        final long[]             ticks;     // Access ticks for all the entries
+        final int                target;    // Size after evicting
+        final long               threshold; // Newest tick to evict
+        final Iterator<Entry<V>> tied;      // Entries to check for the newest tick
+        int                      index;     // Index for the ticks
+
+        target = maxSize - (maxSize / EVICTION_FRACTION);
+        ticks = new long[entries.size()];
+        index = 0;
+        for (final Entry<V> entry : entries.values()) {
+            if (index < ticks.length) {
+                ticks[index] = entry.accessed;
+                index++;
+            }
+        }
+
+        if (index > target) {
+            Arrays.sort(ticks, 0, index);
+            threshold = ticks[index - target - 1];
+            // Entries accessed after taking the ticks are kept
+            entries.values()
+                .removeIf(entry -> entry.accessed < threshold);
+            tied = entries.values()
+                .iterator();
+            while ((entries.size() > target) && tied.hasNext()) {
+                if (tied.next().accessed == threshold) {
+                    tied.remove();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,919 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * On-disk cache for fixed pages, so pages which didn't change since the last build are not fixed again.
+ * <p>
+ * Entries are keyed by a SHA-256 hash of the pipeline version and the page HTML. The version should identify the fixes
+ * applied, and change each time they change, so the cached results from an older pipeline are not reused.
+ * <p>
+ * The cache directory contains a memory-mapped index file, with a fixed number of slots, and a data file for each
+ * entry. Entries are evicted when they are older than the maximum age, and the least recently used entries are evicted
+ * when the cache goes over its maximum number of entries or size. The access order is kept in memory, so finding the
+ * least recently used entry doesn't require scanning the index.
+ * <p>
+ * Removed entries leave their slots marked, so the probe sequences going through them are not broken. Once too many
+ * slots are marked, and when opening the cache, the index is compacted, inserting the entries again into a clean
+ * index.
+ * <p>
+ * This is thread safe. The index file is locked while the cache is open, so a cache directory can only be used by a
+ * single cache at a time, even from other processes.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PageCache implements Closeable {
+
+    /**
+     * Default maximum age for the entries.
+     */
+    public static final Duration DEFAULT_MAX_AGE     = Duration.ofDays(30);
+
+    /**
+     * Default maximum size for the cached pages, in bytes.
+     */
+    public static final long     DEFAULT_MAX_BYTES   = 256L * 1024 * 1024;
+
+    /**
+     * Default maximum number of entries.
+     */
+    public static final int      DEFAULT_MAX_ENTRIES = 4096;
+
+    /**
+     * Offset for the access time in a slot.
+     */
+    private static final int     ACCESSED_OFFSET     = 41;
+
+    /**
+     * Offset for the creation time in a slot.
+     */
+    private static final int     CREATED_OFFSET      = 33;
+
+    /**
+     * Extension for the data files.
+     */
+    private static final String  DATA_EXTENSION      = ".page";
+
+    /**
+     * Offset for the hash in a slot.
+     */
+    private static final int     HASH_OFFSET         = 1;
+
+    /**
+     * Size of the hashes, in bytes.
+     */
+    private static final int     HASH_SIZE           = 32;
+
+    /**
+     * Size of the index header, in bytes. It contains the magic number and the number of slots.
+     */
+    private static final int     HEADER_SIZE         = 16;
+
+    /**
+     * Characters for hexadecimal numbers.
+     */
+    private static final char[]  HEX                 = "0123456789abcdef".toCharArray();
+
+    /**
+     * Name of the index file.
+     */
+    private static final String  INDEX_FILE          = "index";
+
+    /**
+     * Magic number identifying the index file format.
+     */
+    private static final int     MAGIC               = 0x50474331;
+
+    /**
+     * Divisor for the slots which can be marked as removed. The index is compacted when more than this fraction of the
+     * slots are marked.
+     */
+    private static final int     REMOVED_DIVISOR     = 4;
+
+    /**
+     * Offset for the data size in a slot.
+     */
+    private static final int     SIZE_OFFSET         = 49;
+
+    /**
+     * Size of a slot, in bytes.
+     */
+    private static final int     SLOT_SIZE           = 64;
+
+    /**
+     * Index slots for each entry. Keeping free slots shortens the probe sequences.
+     */
+    private static final int     SLOTS_PER_ENTRY     = 2;
+
+    /**
+     * State for empty slots.
+     */
+    private static final byte    STATE_EMPTY         = 0;
+
+    /**
+     * Offset for the state in a slot.
+     */
+    private static final int     STATE_OFFSET        = 0;
+
+    /**
+     * State for slots whose entry was removed. Probing continues past them.
+     */
+    private static final byte    STATE_REMOVED       = 2;
+
+    /**
+     * State for slots with an entry.
+     */
+    private static final byte    STATE_USED          = 1;
+
+    /**
+     * Channel for the index file.
+     */
+    private final FileChannel    channel;
+
+    /**
+     * Clock for the entry times.
+     */
+    private final Clock          clock;
+
+    /**
+     * Cache directory.
+     */
+    private final Path           directory;
+
+    /**
+     * Number of entries in the cache.
+     */
+    private int                  entries;
+
+    /**
+     * Number of times a page was found in the cache.
+     */
+    private long                 hits;
+
+    /**
+     * Memory-mapped index.
+     */
+    private final MappedByteBuffer index;
+
+    /**
+     * Lock on the index file, held while the cache is open.
+     */
+    private final FileLock       lock;
+
+    /**
+     * Maximum age for the entries, in milliseconds.
+     */
+    private final long           maxAge;
+
+    /**
+     * Maximum size for the cached pages, in bytes.
+     */
+    private final long           maxBytes;
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int            maxEntries;
+
+    /**
+     * Number of times a page was not found in the cache.
+     */
+    private long                 misses;
+
+    /**
+     * Slots with entries, from the least to the most recently used.
+     */
+    private final Set<Integer>   recency             = new LinkedHashSet<>();
+
+    /**
+     * Number of slots marked as removed.
+     */
+    private int                  removed;
+
+    /**
+     * Number of slots in the index.
+     */
+    private final int            slots;
+
+    /**
+     * Size of the cached pages, in bytes.
+     */
+    private long                 totalBytes;
+
+    /**
+     * Opens the cache in the received directory, with the default limits.
+     *
+     * @param dir
+     *            cache directory
+     * @throws IOException
+     *             if the cache can't be opened
+     */
+    public PageCache(final Path dir) throws IOException {
+        this(dir, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Opens the cache in the received directory, with the received limits.
+     *
+     * @param dir
+     *            cache directory
+     * @param entriesLimit
+     *            maximum number of entries
+     * @param bytesLimit
+     *            maximum size for the cached pages, in bytes
+     * @param ageLimit
+     *            maximum age for the entries
+     * @throws IOException
+     *             if the cache can't be opened
+     */
+    public PageCache(final Path dir, final int entriesLimit, final long bytesLimit, final Duration ageLimit)
+            throws IOException {
+        this(dir, entriesLimit, bytesLimit, ageLimit, Clock.systemUTC());
+    }
+
+    /**
+     * Opens the cache in the received directory, with the received limits and clock.
+     *
+     * @param dir
+     *            cache directory
+     * @param entriesLimit
+     *            maximum number of entries
+     * @param bytesLimit
+     *            maximum size for the cached pages, in bytes
+     * @param ageLimit
+     *            maximum age for the entries
+     * @param entryClock
+     *            clock for the entry times
+     * @throws IOException
+     *             if the cache can't be opened
+     */
+    public PageCache(final Path dir, final int entriesLimit, final long bytesLimit, final Duration ageLimit,
+            final Clock entryClock) throws IOException {
+        super();
+
+        final long indexSize; // Expected index file size
+        final boolean valid;  // Flag marking the existing index can be used
+
+        directory = Objects.requireNonNull(dir, "Received a null pointer as directory");
+        clock = Objects.requireNonNull(entryClock, "Received a null pointer as clock");
+        Objects.requireNonNull(ageLimit, "Received a null pointer as maximum age");
+        if (entriesLimit < 1) {
+            throw new IllegalArgumentException("Maximum entries should be positive, but received " + entriesLimit);
+        }
+        if (bytesLimit < 1) {
+            throw new IllegalArgumentException("Maximum size should be positive, but received " + bytesLimit);
+        }
+
+        maxEntries = entriesLimit;
+        maxBytes = bytesLimit;
+        maxAge = ageLimit.toMillis();
+        slots = entriesLimit * SLOTS_PER_ENTRY;
+        indexSize = HEADER_SIZE + ((long) slots * SLOT_SIZE);
+
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        // Locked before reading the index, so another cache can't change it meanwhile
+        lock = lock(channel, directory);
+        valid = channel.size() == indexSize;
+        index = channel.map(MapMode.READ_WRITE, 0, indexSize);
+
+        if (valid && (index.getInt(0) == MAGIC) && (index.getInt(Integer.BYTES) == slots)) {
+            load();
+            if (removed > 0) {
+                compact();
+            }
+            evictOlderThan(ageLimit);
+        } else {
+            // Missing or incompatible index, the cache starts empty
+            reset();
+        }
+    }
+
+    /**
+     * Removes all the entries.
+     *
+     * @throws IOException
+     *             if the data files can't be removed
+     */
+    public final synchronized void clear() throws IOException {
+        for (final Integer slot : new ArrayList<>(recency)) {
+            remove(slot);
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public final synchronized void close() throws IOException {
+        index.force();
+        lock.release();
+        channel.close();
+    }
+
+    /**
+     * Removes the entries older than the received age.
+     *
+     * @param age
+     *            maximum age for the entries to keep
+     * @return the number of entries removed
+     * @throws IOException
+     *             if the data files can't be removed
+     */
+    public final synchronized int evictOlderThan(final Duration age) throws IOException {
+        final long limit;   // Oldest creation time to keep
+        int        evicted; // Entries removed
+
+        Objects.requireNonNull(age, "Received a null pointer as age");
+
+        limit = clock.millis() - age.toMillis();
+        evicted = 0;
+        for (final Integer slot : new ArrayList<>(recency)) {
+            if (index.getLong(offset(slot) + CREATED_OFFSET) < limit) {
+                remove(slot);
+                evicted++;
+            }
+        }
+        compactIfNeeded();
+
+        return evicted;
+    }
+
+    /**
+     * Returns the cached result for the page, or fixes and caches it if there is none.
+     *
+     * @param html
+     *            HTML for the page to fix
+     * @param version
+     *            version for the pipeline fixing the page
+     * @param fix
+     *            fixes the page, only called when it is not cached
+     * @return the fixed page
+     * @throws IOException
+     *             if the cache can't be read or written
+     */
+    public final String get(final String html, final String version, final UnaryOperator<String> fix)
+            throws IOException {
+        final byte[] hash;   // Entry key
+        String       result; // Fixed page
+
+        Objects.requireNonNull(html, "Received a null pointer as HTML");
+        Objects.requireNonNull(version, "Received a null pointer as version");
+        Objects.requireNonNull(fix, "Received a null pointer as fix");
+
+        hash = hash(version, html);
+        result = read(hash);
+        if (result == null) {
+            result = fix.apply(html);
+            write(hash, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the size of the cached pages, in bytes.
+     *
+     * @return the size of the cached pages
+     */
+    public final synchronized long getBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns the number of times a page was found in the cache.
+     *
+     * @return the number of hits
+     */
+    public final synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of times a page was not found in the cache.
+     *
+     * @return the number of misses
+     */
+    public final synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of pages in the cache.
+     *
+     * @return the number of cached pages
+     */
+    public final synchronized int getSize() {
+        return entries;
+    }
+
+    /**
+     * Inserts all the entries again into a clean index, removing the slots marked as removed.
+     * <p>
+     * The access order is kept, but the entries may end in other slots.
+     */
+    private final void compact() {
+        final List<byte[]> entrySlots; // Contents of the used slots, from the least recently used
+        final ByteBuffer   view;       // View for copying the slots
+        final byte[]       hash;       // Entry hash
+        byte[]             contents;   // Contents of a slot
+        int                slot;       // Slot for the entry
+
+        view = index.duplicate();
+        entrySlots = new ArrayList<>(recency.size());
+        for (final Integer used : recency) {
+            contents = new byte[SLOT_SIZE];
+            view.position(offset(used));
+            view.get(contents);
+            entrySlots.add(contents);
+        }
+
+        for (int position = HEADER_SIZE; position < index.capacity(); position += SLOT_SIZE) {
+            index.put(position + STATE_OFFSET, STATE_EMPTY);
+        }
+        recency.clear();
+        removed = 0;
+
+        hash = new byte[HASH_SIZE];
+        for (final byte[] entry : entrySlots) {
+            System.arraycopy(entry, HASH_OFFSET, hash, 0, HASH_SIZE);
+            slot = findFree(hash);
+            view.position(offset(slot));
+            view.put(entry);
+            recency.add(slot);
+        }
+    }
+
+    /**
+     * Compacts the index if too many slots are marked as removed.
+     */
+    private final void compactIfNeeded() {
+        if (removed > (slots / REMOVED_DIVISOR)) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the path to the data file for the hash.
+     *
+     * @param hash
+     *            entry hash
+     * @return the path to the data file
+     */
+    private final Path dataFile(final byte[] hash) {
+        final StringBuilder name; // File name
+
+        name = new StringBuilder(HASH_SIZE * 2 + DATA_EXTENSION.length());
+        for (final byte value : hash) {
+            name.append(HEX[(value >> 4) & 0xF])
+                .append(HEX[value & 0xF]);
+        }
+        name.append(DATA_EXTENSION);
+
+        return directory.resolve(name.toString());
+    }
+
+    /**
+     * Removes the least recently used entry.
+     *
+     * @param keep
+     *            slot which should not be evicted, or a negative value if any can be evicted
+     * @throws IOException
+     *             if the data file can't be removed
+     */
+    private final void evictLeastRecentlyUsed(final int keep) throws IOException {
+        final Iterator<Integer> used;   // Used slots, from the least recently used
+        int                     oldest; // Least recently used slot
+        int                     slot;   // Checked slot
+
+        used = recency.iterator();
+        oldest = -1;
+        while ((oldest < 0) && used.hasNext()) {
+            slot = used.next();
+            if (slot != keep) {
+                oldest = slot;
+            }
+        }
+
+        if (oldest >= 0) {
+            remove(oldest);
+        }
+    }
+
+    /**
+     * Returns the slot with the received hash, or a negative value if there is none.
+     *
+     * @param hash
+     *            entry hash
+     * @return the slot with the hash
+     */
+    private final int find(final byte[] hash) {
+        final int start; // First slot to probe
+        int       slot;  // Probed slot
+        int       found; // Slot found
+        byte      state; // Probed slot state
+
+        start = start(hash);
+        found = -1;
+        for (int i = 0; (found < 0) && (i < slots); i++) {
+            slot = (start + i) % slots;
+            state = getState(slot);
+            if (state == STATE_EMPTY) {
+                // End of the probe sequence
+                break;
+            } else if ((state == STATE_USED) && hasHash(slot, hash)) {
+                found = slot;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns the first free slot for the received hash.
+     *
+     * @param hash
+     *            entry hash
+     * @return a free slot
+     */
+    private final int findFree(final byte[] hash) {
+        final int start; // First slot to probe
+        int       slot;  // Probed slot
+        int       found; // Slot found
+
+        start = start(hash);
+        found = -1;
+        for (int i = 0; (found < 0) && (i < slots); i++) {
+            slot = (start + i) % slots;
+            if (getState(slot) != STATE_USED) {
+                found = slot;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns the state of the slot.
+     *
+     * @param slot
+     *            slot to check
+     * @return the slot state
+     */
+    private final byte getState(final int slot) {
+        return index.get(offset(slot) + STATE_OFFSET);
+    }
+
+    /**
+     * Returns the SHA-256 hash for the version and HTML.
+     *
+     * @param version
+     *            pipeline version
+     * @param html
+     *            page HTML
+     * @return the hash for the version and HTML
+     */
+    private final byte[] hash(final String version, final String html) {
+        final MessageDigest digest; // SHA-256 digest
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // All the Java platforms support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        // Separates the version from the HTML
+        digest.update((byte) 0);
+        digest.update(html.getBytes(StandardCharsets.UTF_8));
+
+        return digest.digest();
+    }
+
+    /**
+     * Indicates if the slot contains the received hash.
+     *
+     * @param slot
+     *            slot to check
+     * @param hash
+     *            entry hash
+     * @return {@code true} if the slot contains the hash, {@code false} otherwise
+     */
+    private final boolean hasHash(final int slot, final byte[] hash) {
+        final int offset; // Offset for the hash
+        boolean   equal;  // Flag marking the hashes are equal
+
+        offset = offset(slot) + HASH_OFFSET;
+        equal = true;
+        for (int i = 0; equal && (i < HASH_SIZE); i++) {
+            equal = index.get(offset + i) == hash[i];
+        }
+
+        return equal;
+    }
+
+    /**
+     * Loads the entry count, size and access order from an existing index.
+     */
+    private final void load() {
+        final List<Integer> used;  // Used slots
+        byte                state; // Slot state
+
+        used = new ArrayList<>();
+        entries = 0;
+        totalBytes = 0;
+        removed = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            state = getState(slot);
+            if (state == STATE_USED) {
+                entries++;
+                totalBytes += index.getLong(offset(slot) + SIZE_OFFSET);
+                used.add(slot);
+            } else if (state == STATE_REMOVED) {
+                removed++;
+            }
+        }
+
+        used.sort(Comparator.comparingLong(slot -> index.getLong(offset(slot) + ACCESSED_OFFSET)));
+        recency.clear();
+        recency.addAll(used);
+    }
+
+    /**
+     * Locks the index file, so no other cache can use it.
+     *
+     * @param channel
+     *            channel for the index file
+     * @param dir
+     *            cache directory
+     * @return the lock on the index file
+     * @throws IOException
+     *             if the index file is already locked, or it can't be locked
+     */
+    private static final FileLock lock(final FileChannel channel, final Path dir) throws IOException {
+        FileLock acquired; // Lock on the index file
+
+        try {
+            acquired = channel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            // Locked by another cache in this same process
+            acquired = null;
+        }
+
+        if (acquired == null) {
+            channel.close();
+            throw new IOException("The cache directory " + dir + " is already in use");
+        }
+
+        return acquired;
+    }
+
+    /**
+     * Returns the offset for the slot in the index.
+     *
+     * @param slot
+     *            slot to locate
+     * @return the offset for the slot
+     */
+    private final int offset(final int slot) {
+        return HEADER_SIZE + (slot * SLOT_SIZE);
+    }
+
+    /**
+     * Returns the cached page for the hash, or {@code null} if it is not cached.
+     *
+     * @param hash
+     *            entry hash
+     * @return the cached page, or {@code null} if it is not cached
+     * @throws IOException
+     *             if the cache can't be read
+     */
+    private final String read(final byte[] hash) throws IOException {
+        final int  slot;    // Slot with the hash
+        final long now;     // Current time
+        boolean    present; // Flag marking the entry exists
+        String     page;    // Cached page
+
+        synchronized (this) {
+            slot = find(hash);
+            present = slot >= 0;
+            if (present) {
+                now = clock.millis();
+                if ((now - index.getLong(offset(slot) + CREATED_OFFSET)) > maxAge) {
+                    remove(slot);
+                    compactIfNeeded();
+                    present = false;
+                } else {
+                    index.putLong(offset(slot) + ACCESSED_OFFSET, now);
+                    recency.remove(slot);
+                    recency.add(slot);
+                }
+            }
+        }
+
+        page = null;
+        if (present) {
+            try {
+                page = Files.readString(dataFile(hash), StandardCharsets.UTF_8);
+            } catch (final NoSuchFileException e) {
+                // Evicted while reading, or removed from outside
+                page = null;
+            }
+        }
+
+        synchronized (this) {
+            if (page == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+
+        return page;
+    }
+
+    /**
+     * Removes the entry in the slot, along with its data file.
+     *
+     * @param slot
+     *            slot to remove
+     * @throws IOException
+     *             if the data file can't be removed
+     */
+    private final void remove(final int slot) throws IOException {
+        final int    offset; // Offset for the slot
+        final byte[] hash;   // Entry hash
+
+        offset = offset(slot);
+        hash = new byte[HASH_SIZE];
+        for (int i = 0; i < HASH_SIZE; i++) {
+            hash[i] = index.get(offset + HASH_OFFSET + i);
+        }
+
+        Files.deleteIfExists(dataFile(hash));
+
+        index.put(offset + STATE_OFFSET, STATE_REMOVED);
+        totalBytes -= index.getLong(offset + SIZE_OFFSET);
+        entries--;
+        removed++;
+        recency.remove(slot);
+    }
+
+    /**
+     * Clears the index and removes all the data files.
+     *
+     * @throws IOException
+     *             if the data files can't be removed
+     */
+    private final void reset() throws IOException {
+        for (int position = 0; position < index.capacity(); position++) {
+            index.put(position, STATE_EMPTY);
+        }
+        index.putInt(0, MAGIC);
+        index.putInt(Integer.BYTES, slots);
+
+        // Only files named as data files are removed
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+            "????????????????????????????????????????????????????????????????" + DATA_EXTENSION)) {
+            for (final Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        entries = 0;
+        totalBytes = 0;
+        removed = 0;
+        recency.clear();
+    }
+
+    /**
+     * Returns the first slot to probe for the hash.
+     *
+     * @param hash
+     *            entry hash
+     * @return the first slot to probe
+     */
+    private final int start(final byte[] hash) {
+        final int value; // Value taken from the hash
+
+        value = ((hash[0] & 0xFF) << 24) | ((hash[1] & 0xFF) << 16) | ((hash[2] & 0xFF) << 8) | (hash[3] & 0xFF);
+
+        return Math.floorMod(value, slots);
+    }
+
+    /**
+     * Stores the page for the hash.
+     *
+     * @param hash
+     *            entry hash
+     * @param page
+     *            page to store
+     * @throws IOException
+     *             if the cache can't be written
+     */
+    private final void write(final byte[] hash, final String page) throws IOException {
+        final byte[] data;      // Page contents
+        final Path   temporary; // Temporary file for the contents
+        final long   now;       // Current time
+        int          slot;      // Slot for the entry
+        int          offset;    // Offset for the slot
+
+        data = page.getBytes(StandardCharsets.UTF_8);
+        if (data.length <= maxBytes) {
+            // The file is written fully before replacing the data file
+            temporary = Files.createTempFile(directory, "page", ".tmp");
+            try {
+                Files.write(temporary, data);
+                Files.move(temporary, dataFile(hash), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+
+            synchronized (this) {
+                slot = find(hash);
+                if (slot < 0) {
+                    while (entries >= maxEntries) {
+                        evictLeastRecentlyUsed(-1);
+                    }
+                    slot = findFree(hash);
+                    if (getState(slot) == STATE_REMOVED) {
+                        removed--;
+                    }
+                    entries++;
+                } else {
+                    totalBytes -= index.getLong(offset(slot) + SIZE_OFFSET);
+                }
+
+                now = clock.millis();
+                offset = offset(slot);
+                index.put(offset + STATE_OFFSET, STATE_USED);
+                for (int i = 0; i < HASH_SIZE; i++) {
+                    index.put(offset + HASH_OFFSET + i, hash[i]);
+                }
+                index.putLong(offset + CREATED_OFFSET, now);
+                index.putLong(offset + ACCESSED_OFFSET, now);
+                index.putLong(offset + SIZE_OFFSET, data.length);
+                totalBytes += data.length;
+                recency.remove(slot);
+                recency.add(slot);
+
+                while (totalBytes > maxBytes) {
+                    evictLeastRecentlyUsed(slot);
+                }
+                compactIfNeeded();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.cache;
+
+import java.util.Objects;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+/**
+ * Cache for compiled CSS selectors.
+ * <p>
+ * jsoup parses the CSS query into an {@link Evaluator} each time a selection is made. This cache keeps the parsed
+ * evaluators, so each selector is parsed only once.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SelectorCache {
+
+    /**
+     * Default maximum number of selectors to cache.
+     */
+    public static final int                       DEFAULT_MAX_SIZE = 256;
+
+    /**
+     * Compiled selectors.
+     */
+    private final BoundedCache<String, Evaluator> evaluators;
+
+    /**
+     * Constructs a cache with the default maximum size.
+     */
+    public SelectorCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a cache with the received maximum size.
+     *
+     * @param maxSize
+     *            maximum number of selectors to cache
+     */
+    public SelectorCache(final int maxSize) {
+        super();
+
+        evaluators = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * Returns the compiled selector.
+     *
+     * @param selector
+     *            CSS selector
+     * @return the compiled selector
+     */
+    public final Evaluator compile(final String selector) {
+        Objects.requireNonNull(selector, "Received a null pointer as selector");
+
+        return evaluators.get(selector, QueryParser::parse);
+    }
+
+    /**
+     * Returns the number of times a selector was found in the cache.
+     *
+     * @return the number of hits
+     */
+    public final long getHits() {
+        return evaluators.getHits();
+    }
+
+    /**
+     * Returns the number of times a selector had to be compiled.
+     *
+     * @return the number of misses
+     */
+    public final long getMisses() {
+        return evaluators.getMisses();
+    }
+
+    /**
+     * Returns the number of selectors in the cache.
+     *
+     * @return the number of cached selectors
+     */
+    public final int getSize() {
+        return evaluators.getSize();
+    }
+
+    /**
+     * Finds the elements matching the selector, using the cached compiled selector.
+     *
+     * @param root
+     *            root element for the selection
+     * @param selector
+     *            CSS selector
+     * @return the elements matching the selector
+     */
+    public final Elements select(final Element root, final String selector) {
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+
+        return root.select(compile(selector));
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Metrics kept in memory, so they can be read at the end of the build.
+ * <p>
+ * For example, a batch run can print them once all the pages are processed. The tools created by Velocity share a
+ * single instance when the toolbox enables it, which a skin can show through
+ * {@link com.bernardomg.velocity.tool.MetricsTool MetricsTool}.
+ * <p>
+ * This is thread safe.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class InMemoryToolMetrics implements ToolMetrics {
+
+    /**
+     * Metrics for each operation. The key is the operation name.
+     */
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public InMemoryToolMetrics() {
+        super();
+    }
+
+    /**
+     * Removes all the measures.
+     */
+    public final void clear() {
+        operations.clear();
+    }
+
+    /**
+     * Returns the metrics for the received operation.
+     *
+     * @param operation
+     *            operation name
+     * @return the metrics for the operation, or an empty optional if it was never called
+     */
+    public final Optional<OperationMetrics> getOperation(final String operation) {
+        Objects.requireNonNull(operation, "Received a null pointer as operation");
+
+        return Optional.ofNullable(operations.get(operation));
+    }
+
+    /**
+     * Returns the metrics for all the operations called, sorted by the time spent on them, from more to less.
+     *
+     * @return the metrics for all the operations
+     */
+    public final List<OperationMetrics> getOperations() {
+        final List<OperationMetrics> sorted; // Sorted metrics
+
+        sorted = new ArrayList<>(operations.values());
+        sorted.sort(Comparator.comparingLong(OperationMetrics::getNanos)
+            .reversed());
+
+        return sorted;
+    }
+
+    /**
+     * Returns a summary of the metrics, with a line for each operation, sorted by the time spent on them.
+     *
+     * @return a summary of the metrics
+     */
+    public final String getSummary() {
+        final StringBuilder summary; // Summary being built
+
+        summary = new StringBuilder();
+        for (final OperationMetrics operation : getOperations()) {
+            summary.append(operation)
+                .append(System.lineSeparator());
+        }
+
+        return summary.toString();
+    }
+
+    @Override
+    public final void record(final String operation, final int matched, final int mutated, final long nanos) {
+        operations.computeIfAbsent(operation, OperationMetrics::new)
+            .add(matched, mutated, nanos);
+    }
+
+    @Override
+    public final void record(final String operation, final long nanos) {
+        operations.computeIfAbsent(operation, OperationMetrics::new)
+            .add(nanos);
+    }
+
+}
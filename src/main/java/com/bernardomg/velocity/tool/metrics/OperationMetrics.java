@@ -0,0 +1,189 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures accumulated for a single operation.
+ * <p>
+ * This is thread safe, the measures can be added and read concurrently.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class OperationMetrics {
+
+    /**
+     * Number of calls.
+     */
+    private final LongAdder  calls   = new LongAdder();
+
+    /**
+     * Flag marking the operation selects elements, and so the elements matched and mutated are counted.
+     */
+    private volatile boolean counted;
+
+    /**
+     * Elements matched.
+     */
+    private final LongAdder  matched = new LongAdder();
+
+    /**
+     * Elements the operation was applied to.
+     */
+    private final LongAdder  mutated = new LongAdder();
+
+    /**
+     * Nanoseconds spent.
+     */
+    private final LongAdder  nanos   = new LongAdder();
+
+    /**
+     * Operation name.
+     */
+    private final String     operation;
+
+    /**
+     * Constructs the metrics for the received operation.
+     *
+     * @param name
+     *            operation name
+     */
+    public OperationMetrics(final String name) {
+        super();
+
+        operation = Objects.requireNonNull(name, "Received a null pointer as operation");
+    }
+
+    /**
+     * Adds the measures of a call.
+     *
+     * @param elementsMatched
+     *            number of elements matched
+     * @param elementsMutated
+     *            number of elements the operation was applied to
+     * @param time
+     *            nanoseconds spent
+     */
+    public final void add(final int elementsMatched, final int elementsMutated, final long time) {
+        counted = true;
+        calls.increment();
+        matched.add(elementsMatched);
+        mutated.add(elementsMutated);
+        nanos.add(time);
+    }
+
+    /**
+     * Adds the measures of a call to an operation which doesn't select elements.
+     *
+     * @param time
+     *            nanoseconds spent
+     */
+    public final void add(final long time) {
+        calls.increment();
+        nanos.add(time);
+    }
+
+    /**
+     * Returns the number of calls.
+     *
+     * @return the number of calls
+     */
+    public final long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the number of elements matched, for all the calls.
+     *
+     * @return the number of elements matched
+     */
+    public final long getMatched() {
+        return matched.sum();
+    }
+
+    /**
+     * Returns the time spent, for all the calls, in milliseconds.
+     *
+     * @return the milliseconds spent
+     */
+    public final double getMillis() {
+        return (double) getNanos() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the number of elements the operation was applied to, for all the calls.
+     *
+     * @return the number of elements mutated
+     */
+    public final long getMutated() {
+        return mutated.sum();
+    }
+
+    /**
+     * Returns the time spent, for all the calls, in nanoseconds.
+     *
+     * @return the nanoseconds spent
+     */
+    public final long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Returns the operation name.
+     *
+     * @return the operation name
+     */
+    public final String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Indicates if the operation selects elements, and so the elements matched and mutated are counted.
+     *
+     * @return {@code true} if the elements are counted, {@code false} if only the time is measured
+     */
+    public final boolean isCounted() {
+        return counted;
+    }
+
+    @Override
+    public final String toString() {
+        final String text; // Text for the measures
+
+        if (counted) {
+            text = String.format(Locale.ENGLISH, "%s: %d calls, %d matched, %d mutated, %.3f ms", operation, getCalls(),
+                getMatched(), getMutated(), getMillis());
+        } else {
+            text = String.format(Locale.ENGLISH, "%s: %d calls, %.3f ms", operation, getCalls(), getMillis());
+        }
+
+        return text;
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.metrics;
+
+/**
+ * Receives the measures for each call to a tool operation.
+ * <p>
+ * Implementations should be thread safe, as the same tools may be used by several threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface ToolMetrics {
+
+    /**
+     * Records a call to an operation.
+     *
+     * @param operation
+     *            operation name, such as {@code HtmlTool.addClass}
+     * @param matched
+     *            number of elements matched by the operation
+     * @param mutated
+     *            number of elements the operation was applied to
+     * @param nanos
+     *            nanoseconds spent on the operation
+     */
+    public void record(final String operation, final int matched, final int mutated, final long nanos);
+
+    /**
+     * Records a call to an operation which doesn't select elements, such as parsing or serializing, so only its time
+     * is measured.
+     * <p>
+     * By default this records the call with no elements matched or mutated.
+     *
+     * @param operation
+     *            operation name, such as {@code HtmlTool.parse}
+     * @param nanos
+     *            nanoseconds spent on the operation
+     */
+    public default void record(final String operation, final long nanos) {
+        record(operation, 0, 0, nanos);
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.NodeFactory;
+import com.bernardomg.velocity.tool.SplicedElement;
+
+/**
+ * Fixes reports which lack a main heading, by adding a {@code <h1>} at the beginning of the page.
+ * <p>
+ * These fixers don't use any element from the page, so they don't cause any traversal. The heading is built once, and
+ * copied into each page.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public abstract class AbstractTitleReportFixer implements ReportFixer {
+
+    /**
+     * Heading added to the reports.
+     */
+    private final Element            heading;
+
+    /**
+     * Reports fixed.
+     */
+    private final Collection<String> reports;
+
+    /**
+     * Constructs a fixer for the received reports.
+     *
+     * @param reportTitle
+     *            title for the report
+     * @param reportIds
+     *            reports fixed
+     */
+    public AbstractTitleReportFixer(final String reportTitle, final String... reportIds) {
+        super();
+
+        heading = NodeFactory.element("h1", reportTitle);
+        reports = List.of(reportIds);
+    }
+
+    @Override
+    public final int fix(final Element root, final TaggedElements elements) {
+        SplicedElement.find(root)
+            .ifPresent(spliced -> spliced.changing(root));
+        root.prependChild(heading.clone());
+
+        return 1;
+    }
+
+    @Override
+    public final Collection<String> getReports() {
+        return reports;
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return Collections.emptyList();
+    }
+
+}
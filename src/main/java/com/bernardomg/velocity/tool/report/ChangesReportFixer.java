@@ -0,0 +1,147 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.NodeFactory;
+import com.bernardomg.velocity.tool.NodeMover;
+import com.bernardomg.velocity.tool.SplicedElement;
+
+/**
+ * Fixes the changes report page.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ChangesReportFixer implements ReportFixer {
+
+    /**
+     * Reports fixed.
+     */
+    private static final Collection<String> REPORTS = List.of("changes-report");
+
+    /**
+     * Tags used by the fixer.
+     */
+    private static final Collection<String> TAGS    = List.of("h2", "h3", "section");
+
+    /**
+     * Default constructor.
+     */
+    public ChangesReportFixer() {
+        super();
+    }
+
+    @Override
+    public final int fix(final Element root, final TaggedElements elements) {
+        final Optional<SplicedElement> spliced;      // Splicer for the tree
+        final List<Element>            titles;       // h2 headings in the body
+        final List<Element>            headings;     // h3 headings in the body
+        final Element                  section;      // First section
+        Element                        heading;      // Iterated heading
+        Element                        timeElement;  // Element with the date
+        Element                        smallElement; // Element with the small date
+        String                         text;         // Heading text
+        String[]                       texts;        // Split heading text
+        int                            changed;      // Elements changed
+
+        spliced = SplicedElement.find(root);
+
+        // Sets all the h2 to h1
+        titles = elements.get("h2");
+        for (final Element head : titles) {
+            spliced.ifPresent(splicer -> splicer.changing(head));
+            head.tagName("h1");
+        }
+
+        headings = elements.get("h3");
+        changed = titles.size() + headings.size();
+        if (!headings.isEmpty()) {
+            // Sets first h3 to h2
+            spliced.ifPresent(splicer -> splicer.changing(headings.get(0)));
+            headings.get(0)
+                .tagName("h2");
+        }
+
+        // Takes the remaining h3 elements, to avoid the new h2
+        for (int i = 1; i < headings.size(); i++) {
+            heading = headings.get(i);
+            if (spliced.isPresent()) {
+                // The heading and its parent change
+                spliced.get()
+                    .changingAround(heading);
+            }
+
+            // Moves the heading id to the parent
+            heading.parent()
+                .attr("id", heading.id());
+            heading.removeAttr("id");
+
+            // Transforms the date on the heading
+            text = heading.text();
+            texts = text.split("–", 2);
+            if (texts.length == 2) {
+                timeElement = NodeFactory.element("time", texts[1].trim());
+
+                smallElement = NodeFactory.element("small");
+                smallElement.appendChild(NodeFactory.text("("));
+                smallElement.appendChild(timeElement);
+                smallElement.appendChild(NodeFactory.text(")"));
+
+                heading.text(texts[0]);
+                heading.appendChild(smallElement);
+            }
+        }
+
+        // Moves all the elements out of the sections
+        section = elements.getFirst("section");
+        if (section != null) {
+            spliced.ifPresent(splicer -> {
+                splicer.changingAround(section);
+                splicer.changing(root);
+            });
+            NodeMover.moveChildren(section, root);
+            section.remove();
+            changed++;
+        }
+
+        return changed;
+    }
+
+    @Override
+    public final Collection<String> getReports() {
+        return REPORTS;
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return TAGS;
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.SplicedElement;
+
+/**
+ * Fixes the Checkstyle report page.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class CheckstyleReportFixer implements ReportFixer {
+
+    /**
+     * Reports fixed.
+     */
+    private static final Collection<String> REPORTS = List.of("checkstyle", "checkstyle-aggregate");
+
+    /**
+     * Tags used by the fixer.
+     */
+    private static final Collection<String> TAGS    = List.of("h2", "img");
+
+    /**
+     * Default constructor.
+     */
+    public CheckstyleReportFixer() {
+        super();
+    }
+
+    @Override
+    public final int fix(final Element root, final TaggedElements elements) {
+        final Optional<SplicedElement> spliced; // Splicer for the tree
+        final Element                  heading; // First h2 heading
+        int                            changed; // Elements changed
+
+        spliced = SplicedElement.find(root);
+        changed = 0;
+
+        heading = elements.getFirst("h2");
+        if (heading != null) {
+            spliced.ifPresent(splicer -> splicer.changing(heading));
+            heading.tagName("h1");
+            changed++;
+        }
+
+        // Removes the RSS images
+        for (final Element image : elements.get("img")) {
+            if (image.hasAttr("src") && "images/rss.png".equalsIgnoreCase(image.attr("src")
+                .trim())) {
+                spliced.ifPresent(splicer -> splicer.changingAround(image));
+                image.remove();
+                changed++;
+            }
+        }
+
+        return changed;
+    }
+
+    @Override
+    public final Collection<String> getReports() {
+        return REPORTS;
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return TAGS;
+    }
+
+}
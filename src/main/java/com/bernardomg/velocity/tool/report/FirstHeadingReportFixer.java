@@ -0,0 +1,89 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.SplicedElement;
+
+/**
+ * Fixes reports which only require changing their first {@code <h2>} heading into a {@code <h1>}.
+ * <p>
+ * This applies to the CPD, Findbugs, Spotbugs, JDepend, PMD, Surefire and tag list reports.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class FirstHeadingReportFixer implements ReportFixer {
+
+    /**
+     * Reports fixed.
+     */
+    private static final Collection<String> REPORTS = List.of("cpd", "findbugs", "spotbugs", "jdepend-report", "pmd",
+        "surefire-report", "taglist");
+
+    /**
+     * Tags used by the fixer.
+     */
+    private static final Collection<String> TAGS    = List.of("h2");
+
+    /**
+     * Default constructor.
+     */
+    public FirstHeadingReportFixer() {
+        super();
+    }
+
+    @Override
+    public final int fix(final Element root, final TaggedElements elements) {
+        final Element heading; // First h2 heading
+        final int     changed; // Elements changed
+
+        heading = elements.getFirst("h2");
+        if (heading != null) {
+            SplicedElement.find(root)
+                .ifPresent(spliced -> spliced.changing(heading));
+            heading.tagName("h1");
+            changed = 1;
+        } else {
+            changed = 0;
+        }
+
+        return changed;
+    }
+
+    @Override
+    public final Collection<String> getReports() {
+        return REPORTS;
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return TAGS;
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.jsoup.nodes.Element;
+
+import com.bernardomg.velocity.tool.SplicedElement;
+
+/**
+ * Fixes reports which require raising all their headings one level, so the {@code <h2>} become {@code <h1>} and
+ * the {@code <h3>} become {@code <h2>}.
+ * <p>
+ * This applies to the dependency analysis, project summary and team list reports.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class HeadingLevelsReportFixer implements ReportFixer {
+
+    /**
+     * Reports fixed.
+     */
+    private static final Collection<String> REPORTS = List.of("dependency-analysis", "project-summary", "summary",
+        "team-list", "team");
+
+    /**
+     * Tags used by the fixer.
+     */
+    private static final Collection<String> TAGS    = List.of("h2", "h3");
+
+    /**
+     * Default constructor.
+     */
+    public HeadingLevelsReportFixer() {
+        super();
+    }
+
+    @Override
+    public final int fix(final Element root, final TaggedElements elements) {
+        final Optional<SplicedElement> spliced; // Splicer for the tree
+        final List<Element>            second;  // h2 headings
+        final List<Element>            third;   // h3 headings
+
+        spliced = SplicedElement.find(root);
+
+        second = elements.get("h2");
+        for (final Element head : second) {
+            spliced.ifPresent(splicer -> splicer.changing(head));
+            head.tagName("h1");
+        }
+
+        third = elements.get("h3");
+        for (final Element head : third) {
+            spliced.ifPresent(splicer -> splicer.changing(head));
+            head.tagName("h2");
+        }
+
+        return second.size() + third.size();
+    }
+
+    @Override
+    public final Collection<String> getReports() {
+        return REPORTS;
+    }
+
+    @Override
+    public final Collection<String> getTags() {
+        return TAGS;
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.Collection;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * Fixes the page for one or more Maven reports.
+ * <p>
+ * Fixers are loaded through the {@link java.util.ServiceLoader ServiceLoader}, and so implementations should be
+ * registered in {@code META-INF/services/com.bernardomg.velocity.tool.report.ReportFixer} and offer a public
+ * constructor without arguments.
+ * <p>
+ * Each fixer declares the tags of the elements it works with. These are collected walking the page a single time, and
+ * handed to the fixer. A fixer which declares no tags won't cause any traversal.
+ * <p>
+ * If the page was parsed for splicing, the fixer should store each node in the
+ * {@link com.bernardomg.velocity.tool.SplicedElement SplicedElement} of the root before changing it, otherwise the
+ * change is lost when serializing.
+ * <p>
+ * The same fixer instance is used for all the pages, possibly from several threads, so implementations should be
+ * stateless.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface ReportFixer {
+
+    /**
+     * Fixes the report page, and returns the number of elements it changed.
+     *
+     * @param root
+     *            root element for the report page to fix
+     * @param elements
+     *            elements in the page with the tags declared by the fixer, in document order
+     * @return the number of elements changed, added or removed
+     */
+    public int fix(final Element root, final TaggedElements elements);
+
+    /**
+     * Returns the ids of the reports this fixer applies to.
+     *
+     * @return the ids of the reports this fixer applies to
+     */
+    public Collection<String> getReports();
+
+    /**
+     * Returns the tags, in lower case, for the elements this fixer works with.
+     *
+     * @return the tags for the elements this fixer works with
+     */
+    public Collection<String> getTags();
+
+}
@@ -0,0 +1,175 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Keeps the report fixers, by report id.
+ * <p>
+ * By default all the fixers registered through the {@link ServiceLoader} are loaded, both from the thread context
+ * class loader, which is where the fixers from a skin are found, and from the class loader of this library.
+ * <p>
+ * Fixers from outside this package take precedence over the built-in ones, so a report fix can be replaced. If two
+ * fixers from outside this package apply to the same report, then the registry can't choose between them, and it is
+ * rejected.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ReportFixerRegistry {
+
+    /**
+     * Fixers by report id.
+     */
+    private final Map<String, ReportFixer> fixers = new HashMap<>();
+
+    /**
+     * Constructs a registry with all the fixers found through the {@link ServiceLoader}.
+     */
+    public ReportFixerRegistry() {
+        this(load());
+    }
+
+    /**
+     * Constructs a registry with the received fixers.
+     *
+     * @param reportFixers
+     *            fixers to register
+     */
+    public ReportFixerRegistry(final Iterable<ReportFixer> reportFixers) {
+        super();
+
+        final Map<String, ReportFixer> builtIn; // Fixers from this package, by report id
+
+        Objects.requireNonNull(reportFixers, "Received a null pointer as report fixers");
+
+        builtIn = new HashMap<>();
+        for (final ReportFixer fixer : reportFixers) {
+            for (final String report : fixer.getReports()) {
+                if (ReportFixerRegistry.class.getPackage()
+                    .equals(fixer.getClass()
+                        .getPackage())) {
+                    register(builtIn, report, fixer);
+                } else {
+                    register(fixers, report, fixer);
+                }
+            }
+        }
+
+        builtIn.forEach(fixers::putIfAbsent);
+    }
+
+    /**
+     * Loads the fixers from the thread context class loader and from the class loader of this library.
+     * <p>
+     * A fixer class found through both is loaded only once.
+     *
+     * @return all the fixers found
+     */
+    private static final List<ReportFixer> load() {
+        final List<ClassLoader> loaders; // Class loaders to search
+        final ClassLoader       context; // Thread context class loader
+        final List<ReportFixer> loaded;  // Fixers found
+        final Set<String>       names;   // Classes of the fixers found
+
+        loaders = new ArrayList<>();
+        context = Thread.currentThread()
+            .getContextClassLoader();
+        if (context != null) {
+            loaders.add(context);
+        }
+        loaders.add(ReportFixer.class.getClassLoader());
+
+        loaded = new ArrayList<>();
+        names = new HashSet<>();
+        for (final ClassLoader loader : loaders) {
+            for (final ReportFixer fixer : ServiceLoader.load(ReportFixer.class, loader)) {
+                if (names.add(fixer.getClass()
+                    .getName())) {
+                    loaded.add(fixer);
+                }
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Registers the fixer for the report, rejecting it if there is another fixer for that report.
+     *
+     * @param registered
+     *            fixers by report id
+     * @param report
+     *            report id
+     * @param fixer
+     *            fixer to register
+     */
+    private static final void register(final Map<String, ReportFixer> registered, final String report,
+            final ReportFixer fixer) {
+        final ReportFixer existing; // Fixer already registered
+
+        existing = registered.putIfAbsent(report, fixer);
+        if ((existing != null) && (existing != fixer)) {
+            throw new IllegalArgumentException(String.format("Both %s and %s fix the report %s", existing.getClass()
+                .getName(),
+                fixer.getClass()
+                    .getName(),
+                report));
+        }
+    }
+
+    /**
+     * Returns the fixer for the received report.
+     *
+     * @param report
+     *            report id
+     * @return the fixer for the report, or an empty optional if there is none
+     */
+    public final Optional<ReportFixer> get(final String report) {
+        Objects.requireNonNull(report, "Received a null pointer as report");
+
+        return Optional.ofNullable(fixers.get(report));
+    }
+
+    /**
+     * Returns the ids of all the reports with a fixer.
+     *
+     * @return the ids of all the reports with a fixer
+     */
+    public final Collection<String> getReports() {
+        return Collections.unmodifiableSet(fixers.keySet());
+    }
+
+}
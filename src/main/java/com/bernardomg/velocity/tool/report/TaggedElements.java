@@ -0,0 +1,182 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.report;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * Elements from a page, grouped by tag.
+ * <p>
+ * All the elements are collected walking the page a single time, no matter how many tags are requested. The elements
+ * for each tag are kept in document order.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class TaggedElements {
+
+    /**
+     * Elements grouped by tag.
+     */
+    private final Map<String, List<Element>> elements;
+
+    /**
+     * Constructs a group of tagged elements.
+     *
+     * @param taggedElements
+     *            elements grouped by tag
+     */
+    private TaggedElements(final Map<String, List<Element>> taggedElements) {
+        super();
+
+        elements = taggedElements;
+    }
+
+    /**
+     * Collects all the elements with the received tags.
+     * <p>
+     * If no tag is received then the tree is not traversed.
+     *
+     * @param root
+     *            root element of the tree
+     * @param tags
+     *            tags, in lower case, for the elements to collect
+     * @return the elements with the tags
+     */
+    public static final TaggedElements collect(final Element root, final Collection<String> tags) {
+        final Map<String, List<Element>> collected; // Collected elements
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+        Objects.requireNonNull(tags, "Received a null pointer as tags");
+
+        collected = new HashMap<>();
+        for (final String tag : tags) {
+            collected.put(tag, new ArrayList<>());
+        }
+
+        if (!collected.isEmpty()) {
+            NodeTraversor.traverse((node, depth) -> add(node, collected), root);
+        }
+
+        return new TaggedElements(collected);
+    }
+
+    /**
+     * Creates a group from elements already grouped by tag, such as those taken from an index.
+     *
+     * @param tagged
+     *            elements grouped by tag, in lower case, in document order
+     * @return the elements with the tags
+     */
+    public static final TaggedElements of(final Map<String, List<Element>> tagged) {
+        final Map<String, List<Element>> copied; // Copied elements
+
+        Objects.requireNonNull(tagged, "Received a null pointer as elements");
+
+        copied = new HashMap<>();
+        for (final Map.Entry<String, List<Element>> entry : tagged.entrySet()) {
+            copied.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+
+        return new TaggedElements(copied);
+    }
+
+    /**
+     * Adds the node to its tag, if it is an element and the tag was requested.
+     *
+     * @param node
+     *            node to add
+     * @param collected
+     *            elements collected until now
+     */
+    private static final void add(final Node node, final Map<String, List<Element>> collected) {
+        final List<Element> tagged; // Elements for the node tag
+
+        if (node instanceof Element) {
+            tagged = collected.get(node.normalName());
+            if (tagged != null) {
+                tagged.add((Element) node);
+            }
+        }
+    }
+
+    /**
+     * Returns all the elements with the received tag, in document order.
+     *
+     * @param tag
+     *            tag, in lower case, for the elements
+     * @return all the elements with the tag
+     */
+    public final List<Element> get(final String tag) {
+        return Collections.unmodifiableList(elements.getOrDefault(tag, Collections.emptyList()));
+    }
+
+    /**
+     * Returns the first element with the received tag, or {@code null} if there is none.
+     *
+     * @param tag
+     *            tag, in lower case, for the element
+     * @return the first element with the tag
+     */
+    public final Element getFirst(final String tag) {
+        final List<Element> tagged; // Elements with the tag
+        final Element       first;  // First element
+
+        tagged = elements.getOrDefault(tag, Collections.emptyList());
+        if (tagged.isEmpty()) {
+            first = null;
+        } else {
+            first = tagged.get(0);
+        }
+
+        return first;
+    }
+
+    /**
+     * Returns the number of elements collected, for all the tags.
+     *
+     * @return the number of elements collected
+     */
+    public final int size() {
+        int size; // Number of elements
+
+        size = 0;
+        for (final List<Element> tagged : elements.values()) {
+            size += tagged.size();
+        }
+
+        return size;
+    }
+
+}
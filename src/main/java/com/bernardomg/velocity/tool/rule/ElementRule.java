@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.rule;
+
+import java.util.Collection;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * Rule to be applied by a {@link RuleEngine}.
+ * <p>
+ * A rule is made up of a predicate, telling which elements it should be applied to, and the actions to apply on those
+ * elements. The predicate is checked while traversing the tree, before any rule has modified it.
+ * <p>
+ * Rules may also declare the tags they are interested on, which allows the engine to skip checking the predicate for
+ * elements which can never match.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public interface ElementRule {
+
+    /**
+     * Applies the rule to the received element.
+     * <p>
+     * This will be called for each element matched by the rule, following the order in the document.
+     *
+     * @param element
+     *            element to apply the rule on
+     */
+    public void apply(final Element element);
+
+    /**
+     * Returns the tags for the elements this rule may match, in lower case.
+     * <p>
+     * If it is empty, then the rule may match any element.
+     *
+     * @return the tags for the elements this rule may match
+     */
+    public Collection<String> getTags();
+
+    /**
+     * Indicates if the rule should be applied to the received element.
+     *
+     * @param element
+     *            element to check
+     * @return {@code true} if the rule should be applied to the element, {@code false} otherwise
+     */
+    public boolean matches(final Element element);
+
+    /**
+     * Applies any post processing required for an element, once the rules have been applied to all the matched
+     * elements.
+     * <p>
+     * This will be called for each element matched by the rule, following the order in the document. By default it
+     * does nothing.
+     *
+     * @param element
+     *            element to finish
+     */
+    public default void tail(final Element element) {
+        // No post processing by default
+    }
+
+}
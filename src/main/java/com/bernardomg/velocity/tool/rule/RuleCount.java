@@ -0,0 +1,80 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.rule;
+
+/**
+ * Counts for a single application of a {@link RuleEngine}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class RuleCount {
+
+    /**
+     * Times a rule was applied.
+     */
+    private final int applied;
+
+    /**
+     * Times a rule matched an element.
+     */
+    private final int matched;
+
+    /**
+     * Constructs the counts.
+     *
+     * @param matchedCount
+     *            times a rule matched an element
+     * @param appliedCount
+     *            times a rule was applied
+     */
+    public RuleCount(final int matchedCount, final int appliedCount) {
+        super();
+
+        matched = matchedCount;
+        applied = appliedCount;
+    }
+
+    /**
+     * Returns the times a rule was applied.
+     * <p>
+     * This may be lower than the matches, as rules are not applied to elements removed from the tree by the rules
+     * before them.
+     *
+     * @return the times a rule was applied
+     */
+    public final int getApplied() {
+        return applied;
+    }
+
+    /**
+     * Returns the times a rule matched an element.
+     *
+     * @return the times a rule matched an element
+     */
+    public final int getMatched() {
+        return matched;
+    }
+
+}
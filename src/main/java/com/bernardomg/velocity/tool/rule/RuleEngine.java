@@ -0,0 +1,370 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.rule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * Applies a set of rules to an HTML tree, walking it only once.
+ * <p>
+ * The process is divided into three steps:
+ * <ul>
+ * <li>The tree is traversed a single time, and each element is checked against the rules</li>
+ * <li>Each rule is applied to the elements it matched, in document order</li>
+ * <li>The tail of each rule is applied to the same elements, also in document order</li>
+ * </ul>
+ * When several rules match the same element they are applied in the order they were received. If a rule detaches an
+ * element from the tree, the remaining rules are not applied to it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class RuleEngine {
+
+    /**
+     * Rule matching an element.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    private static final class Match {
+
+        /**
+         * Matched element.
+         */
+        private final Element     element;
+
+        /**
+         * Rule matching the element.
+         */
+        private final ElementRule rule;
+
+        /**
+         * Constructs a match.
+         *
+         * @param matchedRule
+         *            rule matching the element
+         * @param matchedElement
+         *            matched element
+         */
+        private Match(final ElementRule matchedRule, final Element matchedElement) {
+            super();
+
+            rule = matchedRule;
+            element = matchedElement;
+        }
+
+    }
+
+    /**
+     * Rules which may be applied to any element.
+     */
+    private final List<ElementRule>              anyTagRules;
+
+    /**
+     * Rules to apply, grouped by tag. Each list also contains the rules for any tag, keeping the original order.
+     */
+    private final Map<String, List<ElementRule>> tagRules;
+
+    /**
+     * Constructs an engine for the received rules.
+     *
+     * @param rules
+     *            rules to apply, in order
+     */
+    public RuleEngine(final Collection<? extends ElementRule> rules) {
+        super();
+
+        Objects.requireNonNull(rules, "Received a null pointer as rules");
+
+        anyTagRules = new ArrayList<>();
+        tagRules = new HashMap<>();
+        for (final ElementRule rule : rules) {
+            if (rule.getTags()
+                .isEmpty()) {
+                anyTagRules.add(rule);
+            } else {
+                for (final String tag : rule.getTags()) {
+                    tagRules.computeIfAbsent(tag, k -> new ArrayList<>());
+                }
+            }
+        }
+
+        // Each tag receives its rules, and those for any tag, in the original order
+        for (final ElementRule rule : rules) {
+            for (final Map.Entry<String, List<ElementRule>> entry : tagRules.entrySet()) {
+                if (rule.getTags()
+                    .isEmpty()
+                        || rule.getTags()
+                            .contains(entry.getKey())) {
+                    entry.getValue()
+                        .add(rule);
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructs an engine for the received rules.
+     *
+     * @param rules
+     *            rules to apply, in order
+     */
+    public RuleEngine(final ElementRule... rules) {
+        this(List.of(rules));
+    }
+
+    /**
+     * Applies the rules to the received tree.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @return transformed element
+     */
+    public final Element apply(final Element root) {
+        applyAndCount(root);
+
+        return root;
+    }
+
+    /**
+     * Applies the rules to the received tree, and returns the number of times a rule was applied.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @return the number of times a rule was applied
+     */
+    public final int applyAndCount(final Element root) {
+        return applyAndMeasure(root).getApplied();
+    }
+
+    /**
+     * Applies the rules to the received candidates, instead of traversing the tree, and returns the number of times a
+     * rule was applied.
+     * <p>
+     * The candidates should be all the elements in the tree with the {@link #getTags() tags} for the rules, in document
+     * order, such as those taken from an index.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @param candidates
+     *            elements which may match the rules
+     * @return the number of times a rule was applied
+     */
+    public final int applyAndCount(final Element root, final Collection<Element> candidates) {
+        return applyAndMeasure(root, candidates).getApplied();
+    }
+
+    /**
+     * Applies the rules to the received tree, and returns the times a rule matched an element and was applied.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @return the counts for the rules
+     */
+    public final RuleCount applyAndMeasure(final Element root) {
+        return applyAndMeasure(root, element -> {
+            // Nothing to notify
+        });
+    }
+
+    /**
+     * Applies the rules to the received tree, and returns the times a rule matched an element and was applied.
+     * <p>
+     * Each element is received by the listener before applying a rule to it, so the changes can be tracked.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @param changing
+     *            listener receiving the elements before applying a rule to them
+     * @return the counts for the rules
+     */
+    public final RuleCount applyAndMeasure(final Element root, final Consumer<? super Element> changing) {
+        final List<Match> matches; // Elements matched by the rules
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+        Objects.requireNonNull(changing, "Received a null pointer as listener");
+
+        // Single traversal
+        matches = new ArrayList<>();
+        NodeTraversor.traverse((node, depth) -> collect(node, matches), root);
+
+        return applyMatches(root, matches, changing);
+    }
+
+    /**
+     * Applies the rules to the received candidates, instead of traversing the tree, and returns the times a rule
+     * matched an element and was applied.
+     * <p>
+     * The candidates should be all the elements in the tree with the {@link #getTags() tags} for the rules, in document
+     * order, such as those taken from an index.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @param candidates
+     *            elements which may match the rules
+     * @return the counts for the rules
+     */
+    public final RuleCount applyAndMeasure(final Element root, final Collection<Element> candidates) {
+        return applyAndMeasure(root, candidates, element -> {
+            // Nothing to notify
+        });
+    }
+
+    /**
+     * Applies the rules to the received candidates, instead of traversing the tree, and returns the times a rule
+     * matched an element and was applied.
+     * <p>
+     * The candidates should be all the elements in the tree with the {@link #getTags() tags} for the rules, in document
+     * order, such as those taken from an index. Each element is received by the listener before applying a rule to it,
+     * so the changes can be tracked.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @param candidates
+     *            elements which may match the rules
+     * @param changing
+     *            listener receiving the elements before applying a rule to them
+     * @return the counts for the rules
+     */
+    public final RuleCount applyAndMeasure(final Element root, final Collection<Element> candidates,
+            final Consumer<? super Element> changing) {
+        final List<Match> matches; // Elements matched by the rules
+
+        Objects.requireNonNull(root, "Received a null pointer as root element");
+        Objects.requireNonNull(candidates, "Received a null pointer as candidates");
+        Objects.requireNonNull(changing, "Received a null pointer as listener");
+
+        matches = new ArrayList<>();
+        for (final Element candidate : candidates) {
+            collect(candidate, matches);
+        }
+
+        return applyMatches(root, matches, changing);
+    }
+
+    /**
+     * Returns the tags for the elements the rules may match.
+     * <p>
+     * If it is empty, then the rules may match any element.
+     *
+     * @return the tags for the elements the rules may match
+     */
+    public final Set<String> getTags() {
+        final Set<String> tags; // Tags for the rules
+
+        if (anyTagRules.isEmpty()) {
+            tags = Collections.unmodifiableSet(tagRules.keySet());
+        } else {
+            tags = Collections.emptySet();
+        }
+
+        return tags;
+    }
+
+    /**
+     * Applies the rules to the elements they matched, and returns the counts for them.
+     *
+     * @param root
+     *            root element of the tree to transform
+     * @param matches
+     *            elements matched by the rules
+     * @param changing
+     *            listener receiving the elements before applying a rule to them
+     * @return the counts for the rules
+     */
+    private final RuleCount applyMatches(final Element root, final List<Match> matches,
+            final Consumer<? super Element> changing) {
+        int applied; // Number of rules applied
+
+        applied = 0;
+        for (final Match match : matches) {
+            if (isAttached(root, match.element)) {
+                changing.accept(match.element);
+                match.rule.apply(match.element);
+                applied++;
+            }
+        }
+
+        for (final Match match : matches) {
+            if (isAttached(root, match.element)) {
+                match.rule.tail(match.element);
+            }
+        }
+
+        return new RuleCount(matches.size(), applied);
+    }
+
+    /**
+     * Stores the rules matching the received node, if it is an element.
+     *
+     * @param node
+     *            visited node
+     * @param matches
+     *            matches found until now
+     */
+    private final void collect(final Node node, final List<Match> matches) {
+        final Element     element; // Visited element
+        List<ElementRule> rules;   // Rules which may match the element
+
+        if (node instanceof Element) {
+            element = (Element) node;
+            rules = tagRules.get(element.normalName());
+            if (rules == null) {
+                rules = anyTagRules;
+            }
+
+            for (final ElementRule rule : rules) {
+                if (rule.matches(element)) {
+                    matches.add(new Match(rule, element));
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates if the element is still attached to the tree.
+     *
+     * @param root
+     *            root element of the tree
+     * @param element
+     *            element to check
+     * @return {@code true} if the element is still in the tree, {@code false} otherwise
+     */
+    private final boolean isAttached(final Element root, final Element element) {
+        return (element == root) || (element.parent() != null);
+    }
+
+}
@@ -0,0 +1,301 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.batch.ExecutionMode;
+import com.bernardomg.velocity.tool.batch.PageOperations;
+import com.bernardomg.velocity.tool.batch.SiteProcessor;
+import com.bernardomg.velocity.tool.cache.PageCache;
+
+/**
+ * Unit tests for {@link SiteProcessor}, testing the {@code process} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteProcessor
+ */
+@DisplayName("SiteProcessor.process")
+public final class TestSiteProcessorProcess {
+
+    /**
+     * Temporary site directory.
+     */
+    @TempDir
+    public Path site;
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteProcessorProcess() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Pages found in the cache are taken from it")
+    public final void testProcess_Cache() throws IOException {
+        final SiteProcessor processor; // Tested processor
+        final Path          page;      // Page to fix
+        final Path          cacheDir;  // Cache directory
+        final String        source;    // Original page
+
+        cacheDir = Files.createDirectories(site.resolve("cache"));
+        page = site.resolve("index.html");
+        source = "<html><head></head><body><h1>A heading</h1></body></html>";
+        Files.writeString(page, source);
+
+        try (final PageCache cache = new PageCache(cacheDir)) {
+            processor = new SiteProcessor(new PageOperations().parse(List.of("--fixHeadingIds")), 1, cache, "v1");
+            processor.process(site);
+
+            // The site is generated again
+            Files.writeString(page, source);
+            processor.process(site);
+
+            Assertions.assertEquals(1, cache.getHits());
+            Assertions.assertEquals(1, cache.getMisses());
+        }
+
+        Assertions.assertEquals("<html><head></head><body><h1 id=\"A-heading\">A heading</h1></body></html>",
+            Files.readString(page, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("All the pages, including those in subdirectories, are transformed")
+    public final void testProcess_Directory() throws IOException {
+        final SiteProcessor processor; // Tested processor
+        final Path          index;     // Root page
+        final Path          nested;    // Page in a subdirectory
+        final Path          other;     // File which is not a page
+        final int           written;
+
+        index = site.resolve("index.html");
+        nested = Files.createDirectories(site.resolve("sub"))
+            .resolve("page.html");
+        other = site.resolve("style.css");
+        Files.writeString(index, "<html><head></head><body><h1>A heading</h1></body></html>");
+        Files.writeString(nested, "<html><head></head><body><h2>Sub_heading</h2></body></html>");
+        Files.writeString(other, "h1 { color: red; }");
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--fixHeadingIds")), 2);
+        written = processor.process(site);
+
+        Assertions.assertEquals(2, written);
+        Assertions.assertEquals("<html><head></head><body><h1 id=\"A-heading\">A heading</h1></body></html>",
+            Files.readString(index, StandardCharsets.UTF_8));
+        Assertions.assertEquals("<html><head></head><body><h2 id=\"Sub-heading\">Sub_heading</h2></body></html>",
+            Files.readString(nested, StandardCharsets.UTF_8));
+        Assertions.assertEquals("h1 { color: red; }", Files.readString(other, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Pages are read and written with the received charset")
+    public final void testProcess_Encoding() throws IOException {
+        final SiteProcessor processor; // Tested processor
+        final Path          page;      // Page to fix
+
+        page = site.resolve("index.html");
+        Files.writeString(page, "<html><head></head><body><p>Caf\u00e9</p><h1>A heading</h1></body></html>",
+            StandardCharsets.ISO_8859_1);
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--fixHeadingIds")), 1)
+            .withCharset(StandardCharsets.ISO_8859_1);
+        processor.process(site);
+
+        Assertions.assertEquals(
+            "<html><head></head><body><p>Caf\u00e9</p><h1 id=\"A-heading\">A heading</h1></body></html>",
+            Files.readString(page, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    @DisplayName("Reports are fixed according to the page name")
+    public final void testProcess_FixReport() throws IOException {
+        final SiteProcessor processor; // Tested processor
+        final Path          page;      // Report page
+
+        page = site.resolve("dependencies.html");
+        Files.writeString(page, "<html><head></head><body><section><h2>Header</h2></section></body></html>");
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--fixReport")));
+        processor.process(site);
+
+        Assertions.assertTrue(Files.readString(page, StandardCharsets.UTF_8)
+            .contains("<h1>Dependencies Report</h1>"));
+    }
+
+    @Test
+    @DisplayName("Operations on tags which the parser adds are not skipped")
+    public final void testProcess_ImpliedTag() {
+        final SiteProcessor processor; // Tested processor
+        final String        result;
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--addClass", "tbody", "x")), 1);
+        result = processor.process("<table><tr><td>a</td></tr></table>", site.resolve("a.html"));
+
+        Assertions.assertTrue(result.contains("<tbody class=\"x\">"), result);
+    }
+
+    @Test
+    @DisplayName("Operations are applied to the elements added by the operations before them")
+    public final void testProcess_NeedlesAdded() {
+        final SiteProcessor processor; // Tested processor
+        final String        result;
+
+        processor = new SiteProcessor(new PageOperations()
+            .parse(List.of("--wrap", "p", "<div></div>", "--addClass", "div", "wrapper")));
+        result = processor.process("<html><head></head><body><p>Text</p></body></html>", site.resolve("a.html"));
+
+        Assertions.assertEquals("<html><head></head><body><div class=\"wrapper\"><p>Text</p></div></body></html>",
+            result);
+    }
+
+    @Test
+    @DisplayName("Pages without the needles of any operation are not parsed")
+    public final void testProcess_NeedlesNotFound() {
+        final SiteProcessor processor; // Tested processor
+        final String        html;      // Page without tables or images
+        final String        result;
+
+        processor = new SiteProcessor(new PageOperations()
+            .parse(List.of("--updateTableHeads", "--transformImagesToFigures", "--addClass", "table", "table")));
+        html = "<HTML><body><p>Text</body>";
+        result = processor.process(html, site.resolve("a.html"));
+
+        // Parsing would have normalized the HTML
+        Assertions.assertSame(html, result);
+    }
+
+    @Test
+    @DisplayName("Operations with arguments are applied in order")
+    public final void testProcess_Operations() {
+        final SiteProcessor processor; // Tested processor
+        final String        result;
+
+        processor = new SiteProcessor(new PageOperations().parse(
+            List.of("--addClass", "table", "table-striped", "--wrap", "table", "<div class=\"responsive\"></div>")));
+        result = processor.process("<html><head></head><body><table></table></body></html>", site.resolve("a.html"));
+
+        Assertions.assertEquals(
+            "<html><head></head><body><div class=\"responsive\"><table class=\"table-striped\"></table></div></body></html>",
+            result);
+    }
+
+    @Test
+    @DisplayName("Only the changed elements of a page are generated again")
+    public final void testProcess_Spliced() {
+        final SiteProcessor processor; // Tested processor
+        final String        html;      // Page to fix
+        final String        result;
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--addClass", "table", "t")), 1);
+        html = "<!DOCTYPE html>\n<HTML>\n<head><title>T</title></head>\n<BODY>\n<P CLASS=a>Text &amp; more</P>\n"
+                + "<table border=1><tr><td>A</td></tr></table>\n</BODY>\n</HTML>\n";
+        result = processor.process(html, site.resolve("a.html"));
+
+        // The changed table is generated again, with the body the parser added to it
+        Assertions.assertEquals("<!DOCTYPE html>\n<HTML>\n<head><title>T</title></head>\n<BODY>\n"
+                + "<P CLASS=a>Text &amp; more</P>\n"
+                + "<table border=\"1\" class=\"t\"><tbody><tr><td>A</td></tr></tbody></table>\n</BODY>\n</HTML>\n",
+            result);
+    }
+
+    @Test
+    @DisplayName("Splitting the I/O from the fixing gives the same pages")
+    public final void testProcess_SplitIo() throws IOException {
+        final SiteProcessor processor; // Tested processor
+        final Path          nested;    // Page in a subdirectory
+        final int           written;
+
+        nested = Files.createDirectories(site.resolve("sub"));
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(nested.resolve("page" + i + ".html"),
+                "<html><head></head><body><h1>Heading " + i + "</h1></body></html>");
+        }
+        Files.writeString(site.resolve("index.html"), "<html><head></head><body><p>Text</p></body></html>");
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--fixHeadingIds")), 2)
+            .withExecutionMode(ExecutionMode.SPLIT_IO);
+        written = processor.process(site);
+
+        Assertions.assertEquals(20, written);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(
+                "<html><head></head><body><h1 id=\"Heading-" + i + "\">Heading " + i + "</h1></body></html>",
+                Files.readString(nested.resolve("page" + i + ".html"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Unchanged pages are not written")
+    public final void testProcess_Unchanged() throws IOException {
+        final SiteProcessor processor; // Tested processor
+        final Path          page;      // Page without headings
+        final int           written;
+
+        page = site.resolve("index.html");
+        Files.writeString(page, "<html><head></head><body><p>Text</p></body></html>");
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--fixHeadingIds")));
+        written = processor.process(site);
+
+        Assertions.assertEquals(0, written);
+    }
+
+    @Test
+    @DisplayName("Pages which the operations don't change are returned as they were received")
+    public final void testProcess_Unchanged_Source() {
+        final SiteProcessor processor; // Tested processor
+        final String        html;      // Page with the class already added
+        final String        result;
+
+        processor = new SiteProcessor(new PageOperations().parse(List.of("--addClass", "table", "t", "--fixPage")), 1);
+        html = "<!DOCTYPE html>\n<HTML><body><TABLE CLASS='t'><tr><td>A</td></tr></TABLE><p>Text</body>";
+        result = processor.process(html, site.resolve("a.html"));
+
+        // Parsing would have normalized the HTML
+        Assertions.assertSame(html, result);
+    }
+
+    @Test
+    @DisplayName("Unknown operations are rejected")
+    public final void testProcess_UnknownOperation() {
+        final PageOperations operations; // Operations factory
+
+        operations = new PageOperations();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> operations.parse(List.of("--abc")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> operations.parse(List.of("--addClass", "p")));
+    }
+
+}
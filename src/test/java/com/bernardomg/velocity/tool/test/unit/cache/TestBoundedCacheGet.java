@@ -0,0 +1,118 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.cache.BoundedCache;
+
+/**
+ * Unit tests for {@link BoundedCache}, testing the {@code get} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see BoundedCache
+ */
+@DisplayName("BoundedCache.get")
+public final class TestBoundedCacheGet {
+
+    /**
+     * Default constructor.
+     */
+    public TestBoundedCacheGet() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Values are loaded only once")
+    public final void testGet_Cached() {
+        final BoundedCache<String, String> cache; // Tested cache
+
+        cache = new BoundedCache<>(2);
+
+        Assertions.assertEquals("A", cache.get("a", String::toUpperCase));
+        Assertions.assertEquals("A", cache.get("a", k -> "unexpected"));
+
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    @DisplayName("The least recently used values are discarded when full")
+    public final void testGet_Full_DiscardsEldest() {
+        final BoundedCache<String, String> cache; // Tested cache
+
+        cache = new BoundedCache<>(2);
+
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        // Uses the first value, so the second one is the eldest
+        cache.get("a", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+
+        Assertions.assertEquals(2, cache.getSize());
+        Assertions.assertEquals("reloaded", cache.get("b", k -> "reloaded"));
+        Assertions.assertEquals("C", cache.get("c", k -> "unexpected"));
+    }
+
+    @Test
+    @DisplayName("Values read between the same loads are discarded only until reaching the size after evicting")
+    public final void testGet_Full_TiedReads() {
+        final BoundedCache<String, String> cache; // Tested cache
+
+        cache = new BoundedCache<>(8);
+
+        for (int i = 0; i < 8; i++) {
+            cache.get(String.valueOf(i), String::toUpperCase);
+        }
+        // All the values are read after the last load, so they are equally recent
+        for (int i = 0; i < 8; i++) {
+            cache.get(String.valueOf(i), String::toUpperCase);
+        }
+        cache.get("new", String::toUpperCase);
+
+        Assertions.assertEquals(7, cache.getSize());
+        Assertions.assertEquals("NEW", cache.get("new", k -> "unexpected"));
+    }
+
+    @Test
+    @DisplayName("Clearing the cache resets the counters")
+    public final void testClear() {
+        final BoundedCache<String, String> cache; // Tested cache
+
+        cache = new BoundedCache<>(2);
+
+        cache.get("a", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+        cache.clear();
+
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(0, cache.getMisses());
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+}
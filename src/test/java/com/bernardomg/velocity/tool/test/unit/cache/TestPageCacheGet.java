@@ -0,0 +1,253 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.cache.PageCache;
+
+/**
+ * Unit tests for {@link PageCache}, testing the {@code get} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see PageCache
+ */
+@DisplayName("PageCache.get")
+public final class TestPageCacheGet {
+
+    /**
+     * Temporary cache directory.
+     */
+    @TempDir
+    public Path directory;
+
+    /**
+     * Default constructor.
+     */
+    public TestPageCacheGet() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Entries older than the maximum age are fixed again")
+    public final void testGet_Expired() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+        final Instant       start; // Initial time
+
+        calls = new AtomicInteger();
+        start = Instant.parse("2020-01-01T00:00:00Z");
+        try (final PageCache cache = new PageCache(directory, 10, 1024, Duration.ofDays(1),
+            Clock.fixed(start, ZoneOffset.UTC))) {
+            cache.get("<p>Text</p>", "v1", html -> fix(html, calls));
+        }
+        try (final PageCache cache = new PageCache(directory, 10, 1024, Duration.ofDays(1),
+            Clock.fixed(start.plus(Duration.ofDays(2)), ZoneOffset.UTC))) {
+            Assertions.assertEquals(0, cache.getSize());
+            cache.get("<p>Text</p>", "v1", html -> fix(html, calls));
+        }
+
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("A cached page is not fixed again")
+    public final void testGet_Hit() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+        final String        first;
+        final String        second;
+
+        calls = new AtomicInteger();
+        try (final PageCache cache = new PageCache(directory)) {
+            first = cache.get("<p>Text</p>", "v1", html -> fix(html, calls));
+            second = cache.get("<p>Text</p>", "v1", html -> fix(html, calls));
+
+            Assertions.assertEquals(1, cache.getHits());
+            Assertions.assertEquals(1, cache.getMisses());
+        }
+
+        Assertions.assertEquals("<p class=\"fixed\">Text</p>", first);
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("The least recently used entries are evicted when going over the maximum size")
+    public final void testGet_MaxBytes() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+
+        calls = new AtomicInteger();
+        try (final PageCache cache = new PageCache(directory, 10, 40, Duration.ofDays(1))) {
+            cache.get("<p>1</p>", "v1", html -> fix(html, calls));
+            cache.get("<p>2</p>", "v1", html -> fix(html, calls));
+
+            Assertions.assertEquals(1, cache.getSize());
+            Assertions.assertTrue(cache.getBytes() <= 40);
+        }
+
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("The least recently used entries are evicted when going over the maximum entries")
+    public final void testGet_MaxEntries() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+
+        calls = new AtomicInteger();
+        try (final PageCache cache = new PageCache(directory, 2, 1024, Duration.ofDays(1))) {
+            cache.get("<p>1</p>", "v1", html -> fix(html, calls));
+            cache.get("<p>2</p>", "v1", html -> fix(html, calls));
+            cache.get("<p>3</p>", "v1", html -> fix(html, calls));
+
+            Assertions.assertEquals(2, cache.getSize());
+
+            // The first page was evicted
+            cache.get("<p>1</p>", "v1", html -> fix(html, calls));
+        }
+
+        Assertions.assertEquals(4, calls.get());
+    }
+
+    @Test
+    @DisplayName("The latest entries are kept after evicting many times more entries than the cache size")
+    public final void testGet_ManyEvictions() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+
+        calls = new AtomicInteger();
+        try (final PageCache cache = new PageCache(directory, 4, 1024, Duration.ofDays(1))) {
+            for (int i = 0; i < 100; i++) {
+                cache.get("<p>" + i + "</p>", "v1", html -> fix(html, calls));
+            }
+            for (int i = 96; i < 100; i++) {
+                cache.get("<p>" + i + "</p>", "v1", html -> fix(html, calls));
+            }
+
+            Assertions.assertEquals(4, cache.getSize());
+            Assertions.assertEquals(4, cache.getHits());
+        }
+        try (final PageCache cache = new PageCache(directory, 4, 1024, Duration.ofDays(1))) {
+            for (int i = 96; i < 100; i++) {
+                cache.get("<p>" + i + "</p>", "v1", html -> fix(html, calls));
+            }
+
+            Assertions.assertEquals(4, cache.getHits());
+        }
+
+        Assertions.assertEquals(100, calls.get());
+    }
+
+    @Test
+    @DisplayName("The least recently read entry is evicted first")
+    public final void testGet_MaxEntries_Read() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+
+        calls = new AtomicInteger();
+        try (final PageCache cache = new PageCache(directory, 2, 1024, Duration.ofDays(1))) {
+            cache.get("<p>1</p>", "v1", html -> fix(html, calls));
+            cache.get("<p>2</p>", "v1", html -> fix(html, calls));
+            cache.get("<p>1</p>", "v1", html -> fix(html, calls));
+            cache.get("<p>3</p>", "v1", html -> fix(html, calls));
+
+            // The second page was evicted
+            cache.get("<p>1</p>", "v1", html -> fix(html, calls));
+
+            Assertions.assertEquals(2, cache.getHits());
+        }
+
+        Assertions.assertEquals(3, calls.get());
+    }
+
+    @Test
+    @DisplayName("A cache directory can't be opened while another cache uses it")
+    public final void testGet_Locked() throws IOException {
+        try (final PageCache cache = new PageCache(directory)) {
+            Assertions.assertThrows(IOException.class, () -> new PageCache(directory));
+        }
+        try (final PageCache cache = new PageCache(directory)) {
+            Assertions.assertEquals(0, cache.getSize());
+        }
+    }
+
+    @Test
+    @DisplayName("Entries are kept after reopening the cache")
+    public final void testGet_Reopen() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+        final String        result;
+
+        calls = new AtomicInteger();
+        try (final PageCache cache = new PageCache(directory)) {
+            cache.get("<p>Text</p>", "v1", html -> fix(html, calls));
+        }
+        try (final PageCache cache = new PageCache(directory)) {
+            result = cache.get("<p>Text</p>", "v1", html -> fix(html, calls));
+
+            Assertions.assertEquals(1, cache.getHits());
+        }
+
+        Assertions.assertEquals("<p class=\"fixed\">Text</p>", result);
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("A page cached with another version is fixed again")
+    public final void testGet_Version() throws IOException {
+        final AtomicInteger calls; // Number of fixes
+
+        calls = new AtomicInteger();
+        try (final PageCache cache = new PageCache(directory)) {
+            cache.get("<p>Text</p>", "v1", html -> fix(html, calls));
+            cache.get("<p>Text</p>", "v2", html -> fix(html, calls));
+
+            Assertions.assertEquals(2, cache.getSize());
+        }
+
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    /**
+     * Fixes the page, counting the calls.
+     *
+     * @param html
+     *            page to fix
+     * @param calls
+     *            number of fixes
+     * @return the fixed page
+     */
+    private final String fix(final String html, final AtomicInteger calls) {
+        calls.incrementAndGet();
+        return html.replace("<p>", "<p class=\"fixed\">");
+    }
+
+}
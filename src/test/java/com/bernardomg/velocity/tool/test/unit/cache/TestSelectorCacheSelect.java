@@ -0,0 +1,90 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.cache;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+
+/**
+ * Unit tests for {@link SelectorCache}, testing the {@code select} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SelectorCache
+ */
+@DisplayName("SelectorCache.select")
+public final class TestSelectorCacheSelect {
+
+    /**
+     * Default constructor.
+     */
+    public TestSelectorCacheSelect() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Selects the same elements as jsoup")
+    public final void testSelect_SameAsJsoup() {
+        final SelectorCache cache;    // Tested cache
+        final Element       element;  // Parsed HTML
+        final String        selector; // CSS selector
+
+        cache = new SelectorCache();
+        selector = "table > tbody > tr:has(th), p.text";
+
+        element = Jsoup.parse("<table><tr><th>H</th></tr><tr><td>D</td></tr></table><p class=\"text\">Text</p><p>Other</p>")
+            .body();
+
+        Assertions.assertEquals(element.select(selector), cache.select(element, selector));
+        Assertions.assertEquals(element.select(selector), cache.select(element, selector));
+    }
+
+    @Test
+    @DisplayName("Selectors are compiled only once")
+    public final void testSelect_Repeated_Cached() {
+        final SelectorCache cache; // Tested cache
+        final HtmlTool      tool;  // Tool using the cache
+
+        cache = new SelectorCache();
+        tool = new HtmlTool(cache);
+
+        tool.addClass(Jsoup.parse("<p>Text</p>")
+            .body(), "p", "text");
+        tool.addClass(Jsoup.parse("<p>More text</p>")
+            .body(), "p", "text");
+        tool.removeClass(Jsoup.parse("<p>Even more text</p>")
+            .body(), "p", "text");
+
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+}
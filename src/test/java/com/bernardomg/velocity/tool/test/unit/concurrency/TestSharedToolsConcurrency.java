@@ -0,0 +1,255 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.cache.BoundedCache;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.metrics.InMemoryToolMetrics;
+
+/**
+ * Stress tests for the tools, sharing the same instances between many threads.
+ * <p>
+ * Each thread transforms pages through the shared tools, and the results should be the same as when transforming them
+ * in a single thread.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@DisplayName("Tools shared between threads")
+public final class TestSharedToolsConcurrency {
+
+    /**
+     * Number of pages transformed by each thread.
+     */
+    private static final int      ITERATIONS = 200;
+
+    /**
+     * Number of different pages.
+     */
+    private static final int      PAGES      = 16;
+
+    /**
+     * Number of threads.
+     */
+    private static final int      THREADS    = 8;
+
+    /**
+     * Executor for the threads.
+     */
+    private final ExecutorService executor   = Executors.newFixedThreadPool(THREADS);
+
+    /**
+     * Default constructor.
+     */
+    public TestSharedToolsConcurrency() {
+        super();
+    }
+
+    /**
+     * Stops the threads.
+     */
+    @AfterEach
+    public final void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("The cache keeps the right values and size when used by many threads")
+    public final void testBoundedCache() throws InterruptedException, ExecutionException {
+        final BoundedCache<Integer, String> cache; // Shared cache
+        final List<Callable<Boolean>>       tasks; // Tasks for each thread
+        final CountDownLatch                start; // Starts all the threads at once
+
+        cache = new BoundedCache<>(32);
+        start = new CountDownLatch(1);
+        tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int seed = thread;
+            tasks.add(() -> {
+                boolean valid;
+
+                start.await();
+                valid = true;
+                for (int i = 0; i < (ITERATIONS * 10); i++) {
+                    // Keys spread over twice the cache size, so entries are evicted all the time
+                    final int key = ((i * 7) + seed) % 64;
+                    valid &= ("value-" + key).equals(cache.get(key, k -> "value-" + k));
+                }
+
+                return valid;
+            });
+        }
+
+        Assertions.assertTrue(runAll(tasks, start));
+        Assertions.assertTrue(cache.getSize() <= 32);
+        Assertions.assertEquals(THREADS * ITERATIONS * 10L, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Shared tools give the same results as in a single thread")
+    public final void testTools() throws InterruptedException, ExecutionException {
+        final InMemoryToolMetrics     metrics;   // Shared metrics
+        final SelectorCache           selectors; // Shared selectors
+        final HtmlTool                htmlTool;  // Shared HTML tool
+        final Html5UpdateTool         html5Tool; // Shared HTML5 tool
+        final SiteTool                siteTool;  // Shared site tool
+        final List<String>            expected;  // Results from a single thread
+        final List<Callable<Boolean>> tasks;     // Tasks for each thread
+        final CountDownLatch          start;     // Starts all the threads at once
+
+        metrics = new InMemoryToolMetrics();
+        // A small cache, so selectors are evicted while being used
+        selectors = new SelectorCache(4);
+        htmlTool = new HtmlTool(selectors, metrics);
+        html5Tool = new Html5UpdateTool(selectors, metrics);
+        siteTool = new SiteTool(metrics);
+
+        expected = new ArrayList<>();
+        for (int page = 0; page < PAGES; page++) {
+            expected.add(transform(page, htmlTool, html5Tool, siteTool));
+        }
+        metrics.clear();
+
+        start = new CountDownLatch(1);
+        tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int seed = thread;
+            tasks.add(() -> {
+                boolean valid;
+
+                start.await();
+                valid = true;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    final int page = (i + seed) % PAGES;
+                    valid &= expected.get(page)
+                        .equals(transform(page, htmlTool, html5Tool, siteTool));
+                    // Icons for images not in the pages are added while the pages are transformed
+                    siteTool.addIcon("images/unused-" + seed + "-" + i + ".gif", "<span></span>");
+                }
+
+                return valid;
+            });
+        }
+
+        Assertions.assertTrue(runAll(tasks, start));
+        Assertions.assertEquals(THREADS * ITERATIONS, metrics.getOperation("SiteTool.fixPage")
+            .orElseThrow()
+            .getCalls());
+    }
+
+    /**
+     * Returns the HTML for a page. Each page uses different ids and classes.
+     *
+     * @param page
+     *            page number
+     * @return the page HTML
+     */
+    private final String page(final int page) {
+        return "<section><h2>Section " + page + "</h2><p><a href=\"#Section_" + page + "\">Link</a></p>"
+                + "<p><img src=\"images/add.gif\"><img src=\"imgs/diagram.png\" alt=\"Diagram " + page + "\"></p>"
+                + "<table class=\"bodyTable\"><tbody><tr><th>Head</th></tr><tr><td>" + page + "</td></tr></tbody></table>"
+                + "<div class=\"source\"><pre>Code " + page + "</pre></div></section>";
+    }
+
+    /**
+     * Runs all the tasks at the same time, and returns if all of them were valid.
+     *
+     * @param tasks
+     *            tasks to run
+     * @param start
+     *            latch starting the tasks
+     * @return {@code true} if all the tasks were valid, {@code false} otherwise
+     * @throws InterruptedException
+     *             if interrupted while waiting for the tasks
+     * @throws ExecutionException
+     *             if any task failed
+     */
+    private final boolean runAll(final List<Callable<Boolean>> tasks, final CountDownLatch start)
+            throws InterruptedException, ExecutionException {
+        final List<Future<Boolean>> results; // Task results
+        boolean                     valid;   // Flag marking all the tasks were valid
+
+        results = new ArrayList<>();
+        for (final Callable<Boolean> task : tasks) {
+            results.add(executor.submit(task));
+        }
+        start.countDown();
+
+        valid = true;
+        for (final Future<Boolean> result : results) {
+            valid &= result.get();
+        }
+
+        return valid;
+    }
+
+    /**
+     * Transforms the page with the tools.
+     *
+     * @param page
+     *            page number
+     * @param htmlTool
+     *            HTML tool
+     * @param html5Tool
+     *            HTML5 tool
+     * @param siteTool
+     *            site tool
+     * @return the transformed page
+     */
+    private final String transform(final int page, final HtmlTool htmlTool, final Html5UpdateTool html5Tool,
+            final SiteTool siteTool) {
+        final Element root; // Parsed page
+
+        root = htmlTool.parse(page(page));
+        siteTool.fixPage(root);
+        html5Tool.updateTableHeads(root);
+        html5Tool.removePointsFromAttr(root, "h2", "id");
+        htmlTool.addClass(root, "table", "table-" + (page % 5));
+        htmlTool.removeClass(root, "table.bodyTable", "bodyTable");
+        htmlTool.retag(root, "div.source > pre", "code");
+        htmlTool.unwrap(root, "div.source");
+        siteTool.fixReport(root, "checkstyle");
+
+        return root.html();
+    }
+
+}
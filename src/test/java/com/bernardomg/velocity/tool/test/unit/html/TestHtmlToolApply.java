@@ -0,0 +1,152 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlRule;
+import com.bernardomg.velocity.tool.HtmlTool;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code apply} method.
+ * <p>
+ * The results are compared with those from calling the equivalent methods one after the other.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.apply")
+public final class TestHtmlToolApply {
+
+    /**
+     * HTML code to edit.
+     */
+    private static final String HTML = "<div class=\"source\"><pre>Code</pre></div><table class=\"bodyTable\"><tr>"
+            + "<td>Data</td></tr></table><blockquote class=\"old\">Quote</blockquote><h3>Title</h3><p><code>x</code></p>";
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool      util = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolApply() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Selectors using classes see the classes added by previous rules")
+    public final void testApply_ClassDependency() {
+        assertSameAsSequential(List.of(HtmlRule.addClass("table", "table"), HtmlRule.addClass(".table", "striped"),
+            HtmlRule.removeClass("table.bodyTable", "bodyTable")));
+    }
+
+    @Test
+    @DisplayName("Rules with tag selectors give the same result as the methods")
+    public final void testApply_Classes() {
+        assertSameAsSequential(List.of(HtmlRule.addClass("table", "table"), HtmlRule.addClass("pre", "pre-code"),
+            HtmlRule.addClass("code", "inline"), HtmlRule.removeClass("blockquote", "old"),
+            HtmlRule.removeAttribute("div", "class")));
+    }
+
+    @Test
+    @DisplayName("Rules can be created from the method names")
+    public final void testApply_FromNames() {
+        final Element element; // Parsed HTML
+
+        element = Jsoup.parse("<h3>Title</h3>")
+            .body();
+        util.apply(element, List.of(HtmlRule.of("retag", "h3", "h4"), HtmlRule.of("addClass", "h4", "title")));
+
+        Assertions.assertEquals("<h4 class=\"title\">Title</h4>", element.html());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HtmlRule.of("wrap", "h3", "<div></div>"));
+    }
+
+    @Test
+    @DisplayName("Rules applied on the same elements keep their order")
+    public final void testApply_Order() {
+        assertSameAsSequential(List.of(HtmlRule.addClass("table", "a"), HtmlRule.removeClass("table", "a"),
+            HtmlRule.addClass("table", "b")));
+    }
+
+    @Test
+    @DisplayName("Selectors see the tags changed by previous rules")
+    public final void testApply_RetagDependency() {
+        assertSameAsSequential(List.of(HtmlRule.retag("h3", "h4"), HtmlRule.addClass("h4", "title"),
+            HtmlRule.retag("div.source", "section"), HtmlRule.addClass("section > pre", "code"),
+            HtmlRule.addClass("h3", "unused")));
+    }
+
+    @Test
+    @DisplayName("Selector groups and selectors without tags give the same result as the methods")
+    public final void testApply_Selectors() {
+        assertSameAsSequential(List.of(HtmlRule.addClass("pre, code", "code"), HtmlRule.addClass("*", "any"),
+            HtmlRule.addClass(":not(p) > pre", "nested"), HtmlRule.removeAttribute("[class=any]", "class")));
+    }
+
+    /**
+     * Checks that applying the rules gives the same result as calling the methods one after the other.
+     *
+     * @param rules
+     *            rules to check
+     */
+    private final void assertSameAsSequential(final List<HtmlRule> rules) {
+        final Element expected; // Edited by the methods
+        final Element element;  // Edited by the rules
+
+        expected = Jsoup.parse(HTML)
+            .body();
+        for (final HtmlRule rule : rules) {
+            switch (rule.getOperation()) {
+                case ADD_CLASS:
+                    util.addClass(expected, rule.getSelector(), rule.getArgument());
+                    break;
+                case REMOVE_ATTRIBUTE:
+                    util.removeAttribute(expected, rule.getSelector(), rule.getArgument());
+                    break;
+                case REMOVE_CLASS:
+                    util.removeClass(expected, rule.getSelector(), rule.getArgument());
+                    break;
+                default:
+                    util.retag(expected, rule.getSelector(), rule.getArgument());
+            }
+        }
+
+        element = Jsoup.parse(HTML)
+            .body();
+        util.apply(element, rules);
+
+        Assertions.assertEquals(expected.outerHtml(), element.outerHtml());
+    }
+
+}
@@ -0,0 +1,148 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.HtmlTool;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code flatten} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.flatten")
+public final class TestHtmlToolFlatten {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool util = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolFlatten() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Flattens an element, moving its children to the end of the root")
+    public final void testFlatten() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<body><section>Text<h2>Heading</h2><p>Some text</p></section><p>After</p></body>";
+        htmlExpected = "<p>After</p><h2>Heading</h2><p>Some text</p>";
+
+        element = Jsoup.parse(html)
+            .body();
+        element.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+        util.flatten(element, "section");
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("Flattens elements with many children, keeping their order")
+    public final void testFlatten_ManyChildren() {
+        final StringBuilder html;         // HTML code to edit
+        final StringBuilder htmlExpected; // Expected result
+        final Element       element;      // Parsed HTML
+
+        html = new StringBuilder("<body><section>");
+        htmlExpected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            html.append("<p>")
+                .append(i)
+                .append("</p>");
+            htmlExpected.append("<p>")
+                .append(i)
+                .append("</p>");
+        }
+        html.append("</section></body>");
+
+        element = Jsoup.parse(html.toString())
+            .body();
+        element.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+        util.flatten(element, "section");
+
+        Assertions.assertEquals(htmlExpected.toString(), element.html());
+        Assertions.assertEquals(4999, element.child(4999)
+            .siblingIndex());
+    }
+
+    @Test
+    @DisplayName("Flattening a not existing element does nothing")
+    public final void testNotExisting_Nothing() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<body><h2>Heading</h2><p>Some text</p></body>";
+        htmlExpected = "<h2>Heading</h2><p>Some text</p>";
+
+        element = Jsoup.parse(html)
+            .body();
+        element.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+        util.flatten(element, "section");
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("The root is not flattened")
+    public final void testRoot_Kept() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<body><p>Some text</p></body>";
+        htmlExpected = "<p>Some text</p>";
+
+        element = Jsoup.parse(html)
+            .body();
+        element.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+        util.flatten(element, "body");
+
+        Assertions.assertEquals(htmlExpected, element.html());
+        Assertions.assertNotNull(element.parent());
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.FragmentParser;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.metrics.NoOpToolMetrics;
+
+/**
+ * Unit tests for {@link HtmlTool}, testing the {@code parseFragment} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.parseFragment")
+public final class TestHtmlToolParseFragment {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool util = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolParseFragment() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Errors are tracked when enabled")
+    public final void testErrors_Tracked() {
+        final FragmentParser parser; // Parser tracking errors
+        final HtmlTool       tool;   // Tool with the parser
+
+        parser = new FragmentParser(10, false);
+        tool = new HtmlTool(new SelectorCache(), new NoOpToolMetrics(), parser);
+
+        tool.parseFragment("<p>Text</div>");
+        Assertions.assertFalse(parser.getErrors()
+            .isEmpty());
+
+        tool.parseFragment("<p>Text</p>");
+        Assertions.assertTrue(parser.getErrors()
+            .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Errors and positions are not tracked by default")
+    public final void testErrors_NotTracked() {
+        final FragmentParser parser;  // Default parser
+        final HtmlTool       tool;    // Tool with the parser
+        final Element        element; // Parsed HTML
+
+        parser = new FragmentParser();
+        tool = new HtmlTool(new SelectorCache(), new NoOpToolMetrics(), parser);
+
+        element = tool.parseFragment("<p>Text</div>");
+
+        Assertions.assertTrue(parser.getErrors()
+            .isEmpty());
+        Assertions.assertFalse(element.child(0)
+            .sourceRange()
+            .isTracked());
+    }
+
+    @Test
+    @DisplayName("Positions are tracked when enabled")
+    public final void testPositions_Tracked() {
+        final HtmlTool tool;    // Tool tracking positions
+        final Element  element; // Parsed HTML
+
+        tool = new HtmlTool(new SelectorCache(), new NoOpToolMetrics(), new FragmentParser(0, true));
+
+        element = tool.parseFragment("<p>Text</p><div>Text</div>");
+
+        Assertions.assertEquals(11, element.child(1)
+            .sourceRange()
+            .startPos());
+    }
+
+    @Test
+    @DisplayName("The parsed body is the same as when parsing the full document")
+    public final void testSameAsParse() {
+        final String html; // HTML code to parse
+
+        html = "<section><h2>Title</h2><p>Some <b>text</b><img src=\"a.png\"></p><table><tbody><tr><td>Data</td></tr></tbody></table><pre>  Some\n   code</pre></section>";
+
+        Assertions.assertEquals(util.parse(html)
+            .html(),
+            util.parseFragment(html)
+                .html());
+    }
+
+    @Test
+    @DisplayName("Leading elements which belong to the head are kept in the body")
+    public final void testScript_Kept() {
+        final Element element; // Parsed HTML
+
+        element = util.parseFragment("<script>var a = 1;</script><p>Text</p>");
+
+        Assertions.assertEquals("script", element.child(0)
+            .tagName());
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.IndexedElement;
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code parseIndexed} method.
+ * <p>
+ * The results are compared with those from the tree without index.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.parseIndexed")
+public final class TestHtmlToolParseIndexed {
+
+    /**
+     * HTML code to edit.
+     */
+    private static final String   HTML       = "<section><h2>Title</h2><p><a href=\"#A_b\">Link</a></p>"
+            + "<table><tbody><tr><th>Head</th></tr><tr><td>Data</td></tr></tbody></table>"
+            + "<div class=\"source\"><pre>Code</pre></div><p><img src=\"images/add.gif\"></p></section>";
+
+    /**
+     * HTML5 update tool.
+     */
+    private final Html5UpdateTool html5Util  = new Html5UpdateTool();
+
+    /**
+     * Site tool.
+     */
+    private final SiteTool        siteUtil   = new SiteTool();
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool        util       = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolParseIndexed() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The index follows the changes made by the tools")
+    public final void testParseIndexed_Index() {
+        final Element        element; // Parsed HTML
+        final IndexedElement indexed; // Index for the HTML
+
+        element = util.parseIndexed(HTML);
+        indexed = IndexedElement.find(element)
+            .orElseThrow();
+
+        Assertions.assertEquals(2, indexed.getElementsByTag("p")
+            .size());
+
+        util.retag(element, "h2", "h3");
+        util.wrap(element, "table", "<div class=\"responsive\"></div>");
+        util.unwrap(element, "div.source");
+
+        Assertions.assertTrue(indexed.getElementsByTag("h2")
+            .isEmpty());
+        Assertions.assertEquals(1, indexed.getElementsByTag("h3")
+            .size());
+        Assertions.assertEquals(List.of("responsive"), indexed.getElementsByTag("div")
+            .stream()
+            .map(Element::className)
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("The tools give the same results with the index")
+    public final void testParseIndexed_SameResult() {
+        final Element expected; // Edited without index
+        final Element element;  // Edited with index
+
+        expected = util.parse(HTML);
+        edit(expected);
+
+        element = util.parseIndexed(HTML);
+        edit(element);
+
+        Assertions.assertEquals(expected.html(), element.html());
+    }
+
+    @Test
+    @DisplayName("Parsing with index gives the same HTML")
+    public final void testParseIndexed_Unchanged() {
+        Assertions.assertEquals(util.parse(HTML)
+            .outerHtml(),
+            util.parseIndexed(HTML)
+                .outerHtml());
+    }
+
+    /**
+     * Applies a sequence of changes, where each one depends on the previous ones.
+     *
+     * @param root
+     *            element to edit
+     */
+    private final void edit(final Element root) {
+        util.retag(root, "h2", "h1");
+        util.addClass(root, "h1", "title");
+        util.wrap(root, "table", "<div class=\"responsive\"></div>");
+        util.addClass(root, "div > table", "table");
+        util.unwrap(root, "div.source");
+        util.addClass(root, "section > pre", "code");
+        html5Util.updateTableHeads(root);
+        util.addClass(root, "thead > tr", "head");
+        siteUtil.fixPage(root);
+        util.addClass(root, "figure", "image");
+        siteUtil.fixReport(root, "dependencies");
+        util.addClass(root, "h1", "report");
+    }
+
+}
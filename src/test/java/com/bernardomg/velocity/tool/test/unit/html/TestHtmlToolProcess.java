@@ -0,0 +1,170 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.NeedleScanner;
+import com.bernardomg.velocity.tool.Pipeline;
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link HtmlTool}, testing the {@code process} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.process")
+public final class TestHtmlToolProcess {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool util = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolProcess() {
+        super();
+    }
+
+    @Test
+    @DisplayName("An empty pipeline returns the same HTML")
+    public final void testEmptyPipeline() {
+        final String html; // HTML code to edit
+
+        html = "<h1>Title</h1><p>Some <b>text</b></p>";
+
+        Assertions.assertEquals(html, util.process(html, new Pipeline()));
+    }
+
+    @Test
+    @DisplayName("An empty string returns an empty string")
+    public final void testEmptyString() {
+        Assertions.assertEquals("", util.process("", new Pipeline()));
+    }
+
+    @Test
+    @DisplayName("Steps whose needles are not in the HTML are skipped")
+    public final void testNeedles_Skipped() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final Pipeline pipeline;     // Steps to apply
+
+        html = "<P>Text</P>";
+        htmlExpected = "<p class=\"a\">Text</p>";
+
+        pipeline = new Pipeline().then(root -> util.addClass(root, "p", "a"), List.of("<p"))
+            .then(root -> util.addClass(root, "*", "b"), List.of("<table"));
+
+        Assertions.assertEquals(htmlExpected, util.process(html, pipeline));
+    }
+
+    @Test
+    @DisplayName("Steps with more needles than the scanner supports are always applied")
+    public final void testNeedles_TooMany() {
+        final String       html;         // HTML code to edit
+        final String       htmlExpected; // Expected result
+        final List<String> needles;      // Needles for the steps
+        Pipeline           pipeline;     // Steps to apply
+
+        html = "<p>Text</p>";
+        htmlExpected = "<p class=\"a\">Text</p>";
+
+        needles = IntStream.rangeClosed(0, NeedleScanner.MAX_NEEDLES)
+            .mapToObj(i -> "<x" + i)
+            .collect(Collectors.toList());
+        pipeline = new Pipeline();
+        for (final String needle : needles) {
+            pipeline = pipeline.then(root -> {}, List.of(needle));
+        }
+        pipeline = pipeline.then(root -> util.addClass(root, "p", "a"), List.of("<table"));
+
+        Assertions.assertEquals(htmlExpected, util.process(html, pipeline));
+    }
+
+    @Test
+    @DisplayName("The steps are applied in order")
+    public final void testSteps_InOrder() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final Pipeline pipeline;     // Steps to apply
+
+        html = "<p>Text</p><div>Text</div>";
+        htmlExpected = "<span class=\"a\">Text</span><div>Text</div>";
+
+        pipeline = new Pipeline().then(root -> util.addClass(root, "p", "a"))
+            .then(root -> util.retag(root, "p", "span"));
+
+        Assertions.assertEquals(htmlExpected, util.process(html, pipeline));
+    }
+
+    @Test
+    @DisplayName("Adding a step doesn't change the original pipeline")
+    public final void testThen_Immutable() {
+        final Pipeline pipeline; // Original pipeline
+
+        pipeline = new Pipeline();
+        pipeline.then(root -> util.addClass(root, "p", "a"));
+
+        Assertions.assertEquals("<p>Text</p>", util.process("<p>Text</p>", pipeline));
+    }
+
+    @Test
+    @DisplayName("The result is the same as parsing, applying the steps and getting the HTML")
+    public final void testTools_SameAsParse() {
+        final String   html;     // HTML code to edit
+        final Pipeline pipeline; // Steps to apply
+        final Document document; // Parsed HTML
+        final SiteTool siteTool; // Site tool for the steps
+
+        html = "<section><h2>A heading</h2><p><img src=\"images/add.gif\"> <a href=\"#A heading\">Link</a></p><table><tbody><tr><th>H</th></tr><tr><td>D</td></tr></tbody></table><pre>  Some\n   code</pre></section>";
+
+        siteTool = new SiteTool();
+        pipeline = new Pipeline().then(siteTool::fixPage)
+            .then(new Html5UpdateTool()::updateTableHeads)
+            .then(root -> util.addClass(root, "table", "table-striped"));
+
+        document = Jsoup.parse(html);
+        document.outputSettings()
+            .prettyPrint(false);
+        pipeline.apply(document.body());
+
+        Assertions.assertEquals(document.body()
+            .html(), util.process(html, pipeline));
+    }
+
+}
@@ -0,0 +1,293 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.SplicedElement;
+
+/**
+ * Unit tests for {@link HtmlTool} testing the {@code serialize} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see HtmlTool
+ */
+@DisplayName("HtmlTool.serialize")
+public final class TestHtmlToolSerialize {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final HtmlTool util = new HtmlTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtmlToolSerialize() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Only the changed elements are generated again")
+    public final void testAddClass_ChangedOnly() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<DIV id='a'><P CLASS=x>Text &amp; more</P></DIV><table class=t><tr><td>A</td></tr></table>";
+        htmlExpected = "<DIV id='a'><P CLASS=x>Text &amp; more</P></DIV>"
+                + "<table class=\"t table\"><tbody><tr><td>A</td></tr></tbody></table>";
+
+        element = util.parseSpliced(html);
+        util.addClass(element, "table", "table");
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("HTML with parse errors is serialized by jsoup")
+    public final void testMisnested_Jsoup() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<p><b>Bold<p>Text</b></p><table>Fostered<tr><td>A</td></tr></table>";
+
+        element = util.parseSpliced(html);
+        util.addClass(element, "p", "text");
+
+        Assertions.assertEquals(element.html(), util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("An element not parsed for splicing is serialized by jsoup")
+    public final void testNotSpliced_Jsoup() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<p CLASS=x>Text</p>";
+
+        element = util.parse(html);
+
+        Assertions.assertEquals(element.html(), util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("A removed element is not copied, when it is stored before removing it")
+    public final void testRemove() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+        final Element removed;      // Removed element
+
+        html = "<DIV id='a'><P>One</P><p>Two</p><P>Three</P></DIV>";
+        htmlExpected = "<DIV id='a'><P>One</P><P>Three</P></DIV>";
+
+        element = util.parseSpliced(html);
+        removed = element.select("p")
+            .get(1);
+        SplicedElement.find(element)
+            .get()
+            .changingAround(removed);
+        removed.remove();
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("A retagged element is generated again, keeping its children")
+    public final void testRetag() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h3 ID=x>Heading <B>bold</B></h3><p>Text";
+        htmlExpected = "<h4 id=\"x\">Heading <B>bold</B></h4><p>Text</p>";
+
+        element = util.parseSpliced(html);
+        util.retag(element, "h3", "h4");
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("The result is parsed into the same tree as the edited one")
+    public final void testSameAsJsoup() {
+        final String          html;     // HTML code to edit
+        final Element         element;  // Parsed HTML
+        final Html5UpdateTool updater;  // Tool editing the HTML
+        final String          expected; // HTML generated by jsoup
+        final Element         parsed;   // Serialized HTML parsed again
+
+        html = "<h2>Title</h2><ul><li>One<li>Two</ul><p>Text<br/><img src=a.png alt='Image'><!-- Comment -->"
+                + "<table border=0 class=bodyTable>\n<tr class=a><th>Header</th></tr>\n"
+                + "<tr class=b><td>Data &lt; 1</td></tr>\n</table><script>var a = 1 < 2;</script>";
+        updater = new Html5UpdateTool();
+
+        element = util.parseSpliced(html);
+        util.removeAttribute(element, "table", "border");
+        util.wrap(element, "table", "<div class=\"table-responsive\"></div>");
+        updater.updateTableHeads(element);
+        util.addClass(element, "li", "item");
+        expected = element.html();
+
+        parsed = Jsoup.parseBodyFragment(util.serialize(element))
+            .body();
+        parsed.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+
+        Assertions.assertEquals(expected, parsed.html());
+    }
+
+    @Test
+    @DisplayName("A changed text is generated again, keeping the tags, when it is stored before changing it")
+    public final void testText() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<P CLASS=x>Text &amp; more</P><P>Other &amp; text</P>";
+        htmlExpected = "<P CLASS=x>New &amp; text</P><P>Other &amp; text</P>";
+
+        element = util.parseSpliced(html);
+        SplicedElement.find(element)
+            .get()
+            .changingSubtree(element.child(0));
+        element.child(0)
+            .text("New & text");
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("Changes which were not stored are not serialized")
+    public final void testText_NotStored() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<P CLASS=x>Text &amp; more</P><P>Other &amp; text</P>";
+
+        element = util.parseSpliced(html);
+        element.child(0)
+            .text("New & text");
+
+        Assertions.assertEquals(html, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("The site fixes are generated again, keeping the rest of the page")
+    public final void testSiteTool_FixPage() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final SiteTool siteTool;     // Tool editing the HTML
+        final Element  element;      // Parsed HTML
+
+        html = "<H1>Some Title</H1><P CLASS=x>Text &amp; <IMG SRC=a.png ALT='Image'></P><p>Other";
+        htmlExpected = "<h1 id=\"Some-Title\">Some Title</h1>Text &amp; "
+                + "<figure><IMG SRC=a.png ALT='Image'><figcaption>Image</figcaption></figure><p>Other</p>";
+        siteTool = new SiteTool();
+
+        element = util.parseSpliced(html);
+        siteTool.fixPage(element);
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("The elements changed by a report fixer are generated again, keeping the rest of the page")
+    public final void testSiteTool_FixReport() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final SiteTool siteTool;     // Tool editing the HTML
+        final Element  element;      // Parsed HTML
+
+        html = "<SECTION><H2>Changes</H2><P CLASS=x>Text</P><H3>Releases</H3><section><H3 ID=r1>1.0 – 2020</H3>"
+                + "<P>Fixed</P></section></SECTION>";
+        htmlExpected = "<h1>Changes</h1><P CLASS=x>Text</P><h2>Releases</h2><section id=\"r1\">"
+                + "<h3>1.0 <small>(<time>2020</time>)</small></h3><P>Fixed</P></section>";
+        siteTool = new SiteTool();
+
+        element = util.parseSpliced(html);
+        siteTool.fixReport(element, "changes-report");
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("A heading added by a report fixer is generated, keeping the rest of the page")
+    public final void testSiteTool_FixReport_Title() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final SiteTool siteTool;     // Tool editing the HTML
+        final Element  element;      // Parsed HTML
+
+        html = "<P CLASS=x>Text &amp; more</P>";
+        htmlExpected = "<h1>License</h1><P CLASS=x>Text &amp; more</P>";
+        siteTool = new SiteTool();
+
+        element = util.parseSpliced(html);
+        siteTool.fixReport(element, "license");
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("An unchanged element is returned as it was received")
+    public final void testUnchanged_Source() {
+        final String  html;    // HTML code to edit
+        final Element element; // Parsed HTML
+
+        html = "<H1 Class = 'title' >Title</H1>\n<p>Text &amp; <B>more</B>\n<p>Other<br/><img src=a.png>"
+                + "<!-- Comment --><table><tr><td>A</td></tr></table><script>var a = 1 < 2;</script>";
+
+        element = util.parseSpliced(html);
+
+        Assertions.assertEquals(html, util.serialize(element));
+    }
+
+    @Test
+    @DisplayName("A wrapped element is copied inside the wrapper")
+    public final void testWrap() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<p>Text</p><TABLE  CLASS=t><TR><TD>A</TD></TR></TABLE>";
+        htmlExpected = "<p>Text</p><div class=\"table-responsive\"><TABLE  CLASS=t><TR><TD>A</TD></TR></TABLE></div>";
+
+        element = util.parseSpliced(html);
+        util.wrap(element, "table", "<div class=\"table-responsive\"></div>");
+
+        Assertions.assertEquals(htmlExpected, util.serialize(element));
+    }
+
+}
@@ -116,6 +116,73 @@ public final void testWrap() {
         Assertions.assertEquals(htmlExpected, element.html());
     }
 
+    @Test
+    @DisplayName("Wraps each element with its own copy of a nested wrapper")
+    public final void testWrap_Nested() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<body><table></table><table></table></body>";
+        htmlExpected = "<div class=\"a\"><div class=\"b\"><table></table></div><span>Text</span></div>"
+                + "<div class=\"a\"><div class=\"b\"><table></table></div><span>Text</span></div>";
+
+        element = Jsoup.parse(html)
+            .body();
+        element.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+        util.wrap(element, "table", "<div class=\"a\"><div class=\"b\"></div><span>Text</span></div>");
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("Wrapping gives the same result as jsoup, for unbalanced wrappers and those depending on the context")
+    public final void testWrap_SameAsJsoup() {
+        final String   html;     // HTML code to edit
+        final String[] wrappers; // Nodes for wrapping
+        Element        element;  // Parsed HTML
+        Element        expected; // Element wrapped through jsoup
+        boolean        failed;   // Flag marking jsoup failed wrapping
+        boolean        rejected; // Flag marking the tool failed wrapping
+
+        html = "<body><table><tbody><tr><td>Cell</td><td>Other</td></tr></tbody></table><p><b>Text</b></p></body>";
+        wrappers = new String[] { "<div></div><p>After</p><span>Lost</span>", "<tr class=\"row\"><td></td></tr>",
+                "Text<em></em>", "<i><u></u></i>", "<li>Item</li>" };
+
+        for (final String wrapper : wrappers) {
+            for (final String selector : new String[] { "td", "b", "table" }) {
+                element = Jsoup.parse(html)
+                    .body();
+                expected = Jsoup.parse(html)
+                    .body();
+                try {
+                    for (final Element selected : expected.select(selector)) {
+                        selected.wrap(wrapper);
+                    }
+                    failed = false;
+                } catch (final IndexOutOfBoundsException e) {
+                    // Rows are dropped outside of tables, leaving nothing to wrap with
+                    failed = true;
+                }
+
+                try {
+                    util.wrap(element, selector, wrapper);
+                    rejected = false;
+                } catch (final IndexOutOfBoundsException e) {
+                    rejected = true;
+                }
+
+                Assertions.assertEquals(failed, rejected, "Failing to wrap " + selector + " with " + wrapper);
+                if (!failed) {
+                    Assertions.assertEquals(expected.html(), element.html(),
+                        "Wrapping " + selector + " with " + wrapper);
+                }
+            }
+        }
+    }
+
     @Test
     @DisplayName("Wrapping an empty string does nothing")
     public final void testWrap_EmptyString() {
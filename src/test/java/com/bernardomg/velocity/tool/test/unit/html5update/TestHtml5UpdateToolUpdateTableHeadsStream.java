@@ -0,0 +1,156 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.html5update;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+
+/**
+ * Unit tests for {@link Html5UpdateTool} testing the streaming {@code updateTableHeads} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see Html5UpdateTool
+ */
+@DisplayName("Html5UpdateTool.updateTableHeads streaming")
+public final class TestHtml5UpdateToolUpdateTableHeadsStream {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final Html5UpdateTool util = new Html5UpdateTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestHtml5UpdateToolUpdateTableHeadsStream() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Rows after data rows are kept in the body")
+    public final void testLateHeader_Kept() throws IOException {
+        final String html;         // HTML code to edit
+        final String htmlExpected; // Expected result
+
+        html = "<table><tbody><tr><td>Data</td></tr><tr><th>Header</th></tr></tbody></table>";
+        htmlExpected = "<html><head></head><body><table><tbody><tr><td>Data</td></tr><tr><th>Header</th></tr></tbody></table></body></html>";
+
+        Assertions.assertEquals(htmlExpected, update(html));
+    }
+
+    @Test
+    @DisplayName("Huge tables give the same result as the in-memory version")
+    public final void testLargeTable_SameAsInMemory() throws IOException {
+        final StringBuilder html; // HTML code to edit
+
+        html = new StringBuilder("<h2>Report</h2><table class=\"bodyTable\"><tbody><tr><th>A</th><th>B</th></tr>");
+        for (int i = 0; i < 20000; i++) {
+            html.append("<tr><td>")
+                .append(i)
+                .append("</td><td><a href=\"#a\">Link</a> text</td></tr>\n");
+        }
+        html.append("</tbody></table><p>End</p>");
+
+        Assertions.assertEquals(updateInMemory(html.toString()), update(html.toString()));
+    }
+
+    @Test
+    @DisplayName("All the leading header rows are moved into a single head")
+    public final void testMultipleHeaders_SingleHead() throws IOException {
+        final String html;         // HTML code to edit
+        final String htmlExpected; // Expected result
+
+        html = "<table><tbody><tr><th>H1</th></tr> <tr><th>H2</th></tr><tr><td>Data</td></tr></tbody></table>";
+        htmlExpected = "<html><head></head><body><table><thead><tr><th>H1</th></tr> <tr><th>H2</th></tr></thead><tbody><tr><td>Data</td></tr></tbody></table></body></html>";
+
+        Assertions.assertEquals(htmlExpected, update(html));
+    }
+
+    @Test
+    @DisplayName("Pages without tables are written unchanged")
+    public final void testNoTable_Unchanged() throws IOException {
+        final String html; // HTML code to edit
+
+        html = "<!DOCTYPE html><html lang=\"en\"><head><title>Page</title><script>var a = 1 < 2;</script></head><body>\n<!-- Comment --><div id=\"main\"><p>Some <b>bold</b> and <i>italic</i> text</p><br><img src=\"a.png\"></div>Trailing</body></html>";
+
+        Assertions.assertEquals(updateInMemory(html), update(html));
+    }
+
+    @Test
+    @DisplayName("A Doxia table gives the same result as the in-memory version")
+    public final void testTable_SameAsInMemory() throws IOException {
+        final String html; // HTML code to edit
+
+        html = "<!DOCTYPE html><html><head></head><body><section><h2>Title</h2><table border=\"0\" class=\"bodyTable testClass\"><tbody><tr class=\"a\"><th>Header 1</th><th>Header 2</th></tr><tr class=\"b\"><td>Data 1</td><td>Data 2</td></tr></tbody></table><p>After</p></section></body></html>";
+
+        Assertions.assertEquals(updateInMemory(html), update(html));
+    }
+
+    /**
+     * Updates the HTML through the streaming method.
+     *
+     * @param html
+     *            HTML to update
+     * @return the updated HTML
+     * @throws IOException
+     *             if the HTML can't be updated
+     */
+    private final String update(final String html) throws IOException {
+        final StringWriter output; // Updated HTML
+
+        output = new StringWriter();
+        util.updateTableHeads(new StringReader(html), output);
+
+        return output.toString();
+    }
+
+    /**
+     * Updates the HTML through the in-memory method.
+     *
+     * @param html
+     *            HTML to update
+     * @return the updated HTML
+     */
+    private final String updateInMemory(final String html) {
+        final Document document; // Parsed HTML
+
+        document = Jsoup.parse(html);
+        document.outputSettings()
+            .prettyPrint(false);
+        util.updateTableHeads(document.body());
+
+        return document.outerHtml();
+    }
+
+}
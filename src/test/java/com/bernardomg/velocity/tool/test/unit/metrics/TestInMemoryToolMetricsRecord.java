@@ -0,0 +1,199 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.metrics;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.cache.SelectorCache;
+import com.bernardomg.velocity.tool.metrics.InMemoryToolMetrics;
+import com.bernardomg.velocity.tool.metrics.OperationMetrics;
+
+/**
+ * Unit tests for {@link InMemoryToolMetrics}, testing the {@code record} method through the tools.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see InMemoryToolMetrics
+ */
+@DisplayName("InMemoryToolMetrics.record")
+public final class TestInMemoryToolMetricsRecord {
+
+    /**
+     * Default constructor.
+     */
+    public TestInMemoryToolMetricsRecord() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Calls to the HTML tool are recorded with the elements matched and mutated")
+    public final void testRecord_HtmlTool() {
+        final InMemoryToolMetrics metrics;   // Tested metrics
+        final HtmlTool            tool;      // Instrumented tool
+        final Element             element;   // Parsed HTML
+        final OperationMetrics    operation; // Recorded operation
+
+        metrics = new InMemoryToolMetrics();
+        tool = new HtmlTool(new SelectorCache(), metrics);
+
+        element = Jsoup.parse("<p class=\"a\">A</p><p>B</p><p>C</p>")
+            .body();
+        tool.addClass(element, "p", "a");
+        tool.addClass(element, "p", "a");
+
+        operation = metrics.getOperation("HtmlTool.addClass")
+            .get();
+        Assertions.assertEquals(2, operation.getCalls());
+        Assertions.assertEquals(6, operation.getMatched());
+        Assertions.assertEquals(2, operation.getMutated());
+        Assertions.assertTrue(operation.getNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("Calls to the HTML5 update tool are recorded")
+    public final void testRecord_Html5UpdateTool() {
+        final InMemoryToolMetrics metrics;   // Tested metrics
+        final Html5UpdateTool     tool;      // Instrumented tool
+        final Element             element;   // Parsed HTML
+        final OperationMetrics    operation; // Recorded operation
+
+        metrics = new InMemoryToolMetrics();
+        tool = new Html5UpdateTool(new SelectorCache(), metrics);
+
+        element = Jsoup.parse("<table><tbody><tr><th>H</th></tr><tr><td>D</td></tr></tbody></table>")
+            .body();
+        tool.updateTableHeads(element);
+
+        operation = metrics.getOperation("Html5UpdateTool.updateTableHeads")
+            .get();
+        Assertions.assertEquals(1, operation.getCalls());
+        Assertions.assertEquals(1, operation.getMatched());
+        Assertions.assertEquals(1, operation.getMutated());
+    }
+
+    @Test
+    @DisplayName("Calls to the site tool are recorded, and included in the summary")
+    public final void testRecord_SiteTool() {
+        final InMemoryToolMetrics metrics;   // Tested metrics
+        final SiteTool            tool;      // Instrumented tool
+        final Element             element;   // Parsed HTML
+        final OperationMetrics    operation; // Recorded operation
+
+        metrics = new InMemoryToolMetrics();
+        tool = new SiteTool(metrics);
+
+        element = Jsoup.parse("<h1>A</h1><h2>B</h2><a href=\"#A\">A</a>")
+            .body();
+        tool.fixPage(element);
+        tool.fixReport(element, "abc");
+
+        operation = metrics.getOperation("SiteTool.fixPage")
+            .get();
+        Assertions.assertEquals(1, operation.getCalls());
+        Assertions.assertEquals(3, operation.getMatched());
+        Assertions.assertTrue(metrics.getOperation("SiteTool.fixReport")
+            .isPresent());
+        Assertions.assertTrue(metrics.getSummary()
+            .contains("SiteTool.fixPage: 1 calls, 3 matched, 3 mutated"));
+    }
+
+    @Test
+    @DisplayName("Calls to operations which don't select elements only record their time")
+    public final void testRecord_Parse() {
+        final InMemoryToolMetrics metrics;   // Tested metrics
+        final HtmlTool            tool;      // Instrumented tool
+        final OperationMetrics    operation; // Recorded operation
+
+        metrics = new InMemoryToolMetrics();
+        tool = new HtmlTool(new SelectorCache(), metrics);
+
+        tool.parse("<p>A</p>");
+
+        operation = metrics.getOperation("HtmlTool.parse")
+            .get();
+        Assertions.assertEquals(1, operation.getCalls());
+        Assertions.assertFalse(operation.isCounted());
+        Assertions.assertTrue(metrics.getSummary()
+            .startsWith("HtmlTool.parse: 1 calls, "));
+        Assertions.assertFalse(metrics.getSummary()
+            .contains("matched"));
+    }
+
+    @Test
+    @DisplayName("Calls to report fixes are recorded with the elements handed to the fixer, and those it changed")
+    public final void testRecord_SiteTool_FixReport() {
+        final InMemoryToolMetrics metrics;   // Tested metrics
+        final SiteTool            tool;      // Instrumented tool
+        final Element             element;   // Parsed HTML
+        final OperationMetrics    operation; // Recorded operation
+
+        metrics = new InMemoryToolMetrics();
+        tool = new SiteTool(metrics);
+
+        element = Jsoup.parse("<section><h2>A</h2><h3>B</h3></section>")
+            .body();
+        tool.fixReport(element, "summary");
+
+        operation = metrics.getOperation("SiteTool.fixReport")
+            .get();
+        Assertions.assertEquals(2, operation.getMatched());
+        Assertions.assertEquals(2, operation.getMutated());
+    }
+
+    @Test
+    @DisplayName("Calls to report fixes which change nothing are recorded without mutations")
+    public final void testRecord_SiteTool_FixReport_Unchanged() {
+        final InMemoryToolMetrics metrics;   // Tested metrics
+        final SiteTool            tool;      // Instrumented tool
+        final Element             element;   // Parsed HTML
+        final OperationMetrics    operation; // Recorded operation
+
+        metrics = new InMemoryToolMetrics();
+        tool = new SiteTool(metrics);
+
+        element = Jsoup.parse("<h1>A</h1><img src=\"images/icon.png\">")
+            .body();
+        tool.fixReport(element, "checkstyle");
+
+        operation = metrics.getOperation("SiteTool.fixReport")
+            .get();
+        Assertions.assertEquals(1, operation.getMatched());
+        Assertions.assertEquals(0, operation.getMutated());
+    }
+
+    @Test
+    @DisplayName("Operations never called have no metrics")
+    public final void testRecord_NotCalled() {
+        Assertions.assertTrue(new InMemoryToolMetrics().getOperation("HtmlTool.addClass")
+            .isEmpty());
+    }
+
+}
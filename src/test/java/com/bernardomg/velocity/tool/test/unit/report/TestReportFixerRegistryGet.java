@@ -0,0 +1,244 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.report;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.velocity.tool.report.ChangesReportFixer;
+import com.bernardomg.velocity.tool.report.ReportFixer;
+import com.bernardomg.velocity.tool.report.ReportFixerRegistry;
+import com.bernardomg.velocity.tool.report.TaggedElements;
+
+/**
+ * Unit tests for {@link ReportFixerRegistry}, testing the {@code get} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see ReportFixerRegistry
+ */
+@DisplayName("ReportFixerRegistry.get")
+public final class TestReportFixerRegistryGet {
+
+    /**
+     * Fixer registered through the thread context class loader.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     */
+    public static final class ContextReportFixer implements ReportFixer {
+
+        /**
+         * Default constructor.
+         */
+        public ContextReportFixer() {
+            super();
+        }
+
+        @Override
+        public final int fix(final Element root, final TaggedElements elements) {
+            return 0;
+        }
+
+        @Override
+        public final Collection<String> getReports() {
+            return List.of("context-report");
+        }
+
+        @Override
+        public final Collection<String> getTags() {
+            return List.of();
+        }
+
+    }
+
+    /**
+     * Directory for the service files.
+     */
+    @TempDir
+    public Path directory;
+
+    /**
+     * Default constructor.
+     */
+    public TestReportFixerRegistryGet() {
+        super();
+    }
+
+    @Test
+    @DisplayName("All the supported reports are loaded through the service loader")
+    public final void testGet_Default() {
+        final ReportFixerRegistry registry; // Tested registry
+
+        registry = new ReportFixerRegistry();
+
+        for (final String report : List.of("changes-report", "checkstyle", "checkstyle-aggregate", "cpd",
+            "dependencies", "dependency-analysis", "failsafe-report", "findbugs", "spotbugs", "jdepend-report",
+            "license", "licenses", "plugins", "plugin-management", "pmd", "project-summary", "summary",
+            "surefire-report", "taglist", "team-list", "team")) {
+            Assertions.assertTrue(registry.get(report)
+                .isPresent(), () -> "Missing fixer for " + report);
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown reports have no fixer")
+    public final void testGet_Unknown() {
+        Assertions.assertTrue(new ReportFixerRegistry().get("abc")
+            .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Custom fixers receive the elements for their tags")
+    public final void testGet_Custom() {
+        final ReportFixerRegistry registry; // Tested registry
+        final ReportFixer         fixer;    // Custom fixer
+        final Element             element;  // Parsed HTML
+
+        fixer = new ReportFixer() {
+
+            @Override
+            public final int fix(final Element root, final TaggedElements elements) {
+                for (final Element paragraph : elements.get("p")) {
+                    paragraph.addClass("fixed");
+                }
+
+                return elements.get("p")
+                    .size();
+            }
+
+            @Override
+            public final Collection<String> getReports() {
+                return List.of("custom");
+            }
+
+            @Override
+            public final Collection<String> getTags() {
+                return List.of("p");
+            }
+
+        };
+        registry = new ReportFixerRegistry(List.of(fixer));
+
+        element = Jsoup.parse("<h1>Heading</h1><p>Text</p><div><p>More text</p></div>")
+            .body();
+        registry.get("custom")
+            .get()
+            .fix(element, TaggedElements.collect(element, fixer.getTags()));
+
+        Assertions.assertEquals(2, element.select("p.fixed")
+            .size());
+    }
+
+    @Test
+    @DisplayName("Fixers registered in the thread context class loader are loaded")
+    public final void testGet_ContextClassLoader() throws IOException {
+        final Thread              thread;   // Current thread
+        final ClassLoader         previous; // Context class loader before the test
+        final Path                services; // Services file
+        final ReportFixerRegistry registry; // Tested registry
+
+        services = directory.resolve("META-INF/services/" + ReportFixer.class.getName());
+        Files.createDirectories(services.getParent());
+        Files.writeString(services, ContextReportFixer.class.getName());
+
+        thread = Thread.currentThread();
+        previous = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { directory.toUri()
+            .toURL() }, getClass().getClassLoader())) {
+            thread.setContextClassLoader(loader);
+            registry = new ReportFixerRegistry();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+
+        Assertions.assertTrue(registry.get("context-report")
+            .isPresent());
+        Assertions.assertTrue(registry.get("changes-report")
+            .isPresent());
+    }
+
+    @Test
+    @DisplayName("Custom fixers replace the built-in ones for the same report")
+    public final void testGet_Custom_ReplacesBuiltIn() {
+        final ReportFixerRegistry registry; // Tested registry
+        final ReportFixer         fixer;    // Custom fixer
+
+        fixer = reportFixer("changes-report");
+        registry = new ReportFixerRegistry(List.of(fixer, new ChangesReportFixer()));
+
+        Assertions.assertSame(fixer, registry.get("changes-report")
+            .get());
+    }
+
+    @Test
+    @DisplayName("Two custom fixers for the same report are rejected")
+    public final void testGet_Custom_Repeated() {
+        final List<ReportFixer> fixers; // Fixers for the same report
+
+        fixers = List.of(reportFixer("custom"), reportFixer("custom"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ReportFixerRegistry(fixers));
+    }
+
+    /**
+     * Returns a fixer for the report, which does nothing.
+     *
+     * @param report
+     *            report id
+     * @return a fixer for the report
+     */
+    private final ReportFixer reportFixer(final String report) {
+        return new ReportFixer() {
+
+            @Override
+            public final int fix(final Element root, final TaggedElements elements) {
+            return 0;
+        }
+
+            @Override
+            public final Collection<String> getReports() {
+                return List.of(report);
+            }
+
+            @Override
+            public final Collection<String> getTags() {
+                return List.of();
+            }
+
+        };
+    }
+
+}
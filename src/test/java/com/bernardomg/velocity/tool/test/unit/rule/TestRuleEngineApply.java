@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.rule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.rule.ElementRule;
+import com.bernardomg.velocity.tool.rule.RuleEngine;
+
+/**
+ * Unit tests for {@link RuleEngine}, testing the {@code apply} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see RuleEngine
+ */
+@DisplayName("RuleEngine.apply")
+public final class TestRuleEngineApply {
+
+    /**
+     * Rule which records the elements it receives.
+     */
+    private static final class RecordingRule implements ElementRule {
+
+        /**
+         * Steps applied by the rule.
+         */
+        private final List<String>       steps;
+
+        /**
+         * Tags for the rule.
+         */
+        private final Collection<String> tags;
+
+        /**
+         * Constructs a rule.
+         *
+         * @param ruleSteps
+         *            list where the steps will be stored
+         * @param ruleTags
+         *            tags for the rule
+         */
+        private RecordingRule(final List<String> ruleSteps, final String... ruleTags) {
+            super();
+
+            steps = ruleSteps;
+            tags = List.of(ruleTags);
+        }
+
+        @Override
+        public final void apply(final Element element) {
+            steps.add("apply:" + element.normalName());
+        }
+
+        @Override
+        public final Collection<String> getTags() {
+            return tags;
+        }
+
+        @Override
+        public final boolean matches(final Element element) {
+            return !"body".equals(element.normalName());
+        }
+
+        @Override
+        public final void tail(final Element element) {
+            steps.add("tail:" + element.normalName());
+        }
+
+    }
+
+    /**
+     * Default constructor.
+     */
+    public TestRuleEngineApply() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Rules are applied in document order, and tails after them")
+    public final void testApply_Order() {
+        final List<String> steps;   // Steps applied
+        final Element      element; // Parsed HTML
+
+        steps = new ArrayList<>();
+
+        element = Jsoup.parse("<h1>Heading</h1><p>Text</p>")
+            .body();
+        new RuleEngine(new RecordingRule(steps)).apply(element);
+
+        Assertions.assertEquals(List.of("apply:h1", "apply:p", "tail:h1", "tail:p"), steps);
+    }
+
+    @Test
+    @DisplayName("Rules are only applied to their tags")
+    public final void testApply_Tags() {
+        final List<String> steps;   // Steps applied
+        final Element      element; // Parsed HTML
+
+        steps = new ArrayList<>();
+
+        element = Jsoup.parse("<h1>Heading</h1><p>Text</p><p>More text</p>")
+            .body();
+        new RuleEngine(new RecordingRule(steps, "p")).apply(element);
+
+        Assertions.assertEquals(List.of("apply:p", "apply:p", "tail:p", "tail:p"), steps);
+    }
+
+    @Test
+    @DisplayName("Detached elements are not received by the following rules")
+    public final void testApply_Detached() {
+        final List<String> steps;   // Steps applied
+        final Element      element; // Parsed HTML
+        final ElementRule  remove;  // Rule removing elements
+
+        steps = new ArrayList<>();
+        remove = new ElementRule() {
+
+            @Override
+            public final void apply(final Element elem) {
+                elem.remove();
+            }
+
+            @Override
+            public final Collection<String> getTags() {
+                return List.of("p");
+            }
+
+            @Override
+            public final boolean matches(final Element elem) {
+                return true;
+            }
+
+        };
+
+        element = Jsoup.parse("<h1>Heading</h1><p>Text</p>")
+            .body();
+        new RuleEngine(remove, new RecordingRule(steps)).apply(element);
+
+        Assertions.assertEquals(List.of("apply:h1", "tail:h1"), steps);
+        Assertions.assertEquals("<h1>Heading</h1>", element.html());
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.scan;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.NeedleScanner;
+
+/**
+ * Unit tests for {@link NeedleScanner}, testing the {@code scan} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see NeedleScanner
+ */
+@DisplayName("NeedleScanner.scan")
+public final class TestNeedleScannerScan {
+
+    /**
+     * Default constructor.
+     */
+    public TestNeedleScannerScan() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Needles are found ignoring the case")
+    public final void testScan_IgnoresCase() {
+        final NeedleScanner scanner; // Tested scanner
+
+        scanner = new NeedleScanner(List.of("<IMG", "<th"));
+
+        Assertions.assertEquals(Set.of("<img", "<th"), scanner.scan("<TH>Head</TH><img src=\"a.gif\">"));
+    }
+
+    @Test
+    @DisplayName("Needles which are not ASCII are rejected")
+    public final void testScan_NotAscii() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new NeedleScanner(List.of("<á")));
+    }
+
+    @Test
+    @DisplayName("Text without any needle finds nothing")
+    public final void testScan_NotFound() {
+        final NeedleScanner scanner; // Tested scanner
+
+        scanner = new NeedleScanner(NeedleScanner.IMAGE_NEEDLES);
+
+        Assertions.assertEquals(Set.of(), scanner.scan("<p>Imágenes <i>img</i></p>"));
+    }
+
+    @Test
+    @DisplayName("Needles overlapping each other are all found")
+    public final void testScan_Overlapping() {
+        final NeedleScanner scanner; // Tested scanner
+
+        scanner = new NeedleScanner(List.of("he", "she", "his", "hers"));
+
+        Assertions.assertEquals(Set.of("he", "she", "hers"), scanner.scan("ushers"));
+    }
+
+    @Test
+    @DisplayName("The needles for a selector are the tags for its subjects")
+    public final void testSelectorNeedles() {
+        Assertions.assertEquals(List.of("<img"), NeedleScanner.getSelectorNeedles("p > img"));
+        Assertions.assertEquals(List.of(), NeedleScanner.getSelectorNeedles("table, .class"));
+        Assertions.assertEquals(List.of(), NeedleScanner.getSelectorNeedles("table > tbody, p"));
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.site;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link SiteTool}, testing the {@code fixPage} method.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteTool
+ */
+@DisplayName("SiteTool.fixPage")
+public final class TestSiteToolFixPage {
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final SiteTool util = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolFixPage() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Transforming an empty string does nothing")
+    public final void testEmptyString() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "";
+        htmlExpected = "";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixPage(element);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("Gives the same result as applying each fix")
+    public final void testFixes_SameAsSequential() {
+        final String  html;       // HTML code to edit
+        final Element element;    // Parsed HTML
+        final Element sequential; // HTML fixed one step at a time
+
+        html = "<h1>A heading</h1><p><a href=\"#A_heading\">Link</a></p><h2 id=\"Some id\">Subheading</h2>"
+                + "<p><img src=\"images/add.gif\"></p><p><img src=\"image.png\" alt=\"Image\"></p>"
+                + "<section><p><figure><img src=\"other.png\"></figure></p><a href=\"http://www.example.com\">Link</a></section>";
+
+        sequential = Jsoup.parse(html)
+            .body();
+        util.fixHeadingIds(sequential);
+        util.fixAnchorLinks(sequential);
+        util.transformIcons(sequential);
+        util.transformImagesToFigures(sequential);
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixPage(element);
+
+        Assertions.assertEquals(sequential.html(), element.html());
+    }
+
+    @Test
+    @DisplayName("Applies all the fixes")
+    public final void testFixes_Applied() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        html = "<h1>A heading</h1><p><a href=\"#A_heading\">Link</a><img src=\"images/add.gif\"></p><p><img src=\"image.png\" alt=\"Image\"></p>";
+        htmlExpected = "<h1 id=\"A-heading\">A heading</h1>\n"
+                + "<p><a href=\"#A-heading\">Link</a><span><span class=\"fa-solid fa-plus\" aria-hidden=\"true\"></span><span class=\"sr-only\">Addition</span></span></p>\n"
+                + "<figure>\n <img src=\"image.png\" alt=\"Image\">\n <figcaption>\n  Image\n </figcaption>\n</figure>";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.fixPage(element);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.site;
+
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.parser.HtmlTreeBuilder;
+import org.jsoup.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Unit tests for {@link SiteTool}, testing the {@code fixReport} method doesn't parse HTML.
+ * <p>
+ * The page is given a parser which counts the fragments parsed, as methods such as {@link Element#prepend(String)}
+ * parse through the document parser.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteTool
+ */
+@DisplayName("SiteTool.fixReport")
+public final class TestSiteToolFixReportParsing {
+
+    /**
+     * Parser counting the fragments parsed.
+     */
+    private static final class CountingParser extends Parser {
+
+        /**
+         * Number of fragments parsed.
+         */
+        private int fragments = 0;
+
+        /**
+         * Default constructor.
+         */
+        public CountingParser() {
+            super(new HtmlTreeBuilder());
+        }
+
+        @Override
+        public final List<Node> parseFragmentInput(final String fragment, final Element context, final String baseUri) {
+            fragments++;
+
+            return super.parseFragmentInput(fragment, context, baseUri);
+        }
+
+    }
+
+    /**
+     * Page with the elements used by all the report fixers.
+     */
+    private static final String   HTML    = "<section><h2>Report</h2><img src=\"images/icon_error_sml.gif\"/>"
+            + "<section><h3>History</h3></section><section><h3 id=\"a010\">Release 0.1.0 – 2015-05-17</h3></section>"
+            + "<section><h3>Plugins</h3><table><tr><td>Plugin</td></tr></table></section></section>";
+
+    /**
+     * Reports to fix.
+     */
+    private static final String[] REPORTS = { "changes-report", "checkstyle", "cpd", "dependencies",
+            "dependency-analysis", "failsafe-report", "license", "plugin-management", "plugins", "surefire-report" };
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final SiteTool        util    = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolFixReportParsing() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Fixing a report parses no HTML")
+    public final void testFixReport_NoParsing() {
+        final CountingParser parser;   // Parser counting the fragments
+        Document             document; // Parsed HTML
+
+        parser = new CountingParser();
+        for (final String report : REPORTS) {
+            document = Jsoup.parse(HTML);
+            document.parser(parser);
+
+            util.fixReport(document.body(), report);
+
+            Assertions.assertEquals(0, parser.fragments, "Fragments parsed for " + report);
+        }
+    }
+
+}
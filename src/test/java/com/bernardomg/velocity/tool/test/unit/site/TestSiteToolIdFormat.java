@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.site;
+
+import java.util.Random;
+
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.SiteTool;
+
+/**
+ * Property tests for {@link SiteTool}, checking the id formatting against the original regular expressions.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ * @see SiteTool
+ */
+@DisplayName("SiteTool id formatting")
+public final class TestSiteToolIdFormat {
+
+    /**
+     * Characters used to generate the random ids. Includes valid and invalid characters, surrogate pairs and control
+     * characters.
+     */
+    private static final String ALPHABET = "aZ09_- #.\t\n\r\u0000\u001f:/?&=éÑ中\u00a0\u2003\ud83d\ude00";
+
+    /**
+     * Number of random ids to check.
+     */
+    private static final int    SAMPLES  = 10000;
+
+    /**
+     * Instance of the utils class being tested.
+     */
+    private final SiteTool      util     = new SiteTool();
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolIdFormat() {
+        super();
+    }
+
+    /**
+     * Formats the id with the original regular expressions.
+     *
+     * @param id
+     *            id to format
+     * @return the formatted id
+     */
+    private static final String formatWithRegex(final String id) {
+        return id.trim()
+            .replaceAll("[ _]", "-")
+            .replaceAll("[^\\w#-]", "");
+    }
+
+    /**
+     * Generates a random id.
+     *
+     * @param random
+     *            random generator
+     * @return a random id
+     */
+    private static final String randomId(final Random random) {
+        final StringBuilder id;     // Generated id
+        final int           length; // Id length
+
+        length = random.nextInt(12);
+        id = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            id.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+
+        return id.toString();
+    }
+
+    @Test
+    @DisplayName("Anchor links are formatted the same as with regular expressions")
+    public final void testAnchor_SameAsRegex() {
+        final Random random; // Random generator
+        Element      anchor; // Anchor to fix
+
+        random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            final String href = "#" + randomId(random);
+            anchor = new Element("a").attr("href", href);
+
+            util.fixAnchorLinks(anchor);
+
+            Assertions.assertEquals(formatWithRegex(href), anchor.attr("href"), () -> "Failed for " + href);
+        }
+    }
+
+    @Test
+    @DisplayName("Heading ids are formatted the same as with regular expressions")
+    public final void testHeading_SameAsRegex() {
+        final Random random;  // Random generator
+        Element      heading; // Heading to fix
+
+        random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            final String id = randomId(random);
+            heading = new Element("h1").attr("id", id);
+
+            util.fixHeadingIds(heading);
+
+            Assertions.assertEquals(formatWithRegex(id), heading.attr("id"), () -> "Failed for " + id);
+        }
+    }
+
+}
@@ -70,6 +70,114 @@ public final void testEmptyString() {
         Assertions.assertEquals(htmlExpected, element.html());
     }
 
+    @Test
+    @DisplayName("Transforms custom icons")
+    public final void testIcon_Custom_Transforms() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final Element  element;      // Parsed HTML
+        final SiteTool tool;         // Tool with custom icons
+
+        html = "<img src=\"images/custom.gif\" alt=\"An image\">";
+        htmlExpected = "<span class=\"fa-solid fa-star\"></span>";
+
+        tool = new SiteTool();
+        tool.addIcon("images/custom.gif", "<span class=\"fa-solid fa-star\"></span>");
+
+        element = Jsoup.parse(html)
+            .body();
+        tool.transformIcons(element);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("Sources are matched ignoring case")
+    public final void testIcon_IgnoreCase_Transforms() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final Element  element;      // Parsed HTML
+        final SiteTool tool;         // Tool with custom icons
+
+        html = "<img src=\"../Images/Custom.GIF\">";
+        htmlExpected = "<span class=\"fa-solid fa-star\"></span>";
+
+        tool = new SiteTool();
+        tool.addIcon("images/custom.gif", "<span class=\"fa-solid fa-star\"></span>");
+
+        element = Jsoup.parse(html)
+            .body();
+        tool.transformIcons(element);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("The longest ending matching the source is used")
+    public final void testIcon_LongestEnding_Transforms() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final Element  element;      // Parsed HTML
+        final SiteTool tool;         // Tool with custom icons
+
+        html = "<p><img src=\"other/star.gif\"><img src=\"images/star.gif\"></p>";
+        htmlExpected = "<p><span class=\"star\"></span><span class=\"image-star\"></span></p>";
+
+        tool = new SiteTool();
+        tool.addIcon("star.gif", "<span class=\"star\"></span>");
+        tool.addIcon("images/star.gif", "<span class=\"image-star\"></span>");
+
+        element = Jsoup.parse(html)
+            .body();
+        tool.transformIcons(element);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("Custom icons can replace the default ones")
+    public final void testIcon_Overwritten_Transforms() {
+        final String   html;         // HTML code to edit
+        final String   htmlExpected; // Expected result
+        final Element  element;      // Parsed HTML
+        final SiteTool tool;         // Tool with custom icons
+
+        html = "<img src=\"images/add.gif\" alt=\"An image\">";
+        htmlExpected = "<span class=\"fa-solid fa-square-plus\"></span>";
+
+        tool = new SiteTool();
+        tool.addIcon("images/add.gif", "<span class=\"fa-solid fa-square-plus\"></span>");
+
+        element = Jsoup.parse(html)
+            .body();
+        tool.transformIcons(element);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("Transforms repeated icons")
+    public final void testIcon_Repeated_Transforms() {
+        final String  html;         // HTML code to edit
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+        final Element repeated;     // HTML parsed again
+
+        html = "<p><img src=\"images/fix.gif\"><img src=\"images/fix.gif\"></p>";
+        htmlExpected = "<p><span><span class=\"fa-solid fa-wrench\" aria-hidden=\"true\"></span><span class=\"sr-only\">Fix</span></span><span><span class=\"fa-solid fa-wrench\" aria-hidden=\"true\"></span><span class=\"sr-only\">Fix</span></span></p>";
+
+        element = Jsoup.parse(html)
+            .body();
+        util.transformIcons(element);
+        // The page is transformed twice, to make sure the icons are reusable
+        repeated = Jsoup.parse(html)
+            .body();
+        util.transformIcons(repeated);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+        Assertions.assertEquals(htmlExpected, repeated.html());
+    }
+
     @Test
     @DisplayName("Transforms icons")
     public final void testIcon_Transforms() {
@@ -121,6 +121,50 @@ public final void testEmptyString() {
         Assertions.assertEquals(htmlExpected, element.html());
     }
 
+    @Test
+    @DisplayName("Figures already in the page are kept in their paragraphs")
+    public final void testExistingFigure_Kept() {
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        htmlExpected = "<p><figure>Chart</figure></p>";
+
+        // The parser won't put a figure inside a paragraph
+        element = Jsoup.parse("<p></p>")
+            .body();
+        element.child(0)
+            .appendElement("figure")
+            .text("Chart");
+        element.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+        util.transformImagesToFigures(element);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
+    @Test
+    @DisplayName("Figures already in the page are unwrapped from their paragraphs when included")
+    public final void testExistingFigure_Unwrapped() {
+        final String  htmlExpected; // Expected result
+        final Element element;      // Parsed HTML
+
+        htmlExpected = "<figure>Chart</figure>";
+
+        // The parser won't put a figure inside a paragraph
+        element = Jsoup.parse("<p></p>")
+            .body();
+        element.child(0)
+            .appendElement("figure")
+            .text("Chart");
+        element.ownerDocument()
+            .outputSettings()
+            .prettyPrint(false);
+        util.transformImagesToFigures(element, true);
+
+        Assertions.assertEquals(htmlExpected, element.html());
+    }
+
     @Test
     @DisplayName("If there are no images it does nothing")
     public final void testNoImages_Untouched() {
@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2015-2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.toolbox;
+
+import org.apache.velocity.tools.ToolContext;
+import org.apache.velocity.tools.ToolManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.Html5UpdateTool;
+import com.bernardomg.velocity.tool.HtmlTool;
+import com.bernardomg.velocity.tool.MetricsTool;
+import com.bernardomg.velocity.tool.SiteTool;
+import com.bernardomg.velocity.tool.metrics.NoOpToolMetrics;
+
+/**
+ * Unit tests for the tools configuration in {@code META-INF/maven/site-tools.xml}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@DisplayName("site-tools.xml")
+public final class TestSiteToolsConfiguration {
+
+    /**
+     * Default constructor.
+     */
+    public TestSiteToolsConfiguration() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The tools record their operations into the metrics of the metrics tool when enabled")
+    public final void testTools_Metrics() {
+        final ToolManager manager;  // Velocity tools manager
+        final ToolContext context;  // Context for a render
+        final HtmlTool    htmlTool; // HTML tool from the context
+        final MetricsTool metrics;  // Metrics tool from the context
+
+        manager = new ToolManager(false, false);
+        manager.configure("tools-metrics.xml");
+
+        context = manager.createContext();
+        htmlTool = (HtmlTool) context.get("htmlTool");
+        metrics = (MetricsTool) context.get("metrics");
+
+        htmlTool.parse("<p>A</p>");
+
+        Assertions.assertSame(metrics.getMetrics(), htmlTool.getMetrics());
+        Assertions.assertSame(metrics.getMetrics(), ((Html5UpdateTool) context.get("html5UpdateTool")).getMetrics());
+        Assertions.assertTrue(metrics.getSummary()
+            .startsWith("HtmlTool.parse: 1 calls"));
+    }
+
+    @Test
+    @DisplayName("Each toolbox keeps its own metrics")
+    public final void testTools_Metrics_PerToolbox() {
+        final ToolManager first;  // Velocity tools manager
+        final ToolManager second; // Another Velocity tools manager
+
+        first = new ToolManager(false, false);
+        first.configure("tools-metrics.xml");
+        second = new ToolManager(false, false);
+        second.configure("tools-metrics.xml");
+
+        ((HtmlTool) first.createContext()
+            .get("htmlTool")).parse("<p>A</p>");
+
+        Assertions.assertTrue(((MetricsTool) second.createContext()
+            .get("metrics")).getOperations()
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("The tools don't record their operations by default")
+    public final void testTools_NoMetrics() {
+        final ToolManager manager; // Velocity tools manager
+        final ToolContext context; // Context for a render
+
+        manager = new ToolManager(false, false);
+        manager.configure("META-INF/maven/site-tools.xml");
+
+        context = manager.createContext();
+
+        Assertions.assertInstanceOf(NoOpToolMetrics.class, ((HtmlTool) context.get("htmlTool")).getMetrics());
+        Assertions.assertInstanceOf(NoOpToolMetrics.class,
+            ((Html5UpdateTool) context.get("html5UpdateTool")).getMetrics());
+        Assertions.assertInstanceOf(MetricsTool.class, context.get("metrics"));
+    }
+
+    @Test
+    @DisplayName("The same tool instances are shared by all the renders")
+    public final void testTools_Shared() {
+        final ToolManager manager; // Velocity tools manager
+        final ToolContext first;   // Context for a render
+        final ToolContext second;  // Context for another render
+
+        manager = new ToolManager(false, false);
+        manager.configure("META-INF/maven/site-tools.xml");
+
+        first = manager.createContext();
+        second = manager.createContext();
+
+        Assertions.assertFalse(manager.hasRequestTools());
+        Assertions.assertInstanceOf(HtmlTool.class, first.get("htmlTool"));
+        Assertions.assertInstanceOf(Html5UpdateTool.class, first.get("html5UpdateTool"));
+        Assertions.assertInstanceOf(SiteTool.class, first.get("siteTool"));
+        Assertions.assertSame(first.get("htmlTool"), second.get("htmlTool"));
+        Assertions.assertSame(first.get("html5UpdateTool"), second.get("html5UpdateTool"));
+        Assertions.assertSame(first.get("siteTool"), second.get("siteTool"));
+    }
+
+}